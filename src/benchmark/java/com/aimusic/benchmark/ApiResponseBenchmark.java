@@ -0,0 +1,68 @@
+package com.aimusic.benchmark;
+
+import com.aimusic.dto.AnswerResponse;
+import com.aimusic.dto.ApiResponse;
+import com.aimusic.dto.MusicInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ApiResponse 序列化基准测试，使用与应用相同配置的ObjectMapper（见 BenchmarkSupport.objectMapper）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<AnswerResponse> answer;
+    private ApiResponse<Object> error;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkSupport.objectMapper();
+
+        List<MusicInfo> musicList = new ArrayList<>();
+        String[][] songs = {
+            {"刘若英", "后来", "254548"},
+            {"朴树", "平凡之路", "28815250"},
+            {"The Beatles", "Yesterday", "3093131"},
+            {"宇多田光", "First Love", "22707008"},
+            {"周杰伦", "青花瓷", "185811"}
+        };
+        StringBuilder text = new StringBuilder();
+        for (String[] song : songs) {
+            musicList.add(new MusicInfo(song[0], song[1], song[2],
+                "https://m701.music.126.net/20261018120000/0f3e9c2a7b1d4e5f/jdymusic/obj/wo3DlMOGwrbDjj7DisKw/" + song[2] + ".flac"));
+            text.append("一段歌词--").append(song[0]).append('《').append(song[1]).append("》\n");
+        }
+        answer = ApiResponse.success(new AnswerResponse("最近工作压力很大，有什么歌可以让我放松一下吗？", text.toString(), musicList));
+        error = ApiResponse.error("请求过于频繁，请稍后再试");
+    }
+
+    @Benchmark
+    public byte[] answerResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(answer);
+    }
+
+    @Benchmark
+    public byte[] errorResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(error);
+    }
+}
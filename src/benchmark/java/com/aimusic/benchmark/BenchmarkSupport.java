@@ -0,0 +1,90 @@
+package com.aimusic.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基准测试公共工具：访问私有方法、读取样例报文
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 获取私有方法的句柄，与单元测试一样通过反射访问，不为基准测试放宽生产代码的可见性
+     */
+    static MethodHandle privateMethod(Class<?> owner, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = owner.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法访问 " + owner.getSimpleName() + "." + name, e);
+        }
+    }
+
+    /**
+     * 通过包内可见的构造函数创建实例
+     */
+    static Object newInstance(Class<?> type, Class<?>[] parameterTypes, Object... args) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+            return constructor.newInstance(args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法创建 " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * 与应用中相同配置的ObjectMapper：Spring MVC的默认构建方式
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    /**
+     * 为字段注入的组件设置依赖
+     */
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法设置 " + target.getClass().getSimpleName() + "." + name, e);
+        }
+    }
+
+    /**
+     * 读取 src/benchmark/resources/payloads 下的样例报文
+     */
+    static String payload(String name) {
+        return new String(payloadBytes(name), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取样例报文的原始字节，对应从网络上收到的响应体
+     */
+    static byte[] payloadBytes(String name) {
+        try (InputStream in = BenchmarkSupport.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("样例报文不存在: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.aimusic.benchmark;
+
+import com.aimusic.controller.MainController;
+import com.aimusic.dto.QuestionRequest;
+import com.aimusic.util.RequestFingerprint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求指纹基准测试：流式64位指纹 vs 原MD5十六进制串
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestFingerprintBenchmark {
+
+    private final String clientIp = "203.0.113.42";
+    private final String question = "  最近工作压力很大，晚上总是睡不着，有什么歌可以让我放松一下吗？  ";
+    private final Integer musicCount = 5;
+    private final List<String> genres = List.of("pop", "folk");
+    private final List<String> regions = List.of("china", "japan");
+
+    private MainController controller;
+    private MethodHandle generateRequestKey;
+    private QuestionRequest request;
+
+    @Setup
+    public void setUp() {
+        controller = new MainController();
+        generateRequestKey = BenchmarkSupport.privateMethod(MainController.class, "generateRequestKey",
+            QuestionRequest.class, String.class);
+        request = new QuestionRequest();
+        request.setQuestion(question);
+        request.setMusicCount(musicCount);
+        request.setGenres(genres);
+        request.setRegions(regions);
+    }
+
+    @Benchmark
+    public long fingerprint64() {
+        return RequestFingerprint.ofQuestion(clientIp, question, musicCount, genres, regions);
+    }
+
+    /**
+     * 控制器中的实际调用路径（含请求对象字段读取）
+     */
+    @Benchmark
+    public long generateRequestKey() throws Throwable {
+        return (long) generateRequestKey.invoke(controller, request, clientIp);
+    }
+
+    @Benchmark
+    public String md5Hex() {
+        return legacyMd5Key();
+    }
+
+    /**
+     * 重构前 MainController.generateRequestKey 的实现
+     */
+    private String legacyMd5Key() {
+        try {
+            String data = clientIp + ":" + question.trim() + ":" +
+                         (musicCount != null ? musicCount : 5) + ":" +
+                         (genres != null ? String.join(",", genres) : "pop") + ":" +
+                         (regions != null ? String.join(",", regions) : "china");
+
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            byte[] hash = md.digest(data.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return clientIp + "_" + question.hashCode();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.aimusic.benchmark;
+
+import com.aimusic.service.MusicService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MusicService.extractMultipleSongInfo 基准测试
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SongInfoExtractBenchmark {
+
+    private static final String[] LINES = {
+        "後來 我總算學會了 如何去愛--刘若英《后来》",
+        "我曾经跨过山和大海 也穿过人山人海--朴树《平凡之路》",
+        "Yesterday, all my troubles seemed so far away--The Beatles《Yesterday》",
+        "君がいるだけで心が強くなれること--宇多田光《First Love》",
+        "天青色等烟雨 而我在等你--周杰伦《青花瓷》",
+        "밤이 깊어가니까 이제 돌아가야지--IU《Through the Night》",
+        "我们都是追梦人--王菲《追梦人》",
+        "Hello from the other side--Adele《Hello》",
+        "你问我爱你有多深 我爱你有几分--邓丽君《月亮代表我的心》",
+        "吻别在这个深秋的夜里--张学友《吻别》"
+    };
+
+    /**
+     * 回答中的歌词行数，对应 musicCount 的常见取值
+     */
+    @Param({"1", "5", "10"})
+    private int lines;
+
+    private MethodHandle extract;
+    private String answer;
+    private String noisyAnswer;
+    private String driftedAnswer;
+
+    @Setup
+    public void setUp() {
+        extract = BenchmarkSupport.privateMethod(MusicService.class, "extractMultipleSongInfo", String.class);
+
+        StringBuilder clean = new StringBuilder();
+        StringBuilder noisy = new StringBuilder("好的，以下是为你挑选的歌词：\n\n");
+        StringBuilder drifted = new StringBuilder("好的，以下是为你挑选的歌词：\r\n\r\n");
+        for (int i = 0; i < lines; i++) {
+            clean.append(LINES[i]).append('\n');
+            // 模型偶尔输出的编号、多余空行和空格
+            noisy.append(i + 1).append(". ").append(LINES[i]).append("  \n\n");
+            // 全角破折号、「」书名号、markdown列表和加粗、\r\n换行
+            drifted.append("- **").append(LINES[i].replace("--", "**——").replace('《', '「').replace('》', '」'))
+                .append("\r\n");
+        }
+        answer = clean.toString();
+        noisyAnswer = noisy.append("希望你喜欢！").toString();
+        driftedAnswer = drifted.append("希望你喜欢！").toString();
+    }
+
+    @Benchmark
+    public List<?> wellFormed() throws Throwable {
+        return (List<?>) extract.invoke(answer);
+    }
+
+    @Benchmark
+    public List<?> withNoise() throws Throwable {
+        return (List<?>) extract.invoke(noisyAnswer);
+    }
+
+    @Benchmark
+    public List<?> drifted() throws Throwable {
+        return (List<?>) extract.invoke(driftedAnswer);
+    }
+}
@@ -0,0 +1,74 @@
+package com.aimusic.benchmark;
+
+import com.aimusic.config.AiConfig;
+import com.aimusic.prompt.SystemPromptRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 系统提示词渲染基准测试：缓存命中与直接渲染模板
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SystemPromptBenchmark {
+
+    private final int musicCount = 5;
+    private final List<String> genres = List.of("pop", "folk", "rock");
+    private final List<String> regions = List.of("china", "japan", "korea");
+
+    private SystemPromptRenderer renderer;
+    private MethodHandle renderUncached;
+
+    @Setup
+    public void setUp() {
+        renderer = new SystemPromptRenderer();
+        BenchmarkSupport.setField(renderer, "aiConfig", new AiConfig());
+        BenchmarkSupport.setField(renderer, "resourceLoader", new DefaultResourceLoader());
+        renderer.init();
+        renderUncached = BenchmarkSupport.privateMethod(SystemPromptRenderer.class, "renderUncached",
+            String.class, int.class, List.class, List.class);
+    }
+
+    /**
+     * 请求路径上的实际调用：命中渲染缓存
+     */
+    @Benchmark
+    public String chineseSystemPrompt() {
+        return renderer.render(musicCount, "zh-CN", genres, regions);
+    }
+
+    @Benchmark
+    public String englishSystemPrompt() {
+        return renderer.render(musicCount, "en-US", genres, regions);
+    }
+
+    /**
+     * 缓存未命中时的模板渲染
+     */
+    @Benchmark
+    public String chineseSystemPromptUncached() throws Throwable {
+        return (String) renderUncached.invoke(renderer, "zh-CN", musicCount, genres, regions);
+    }
+
+    @Benchmark
+    public String englishSystemPromptUncached() throws Throwable {
+        return (String) renderUncached.invoke(renderer, "en-US", musicCount, genres, regions);
+    }
+}
@@ -0,0 +1,128 @@
+package com.aimusic.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上游响应解析基准测试：chat completions、网易云搜索结果和播放链接
+ * 解析逻辑见 UpstreamPayloads（包内可见），样例报文见 src/benchmark/resources/payloads
+ *
+ * <p>*Tree 为改造前的做法（响应体解码成字符串后 readTree），作为对照；
+ * 其余从字节（异步路径）或输入流（同步路径）流式解析。配合 -prof gc 查看每次解析的分配量
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpstreamJsonBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MethodHandle chatContent;
+    private MethodHandle chatContentStream;
+    private MethodHandle searchResults;
+    private MethodHandle searchResultsStream;
+    private MethodHandle rank;
+    private MethodHandle playUrl;
+    private byte[] chatCompletionBody;
+    private byte[] searchBody;
+    private byte[] searchPageBody;
+    private byte[] songUrlBody;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        Class<?> type = Class.forName("com.aimusic.service.UpstreamPayloads");
+        Object payloads = BenchmarkSupport.newInstance(type, new Class<?>[] {ObjectMapper.class}, BenchmarkSupport.objectMapper());
+        chatContent = BenchmarkSupport.privateMethod(type, "chatContent", byte[].class).bindTo(payloads);
+        chatContentStream = BenchmarkSupport.privateMethod(type, "chatContent", InputStream.class).bindTo(payloads);
+        searchResults = BenchmarkSupport.privateMethod(type, "searchResults", byte[].class, int.class).bindTo(payloads);
+        searchResultsStream = BenchmarkSupport.privateMethod(type, "searchResults", InputStream.class, int.class).bindTo(payloads);
+        rank = BenchmarkSupport.privateMethod(Class.forName("com.aimusic.service.SongMatcher"), "rank",
+            String.class, String.class, List.class);
+        playUrl = BenchmarkSupport.privateMethod(type, "playUrl", byte[].class).bindTo(payloads);
+        chatCompletionBody = BenchmarkSupport.payloadBytes("chat-completion.json");
+        searchBody = BenchmarkSupport.payloadBytes("netease-search.json");
+        searchPageBody = BenchmarkSupport.payloadBytes("netease-search-page.json");
+        songUrlBody = BenchmarkSupport.payloadBytes("song-url.json");
+    }
+
+    @Benchmark
+    public String chatCompletionTree() throws Exception {
+        JsonNode root = objectMapper.readTree(new String(chatCompletionBody, StandardCharsets.UTF_8));
+        return root.get("choices").get(0).get("message").get("content").asText();
+    }
+
+    @Benchmark
+    public String chatCompletion() throws Throwable {
+        return (String) chatContent.invoke(chatCompletionBody);
+    }
+
+    @Benchmark
+    public String chatCompletionStream() throws Throwable {
+        return (String) chatContentStream.invoke((InputStream) new ByteArrayInputStream(chatCompletionBody));
+    }
+
+    /**
+     * 改造前：搜索接口按50条请求，只取第一首
+     */
+    @Benchmark
+    public List<?> neteaseSearchTree() throws Exception {
+        JsonNode root = objectMapper.readTree(new String(searchBody, StandardCharsets.UTF_8));
+        List<String> ids = new ArrayList<>();
+        ids.add(root.get("result").get("songs").get(0).get("id").asText());
+        return ids;
+    }
+
+    /**
+     * 默认的第一页（5条，约3.6KB）解析并按相似度排序
+     */
+    @Benchmark
+    public List<?> neteaseSearchPage() throws Throwable {
+        return (List<?>) rank.invoke("刘若英", "后来", (List<?>) searchResults.invoke(searchPageBody, 5));
+    }
+
+    @Benchmark
+    public List<?> neteaseSearchPageStream() throws Throwable {
+        return (List<?>) rank.invoke("刘若英", "后来",
+            (List<?>) searchResultsStream.invoke((InputStream) new ByteArrayInputStream(searchPageBody), 5));
+    }
+
+    /**
+     * 第一页没有足够好的匹配时扩大搜索：50条全部解析并排序
+     */
+    @Benchmark
+    public List<?> neteaseSearchWide() throws Throwable {
+        return (List<?>) rank.invoke("刘若英", "后来", (List<?>) searchResults.invoke(searchBody, 50));
+    }
+
+    @Benchmark
+    public String songUrlTree() throws Exception {
+        JsonNode root = objectMapper.readTree(new String(songUrlBody, StandardCharsets.UTF_8));
+        return root.get("data").get("url").asText();
+    }
+
+    @Benchmark
+    public String songUrl() throws Throwable {
+        return (String) playUrl.invoke(songUrlBody);
+    }
+}
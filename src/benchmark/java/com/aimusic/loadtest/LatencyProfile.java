@@ -0,0 +1,63 @@
+package com.aimusic.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 桩服务的延迟与错误率模型
+ * 延迟服从对数正态分布，由中位数和p99确定；格式 "中位数/p99[/错误率]"，例如 "800ms/3s/0.01"
+ */
+final class LatencyProfile {
+
+    // 标准正态分布的99分位
+    private static final double Z_99 = 2.326;
+
+    private final long medianMicros;
+    private final double sigma;
+    private final double errorRate;
+
+    LatencyProfile(Duration median, Duration p99, double errorRate) {
+        if (p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("p99不能小于中位数: " + median + "/" + p99);
+        }
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("错误率必须在0到1之间: " + errorRate);
+        }
+        this.medianMicros = median.toNanos() / 1000;
+        this.sigma = medianMicros == 0 ? 0 : Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+        this.errorRate = errorRate;
+    }
+
+    static LatencyProfile parse(String spec) {
+        String[] parts = spec.split("/");
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("延迟格式应为 中位数/p99[/错误率]: " + spec);
+        }
+        double errorRate = parts.length == 3 ? Double.parseDouble(parts[2]) : 0;
+        return new LatencyProfile(LoadTestOptions.parseDuration(parts[0]), LoadTestOptions.parseDuration(parts[1]), errorRate);
+    }
+
+    /**
+     * 抽样一次响应延迟
+     */
+    Duration sample() {
+        if (medianMicros == 0) {
+            return Duration.ZERO;
+        }
+        double z = ThreadLocalRandom.current().nextGaussian();
+        return Duration.ofNanos((long) (medianMicros * Math.exp(sigma * z) * 1000));
+    }
+
+    /**
+     * 抽样本次是否返回错误
+     */
+    boolean shouldFail() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("median=%dms p99=%dms error=%.2f%%",
+            medianMicros / 1000, (long) (medianMicros * Math.exp(sigma * Z_99)) / 1000, errorRate * 100);
+    }
+}
@@ -0,0 +1,203 @@
+package com.aimusic.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * 闭环压测驱动：concurrency 个虚拟线程各自循环发请求，按权重随机选择接口
+ * 预热阶段的请求不计入统计
+ */
+final class LoadDriver {
+
+    /**
+     * 被压测的接口
+     */
+    enum Endpoint {
+        ASK("POST /api/ask"),
+        STREAM("POST /api/ask/stream"),
+        HEALTH("GET /api/health");
+
+        final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+    }
+
+    // 最大可记录延迟10分钟，3位有效数字
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final LoadTestOptions options;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final Endpoint[] weighted;
+    private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+    private final Stats streamFirstLine = new Stats();
+
+    LoadDriver(LoadTestOptions options, String baseUrl, ExecutorService clientExecutor) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(clientExecutor)
+            .build();
+        List<Endpoint> slots = new ArrayList<>();
+        options.mix.forEach((endpoint, weight) -> {
+            stats.put(endpoint, new Stats());
+            for (int i = 0; i < weight; i++) {
+                slots.add(endpoint);
+            }
+        });
+        this.weighted = slots.toArray(new Endpoint[0]);
+    }
+
+    /**
+     * 运行预热 + 正式压测，返回正式阶段的统计
+     */
+    Report run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.concurrency; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        Endpoint endpoint = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+                        long begin = System.nanoTime();
+                        Outcome outcome = call(endpoint);
+                        long finished = System.nanoTime();
+                        // 预热阶段及跨越结束时间的请求不计入，保证吞吐量分母准确
+                        if (begin >= measureFrom && finished <= end) {
+                            stats.get(endpoint).record(finished - begin, outcome.ok());
+                            if (outcome.firstLineNanos() > 0) {
+                                streamFirstLine.record(outcome.firstLineNanos(), true);
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        return new Report(options.duration, stats, streamFirstLine);
+    }
+
+    private Outcome call(Endpoint endpoint) {
+        try {
+            return switch (endpoint) {
+                case ASK -> ask();
+                case STREAM -> stream();
+                case HEALTH -> health();
+            };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.FAILED;
+        } catch (Exception e) {
+            return Outcome.FAILED;
+        }
+    }
+
+    private Outcome ask() throws Exception {
+        HttpResponse<String> response = client.send(questionRequest("/api/ask"), HttpResponse.BodyHandlers.ofString());
+        return Outcome.of(response.statusCode() == 200 && response.body().contains("\"success\":true"));
+    }
+
+    private Outcome stream() throws Exception {
+        long begin = System.nanoTime();
+        HttpResponse<Stream<String>> response = client.send(questionRequest("/api/ask/stream"),
+            HttpResponse.BodyHandlers.ofLines());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            return Outcome.FAILED;
+        }
+        long firstLineNanos = 0;
+        boolean done = false;
+        try (Stream<String> lines = response.body()) {
+            for (String line : (Iterable<String>) lines::iterator) {
+                if (line.startsWith("event:lyric") && firstLineNanos == 0) {
+                    firstLineNanos = System.nanoTime() - begin;
+                } else if (line.startsWith("event:error")) {
+                    return Outcome.FAILED;
+                } else if (line.startsWith("event:done")) {
+                    done = true;
+                }
+            }
+        }
+        return new Outcome(done, firstLineNanos);
+    }
+
+    private Outcome health() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/health"))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        return Outcome.of(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200);
+    }
+
+    private HttpRequest questionRequest(String path) throws Exception {
+        int questionNo = ThreadLocalRandom.current().nextInt(options.distinctQuestions);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("question", "第" + questionNo + "个问题 最近心情不好, 想听点什么歌?");
+        body.put("musicCount", options.musicCount);
+        body.put("genres", List.of("pop"));
+        body.put("regions", List.of("china"));
+        body.put("useCache", options.useCache);
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(60))
+            .header("Content-Type", "application/json")
+            .header("Accept-Language", "zh-CN")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+            .build();
+    }
+
+    /**
+     * 单次请求结果；firstLineNanos 仅流式接口有值
+     */
+    private record Outcome(boolean ok, long firstLineNanos) {
+        static final Outcome FAILED = new Outcome(false, 0);
+
+        static Outcome of(boolean ok) {
+            return new Outcome(ok, 0);
+        }
+    }
+
+    /**
+     * 单个接口的延迟直方图（微秒）与成功/失败计数
+     */
+    static final class Stats {
+        final Histogram latency = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+
+        void record(long nanos, boolean ok) {
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_MICROS));
+            if (!ok) {
+                errors.increment();
+            }
+        }
+    }
+
+    /**
+     * 压测结果
+     */
+    record Report(Duration duration, Map<Endpoint, Stats> endpoints, Stats streamFirstLine) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.aimusic.loadtest;
+
+import com.aimusic.AimusicApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 端到端压测入口：启动桩上游和应用，按参数施压后输出各接口吞吐量和延迟分位
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec@loadtest -Dloadtest.args="--duration 60s --concurrency 64"
+ * </pre>
+ * 指定 --target 时只启动桩上游，压测已运行的应用（应用需自行把上游地址指向桩服务）
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        try (StubUpstreams stubs = new StubUpstreams(options);
+             ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            stubs.start();
+            stubs.applicationProperties().forEach((key, value) -> System.out.println("  " + key + "=" + value));
+            System.out.println("  ai-chat " + options.aiLatency + ", netease-search " + options.searchLatency
+                + ", song-url " + options.songUrlLatency);
+
+            String target = options.target;
+            if (target == null) {
+                context = startApplication(options, stubs);
+                target = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+            }
+            System.out.printf("压测 %s：并发 %d，预热 %ds，持续 %ds%n", target, options.concurrency,
+                options.warmup.toSeconds(), options.duration.toSeconds());
+
+            LoadDriver.Report report = new LoadDriver(options, target, clientExecutor).run();
+            print(report, stubs);
+            write(report, stubs, options);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestOptions options, StubUpstreams stubs) {
+        Map<String, Object> properties = new LinkedHashMap<>(stubs.applicationProperties());
+        properties.put("server.port", 0);
+        properties.put("spring.profiles.active", "loadtest");
+        // 所有请求来自同一IP，关闭限流；日志降级避免I/O干扰测量
+        properties.put("rate-limit.enabled", false);
+        // 磁盘缓存会让上一次压测的结果在本次命中，默认关闭（可用 --set 打开）
+        properties.put("disk-cache.enabled", false);
+        properties.put("logging.level.com.aimusic", "WARN");
+        properties.put("logging.level.org.springframework.web", "WARN");
+        properties.put("logging.level.org.springframework.cache", "WARN");
+        properties.put("logging.file.name", "target/loadtest/aimusic.log");
+        for (String property : options.appProperties) {
+            int eq = property.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("--set 格式应为 key=value: " + property);
+            }
+            properties.put(property.substring(0, eq), property.substring(eq + 1));
+        }
+        // devtools 的重启会用这些参数重新调用本类的 main，压测中必须关闭
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // 以命令行参数传入，优先级高于 application.yml
+        String[] args = properties.entrySet().stream()
+            .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+            .toArray(String[]::new);
+        return new SpringApplicationBuilder(AimusicApplication.class).run(args);
+    }
+
+    private static void print(LoadDriver.Report report, StubUpstreams stubs) {
+        double seconds = report.duration().toMillis() / 1000.0;
+        System.out.println();
+        System.out.printf("%-24s %9s %8s %10s %9s %9s %9s %9s %9s%n",
+            "接口", "请求数", "失败", "吞吐(req/s)", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        report.endpoints().forEach((endpoint, stats) -> printRow(endpoint.label, stats, seconds));
+        if (report.streamFirstLine().latency.getTotalCount() > 0) {
+            printRow("  stream首行歌词", report.streamFirstLine(), seconds);
+        }
+        System.out.println();
+        System.out.printf("%-24s %9s %8s%n", "上游", "请求数", "注入错误");
+        for (String upstream : stubs.upstreams()) {
+            System.out.printf("%-24s %9d %8d%n", upstream, stubs.requestCount(upstream), stubs.errorCount(upstream));
+        }
+    }
+
+    private static void printRow(String label, LoadDriver.Stats stats, double seconds) {
+        Histogram h = stats.latency;
+        System.out.printf("%-24s %9d %8d %10.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+            label, h.getTotalCount(), stats.errors.sum(), h.getTotalCount() / seconds,
+            ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+            ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+    }
+
+    /**
+     * 输出JSON结果，便于CI比较两次压测
+     */
+    private static void write(LoadDriver.Report report, StubUpstreams stubs, LoadTestOptions options) throws Exception {
+        double seconds = report.duration().toMillis() / 1000.0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        report.endpoints().forEach((endpoint, stats) -> endpoints.put(endpoint.label, summary(stats, seconds)));
+        if (report.streamFirstLine().latency.getTotalCount() > 0) {
+            endpoints.put("stream-first-line", summary(report.streamFirstLine(), seconds));
+        }
+        Map<String, Object> upstreams = new LinkedHashMap<>();
+        for (String upstream : stubs.upstreams()) {
+            upstreams.put(upstream, Map.of("requests", stubs.requestCount(upstream), "errors", stubs.errorCount(upstream)));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("concurrency", options.concurrency);
+        result.put("durationSeconds", seconds);
+        result.put("endpoints", endpoints);
+        result.put("upstreams", upstreams);
+
+        File out = new File(options.out);
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, result);
+        System.out.println();
+        System.out.println("结果已写入 " + out.getPath());
+    }
+
+    private static Map<String, Object> summary(LoadDriver.Stats stats, double seconds) {
+        Histogram h = stats.latency;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", h.getTotalCount());
+        summary.put("errors", stats.errors.sum());
+        summary.put("throughput", h.getTotalCount() / seconds);
+        summary.put("p50Ms", ms(h.getValueAtPercentile(50)));
+        summary.put("p90Ms", ms(h.getValueAtPercentile(90)));
+        summary.put("p99Ms", ms(h.getValueAtPercentile(99)));
+        summary.put("p999Ms", ms(h.getValueAtPercentile(99.9)));
+        summary.put("maxMs", ms(h.getMaxValue()));
+        return summary;
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.aimusic.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 压测参数，全部可通过命令行 --名称 值 覆盖
+ */
+final class LoadTestOptions {
+
+    /**
+     * 已运行的应用地址；为空时在本进程内启动应用并指向桩服务
+     */
+    String target;
+    Duration warmup = Duration.ofSeconds(5);
+    Duration duration = Duration.ofSeconds(30);
+    int concurrency = 32;
+    Map<LoadDriver.Endpoint, Integer> mix = parseMix("ask=8,stream=1,health=1");
+    /**
+     * 问题池大小，越小AI回答缓存命中率越高
+     */
+    int distinctQuestions = 1000;
+    int musicCount = 5;
+    /**
+     * 桩AI回答中歌曲的取值范围，越小歌曲搜索缓存命中率越高
+     */
+    int distinctSongs = 5000;
+    boolean useCache = true;
+    LatencyProfile aiLatency = LatencyProfile.parse("800ms/2500ms");
+    LatencyProfile modelsLatency = LatencyProfile.parse("20ms/80ms");
+    LatencyProfile searchLatency = LatencyProfile.parse("80ms/400ms");
+    LatencyProfile songUrlLatency = LatencyProfile.parse("60ms/300ms");
+    String out = "target/loadtest-result.json";
+    /**
+     * 透传给内嵌应用的配置，如 music.lookup-threads=32
+     */
+    final List<String> appProperties = new ArrayList<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (!name.startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("参数格式应为 --名称 值: " + name);
+            }
+            String value = args[++i];
+            switch (name.substring(2)) {
+                case "target" -> options.target = value;
+                case "warmup" -> options.warmup = parseDuration(value);
+                case "duration" -> options.duration = parseDuration(value);
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "distinct-questions" -> options.distinctQuestions = Integer.parseInt(value);
+                case "music-count" -> options.musicCount = Integer.parseInt(value);
+                case "distinct-songs" -> options.distinctSongs = Integer.parseInt(value);
+                case "use-cache" -> options.useCache = Boolean.parseBoolean(value);
+                case "ai-latency" -> options.aiLatency = LatencyProfile.parse(value);
+                case "models-latency" -> options.modelsLatency = LatencyProfile.parse(value);
+                case "search-latency" -> options.searchLatency = LatencyProfile.parse(value);
+                case "song-url-latency" -> options.songUrlLatency = LatencyProfile.parse(value);
+                case "out" -> options.out = value;
+                case "set" -> options.appProperties.add(value);
+                default -> throw new IllegalArgumentException("未知参数: " + name);
+            }
+        }
+        if (options.concurrency < 1 || options.distinctQuestions < 1 || options.musicCount < 1
+            || options.distinctSongs < 1) {
+            throw new IllegalArgumentException("concurrency、distinct-questions、music-count、distinct-songs 必须大于0");
+        }
+        return options;
+    }
+
+    /**
+     * 解析 500ms / 30s / 2m 形式的时长
+     */
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofMillis((long) (Double.parseDouble(v.substring(0, v.length() - 1)) * 1000));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)) * 60);
+        }
+        return Duration.ofMillis(Long.parseLong(v));
+    }
+
+    /**
+     * 解析 ask=8,stream=1,health=1 形式的接口权重
+     */
+    static Map<LoadDriver.Endpoint, Integer> parseMix(String value) {
+        Map<LoadDriver.Endpoint, Integer> mix = new EnumMap<>(LoadDriver.Endpoint.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("接口权重格式应为 名称=权重: " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(LoadDriver.Endpoint.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个权重大于0的接口: " + value);
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,251 @@
+package com.aimusic.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地桩上游服务，模拟 AI chat completions / models、网易云搜索和播放链接接口
+ * AI、搜索、播放链接各占一个端口，与生产环境一样是三个独立的连接池路由；
+ * 每个请求在虚拟线程上按 {@link LatencyProfile} 休眠后返回，不占用平台线程
+ */
+final class StubUpstreams implements AutoCloseable {
+
+    static final String CHAT = "ai-chat";
+    static final String MODELS = "ai-models";
+    static final String SEARCH = "netease-search";
+    static final String SONG_URL = "song-url";
+
+    private static final DateTimeFormatter URL_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, LongAdder> requests = new LinkedHashMap<>();
+    private final Map<String, LongAdder> errors = new HashMap<>();
+    // 使用平台线程：被测应用开启虚拟线程时，桩服务不与其争用载体线程
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final HttpServer aiServer;
+    private final HttpServer searchServer;
+    private final HttpServer songUrlServer;
+
+    StubUpstreams(LoadTestOptions options) throws IOException {
+        this.options = options;
+        aiServer = createServer();
+        searchServer = createServer();
+        songUrlServer = createServer();
+        register(aiServer, "/v1/chat/completions", CHAT, options.aiLatency, this::chatCompletions);
+        register(aiServer, "/v1/models", MODELS, options.modelsLatency, this::models);
+        register(searchServer, "/api/search/get/web", SEARCH, options.searchLatency, this::search);
+        register(songUrlServer, "/song/url", SONG_URL, options.songUrlLatency, this::songUrl);
+    }
+
+    private HttpServer createServer() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(executor);
+        return server;
+    }
+
+    void start() {
+        aiServer.start();
+        searchServer.start();
+        songUrlServer.start();
+    }
+
+    /**
+     * 内嵌应用需要覆盖的上游地址配置
+     */
+    Map<String, Object> applicationProperties() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("ai.base-url", baseUrl(aiServer) + "/v1");
+        properties.put("ai.api-key", "stub-key");
+        properties.put("ai.model-name", "stub-model");
+        properties.put("music.search-url", baseUrl(searchServer) + "/api/search/get/web");
+        properties.put("music.song-url-api", baseUrl(songUrlServer) + "/song/url");
+        return properties;
+    }
+
+    private static String baseUrl(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    long requestCount(String upstream) {
+        return requests.get(upstream).sum();
+    }
+
+    long errorCount(String upstream) {
+        return errors.get(upstream).sum();
+    }
+
+    Iterable<String> upstreams() {
+        return requests.keySet();
+    }
+
+    @Override
+    public void close() {
+        aiServer.stop(0);
+        searchServer.stop(0);
+        songUrlServer.stop(0);
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface StubHandler {
+        void handle(HttpExchange exchange, Duration latency) throws Exception;
+    }
+
+    private void register(HttpServer server, String path, String upstream, LatencyProfile latency, StubHandler handler) {
+        LongAdder requestCounter = new LongAdder();
+        LongAdder errorCounter = new LongAdder();
+        requests.put(upstream, requestCounter);
+        errors.put(upstream, errorCounter);
+        HttpHandler httpHandler = exchange -> {
+            requestCounter.increment();
+            try (exchange) {
+                Duration delay = latency.sample();
+                if (latency.shouldFail()) {
+                    errorCounter.increment();
+                    Thread.sleep(delay);
+                    writeJson(exchange, 502, "{\"error\":\"stub upstream error\"}");
+                    return;
+                }
+                handler.handle(exchange, delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                errorCounter.increment();
+            }
+        };
+        server.createContext(path, httpHandler);
+    }
+
+    private void chatCompletions(HttpExchange exchange, Duration latency) throws Exception {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        String[] lines = answerLines();
+        if (!request.path("stream").asBoolean(false)) {
+            Thread.sleep(latency);
+            ObjectNode body = objectMapper.createObjectNode();
+            body.put("id", "chatcmpl-stub");
+            body.put("object", "chat.completion");
+            body.put("model", "stub-model");
+            ObjectNode choice = body.putArray("choices").addObject();
+            choice.put("index", 0);
+            choice.putObject("message").put("role", "assistant").put("content", String.join("\n", lines));
+            choice.put("finish_reason", "stop");
+            writeJson(exchange, 200, objectMapper.writeValueAsString(body));
+            return;
+        }
+
+        // 流式：每行拆成两段推送，总耗时与非流式一致
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        long chunkPause = latency.toNanos() / (lines.length * 2L + 1);
+        OutputStream out = exchange.getResponseBody();
+        for (String line : lines) {
+            int split = line.length() / 2;
+            for (String piece : new String[]{line.substring(0, split), line.substring(split) + "\n"}) {
+                Thread.sleep(Duration.ofNanos(chunkPause));
+                ObjectNode chunk = objectMapper.createObjectNode();
+                chunk.putArray("choices").addObject().putObject("delta").put("content", piece);
+                out.write(("data: " + objectMapper.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+        Thread.sleep(Duration.ofNanos(chunkPause));
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private String[] answerLines() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] lines = new String[options.musicCount];
+        for (int i = 0; i < lines.length; i++) {
+            int song = random.nextInt(options.distinctSongs);
+            lines[i] = "第" + song + "首歌的一句歌词--歌手" + (song % 997) + "《歌曲" + song + "》";
+        }
+        return lines;
+    }
+
+    private void models(HttpExchange exchange, Duration latency) throws Exception {
+        Thread.sleep(latency);
+        writeJson(exchange, 200, "{\"object\":\"list\",\"data\":[{\"id\":\"stub-model\",\"object\":\"model\"}]}");
+    }
+
+    private void search(HttpExchange exchange, Duration latency) throws Exception {
+        Map<String, String> query = query(exchange);
+        String keyword = query.getOrDefault("s", "");
+        int limit = Integer.parseInt(query.getOrDefault("limit", "30"));
+        Thread.sleep(latency);
+
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("code", 200);
+        ObjectNode result = body.putObject("result");
+        ArrayNode songs = result.putArray("songs");
+        long baseId = Math.abs((long) keyword.hashCode()) * 100;
+        String[] parts = keyword.split(" ", 2);
+        for (int i = 0; i < limit; i++) {
+            ObjectNode song = songs.addObject();
+            song.put("id", baseId + i);
+            song.put("name", parts.length == 2 ? parts[1] : keyword);
+            song.putArray("artists").addObject().put("id", 1000 + i).put("name", parts[0]);
+            song.putObject("album").put("id", 2000 + i).put("name", "专辑" + i);
+            song.put("duration", 240000 - i * 1000);
+            song.put("fee", i % 2 == 0 ? 8 : 1);
+            song.putArray("alias");
+        }
+        result.put("songCount", limit);
+        writeJson(exchange, 200, objectMapper.writeValueAsString(body));
+    }
+
+    private void songUrl(HttpExchange exchange, Duration latency) throws Exception {
+        String id = query(exchange).getOrDefault("id", "0");
+        Thread.sleep(latency);
+        // 与真实链接一样在路径中携带过期时间（北京时间）
+        String expires = LocalDateTime.now(ZoneId.of("Asia/Shanghai")).plusMinutes(20).format(URL_TIME);
+        String url = "https://m701.music.126.net/" + expires + "/0f3e9c2a7b1d4e5f/jdymusic/obj/" + id + ".flac";
+        writeJson(exchange, 200, "{\"code\":200,\"data\":{\"id\":" + id + ",\"url\":\"" + url + "\"}}");
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void writeJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
@@ -0,0 +1,152 @@
+package com.aimusic.cache;
+
+import com.aimusic.util.RequestFingerprint;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * AI回答缓存键
+ * 问题经过规范化（全半角、大小写折叠，去除空白、句读标点、引号和括号），流派和地区按集合处理，
+ * 使"失恋了怎么办"与"失恋了，怎么办？"命中同一条缓存；运算符、#等其他符号保留，避免"C#"与"C"等不同问题共用缓存。
+ * 哈希值在构造时用 {@link RequestFingerprint} 计算一次，缓存查找时不再遍历字段
+ */
+public final class AnswerCacheKey {
+
+    // 句读标点和直引号，全角形式经NFKC折叠后也在其中
+    private static final String SENTENCE_PUNCTUATION = ".,!?;:'\"、。";
+
+    private final String question;
+    private final int musicCount;
+    private final String language;
+    private final List<String> genres;
+    private final List<String> regions;
+    private final int hash;
+
+    private AnswerCacheKey(String question, int musicCount, String language,
+                           List<String> genres, List<String> regions) {
+        this.question = question;
+        this.musicCount = musicCount;
+        this.language = language;
+        this.genres = genres;
+        this.regions = regions;
+
+        long h = RequestFingerprint.SEED;
+        h = RequestFingerprint.mix(h, question);
+        h = RequestFingerprint.mix(h, musicCount);
+        h = RequestFingerprint.mix(h, language);
+        h = RequestFingerprint.mix(h, genres);
+        h = RequestFingerprint.mix(h, regions);
+        h = RequestFingerprint.finish(h);
+        this.hash = (int) (h ^ (h >>> 32));
+    }
+
+    public static AnswerCacheKey of(String question, int musicCount, String language,
+                                    List<String> genres, List<String> regions) {
+        return new AnswerCacheKey(
+            normalizeQuestion(question),
+            musicCount,
+            normalizeLanguage(language),
+            normalizeSet(genres, "pop"),
+            normalizeSet(regions, "china"));
+    }
+
+    public String question() {
+        return question;
+    }
+
+    public int musicCount() {
+        return musicCount;
+    }
+
+    public String language() {
+        return language;
+    }
+
+    public List<String> genres() {
+        return genres;
+    }
+
+    public List<String> regions() {
+        return regions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AnswerCacheKey other)) {
+            return false;
+        }
+        return hash == other.hash
+            && musicCount == other.musicCount
+            && question.equals(other.question)
+            && language.equals(other.language)
+            && genres.equals(other.genres)
+            && regions.equals(other.regions);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "AnswerCacheKey[question=" + question + ", musicCount=" + musicCount + ", language=" + language
+            + ", genres=" + genres + ", regions=" + regions + "]";
+    }
+
+    /**
+     * 折叠全半角和大小写，去除空白、句读标点、引号和括号
+     */
+    static String normalizeQuestion(String question) {
+        if (question == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(question, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); ) {
+            int cp = folded.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isWhitespace(cp) || Character.isSpaceChar(cp) || isPunctuation(cp)) {
+                continue;
+            }
+            sb.appendCodePoint(cp);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 与系统提示选择逻辑一致：英文之外均视为中文
+     */
+    static String normalizeLanguage(String language) {
+        return "en-US".equals(language) || "en".equals(language) ? "en-US" : "zh-CN";
+    }
+
+    private static List<String> normalizeSet(List<String> values, String defaultValue) {
+        if (values == null || values.isEmpty()) {
+            return List.of(defaultValue);
+        }
+        return values.stream()
+            .filter(value -> value != null && !value.isBlank())
+            .map(value -> value.trim().toLowerCase(Locale.ROOT))
+            .distinct()
+            .sorted()
+            .toList();
+    }
+
+    private static boolean isPunctuation(int cp) {
+        switch (Character.getType(cp)) {
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+                return true;
+            default:
+                return SENTENCE_PUNCTUATION.indexOf(cp) >= 0;
+        }
+    }
+}
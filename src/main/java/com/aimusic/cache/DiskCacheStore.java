@@ -0,0 +1,906 @@
+package com.aimusic.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 基于本地文件的键值存储，作为缓存的磁盘层（L2）
+ * <ul>
+ *   <li>数据文件（.log）只追加写入，记录带CRC校验，文件中的顺序即写入顺序</li>
+ *   <li>索引文件（.idx）是内存映射的开放寻址哈希表，每个槽位保存键的64位哈希和记录位置，不占用堆内存</li>
+ * </ul>
+ * 读取不加锁：索引槽位可能与写入并发，读到的记录会再校验CRC和键，不一致时按未命中处理。
+ * 读取经 {@link AsynchronousFileChannel} 完成，调用线程被中断只放弃本次读取，不会像 FileChannel 那样关闭数据文件。
+ * 写入、删除、清空、扩容和压缩都在每个存储独占的写线程上串行执行：{@link #put} 只入队不等待，队列满时丢弃；
+ * {@link #remove}、{@link #clear}、{@link #compact} 等待写线程执行完成。
+ * 覆盖和删除只更新索引，旧记录成为垃圾，由 {@link #compact} 重写存活记录回收；
+ * 压缩时同时丢弃过期记录，条目数超过上限时按写入顺序淘汰最早的记录。
+ * 未正常关闭（索引与数据文件不一致）时，打开时扫描数据文件重建索引。
+ * 键的64位哈希相同时后写入的键覆盖先写入的键，对缓存而言等同于一次淘汰
+ */
+public class DiskCacheStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskCacheStore.class);
+
+    private static final int MAGIC = 0x414D4443;
+    private static final int VERSION = 1;
+
+    // 索引文件头：magic、version、capacity、clean、logSize、size、tombstones、liveBytes、oldestWrite
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 16;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = 1 << 27;
+    private static final double MAX_LOAD = 0.7;
+
+    // 槽位值：记录偏移（高40位）和记录长度（低24位）
+    private static final int LENGTH_BITS = 24;
+    private static final long TOMBSTONE = -1L;
+    private static final int MAX_RECORD_BYTES = (1 << LENGTH_BITS) - 1;
+    private static final long MAX_LOG_BYTES = 1L << 39;
+
+    // 记录：bodyLength、crc，body 为 type、writtenAt、keyLength、key、value
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int BODY_FIXED_BYTES = 1 + 8 + 4;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_REMOVE = 2;
+
+    // 数据文件小于该值时不因垃圾比例压缩
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+    // 写线程队列上限，超出的写入丢弃（L1仍然有效）
+    private static final int MAX_QUEUED_WRITES = 10_000;
+
+    private final String name;
+    private final Path logPath;
+    private final Path indexPath;
+    private final long maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final ThreadPoolExecutor writer;
+
+    private volatile Generation generation;
+
+    // 以下字段只由写线程修改
+    private volatile long logSize;
+    private volatile long size;
+    private volatile long tombstones;
+    private volatile long liveBytes;
+    private volatile long oldestWriteMillis;
+    private volatile boolean closed;
+
+    /**
+     * 当前使用的数据文件和索引，扩容和压缩时整体替换；log 只在写线程上使用，读取走 reader
+     */
+    private record Generation(FileChannel log, AsynchronousFileChannel reader, MappedByteBuffer index, int capacity) {
+    }
+
+    /**
+     * 扫描数据文件时的单条记录
+     */
+    private record Entry(long offset, int length, byte type, long writtenAt, byte[] key, byte[] value) {
+    }
+
+    @FunctionalInterface
+    private interface EntryVisitor {
+        void visit(Entry entry) throws IOException;
+    }
+
+    /**
+     * 打开（不存在时创建）存储
+     * @param directory 文件目录
+     * @param name 存储名称，对应 name.log / name.idx
+     * @param maxEntries 最大条目数
+     * @param ttl 写入后过期时间
+     */
+    public DiskCacheStore(Path directory, String name, long maxEntries, Duration ttl) throws IOException {
+        this(directory, name, maxEntries, ttl, Clock.systemUTC());
+    }
+
+    DiskCacheStore(Path directory, String name, long maxEntries, Duration ttl, Clock clock) throws IOException {
+        this.name = name;
+        this.logPath = directory.resolve(name + ".log");
+        this.indexPath = directory.resolve(name + ".idx");
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+
+        Files.createDirectories(directory);
+        FileChannel log = FileChannel.open(logPath, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        AsynchronousFileChannel reader = null;
+        try {
+            reader = AsynchronousFileChannel.open(logPath, StandardOpenOption.READ);
+            logSize = log.size();
+            Generation loaded = loadIndex(log, reader);
+            if (loaded == null) {
+                loaded = rebuildIndex(log, reader);
+            }
+            generation = loaded;
+            // 运行期间标记为未正常关闭，异常退出后下次打开时重建索引
+            writeHeader(loaded, false);
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            if (reader != null) {
+                reader.close();
+            }
+            throw e;
+        }
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_WRITES), runnable -> {
+                Thread thread = new Thread(runnable, "disk-cache-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * 读取键对应的值，不存在或已过期时返回null
+     */
+    public byte[] get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(keyBytes);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Generation current = generation;
+            int slot = findSlot(current, hash);
+            if (slot < 0) {
+                return null;
+            }
+            long location = slotLocation(current, slot);
+            if (location == TOMBSTONE) {
+                return null;
+            }
+            try {
+                return readValue(current.reader(), offsetOf(location), lengthOf(location), keyBytes);
+            } catch (ClosedChannelException e) {
+                // 压缩后旧数据文件已关闭，用新的数据文件重试
+                if (closed) {
+                    return null;
+                }
+            } catch (InterruptedIOException e) {
+                return null;
+            } catch (IOException e) {
+                logger.warn("读取磁盘缓存失败: {}", name, e);
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 写入键值（写后返回，由写线程异步落盘），记录超过长度上限或写入队列已满时忽略
+     */
+    public void put(String key, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (RECORD_HEADER_BYTES + BODY_FIXED_BYTES + keyBytes.length + value.length > MAX_RECORD_BYTES) {
+            return;
+        }
+        long now = clock.millis();
+        try {
+            writer.execute(() -> {
+                try {
+                    ensureOpen();
+                    applyPut(keyBytes, value, now);
+                } catch (IOException e) {
+                    logger.warn("写入磁盘缓存失败: {}", name, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("磁盘缓存写入队列已满或已关闭，丢弃写入: {}", name);
+        }
+    }
+
+    /**
+     * 删除键，等待写线程执行完成
+     * @return 删除前是否存在
+     */
+    public boolean remove(String key) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return call(() -> {
+            ensureOpen();
+            return applyRemove(keyBytes);
+        });
+    }
+
+    /**
+     * 清空所有条目，等待写线程执行完成
+     */
+    public void clear() throws IOException {
+        call(() -> {
+            ensureOpen();
+            applyClear();
+            return null;
+        });
+    }
+
+    /**
+     * 等待此前提交的写入全部落盘
+     */
+    public void flush() throws IOException {
+        call(() -> null);
+    }
+
+    /**
+     * 是否需要压缩：条目超过上限、垃圾超过一半，或存在过期超过十分之一有效期的记录
+     */
+    public boolean needsCompaction() {
+        if (closed) {
+            return false;
+        }
+        if (size > maxEntries) {
+            return true;
+        }
+        if (logSize >= MIN_COMPACTION_BYTES && liveBytes < logSize / 2) {
+            return true;
+        }
+        return oldestWriteMillis > 0 && oldestWriteMillis + ttlMillis + ttlMillis / 10 < clock.millis();
+    }
+
+    /**
+     * 压缩：将存活且未过期的记录按原顺序写入新文件并重建索引，完成后替换原文件。
+     * 在写线程上执行，期间读取照常进行，写入在队列中等待
+     * @return 是否执行了压缩
+     */
+    public boolean compact() throws IOException {
+        return call(this::compactOnWriter);
+    }
+
+    private boolean compactOnWriter() throws IOException {
+        if (closed) {
+            return false;
+        }
+        Generation source = generation;
+        long sourceLogSize = logSize;
+        long liveCount = size;
+
+        Path compactLog = logPath.resolveSibling(name + ".log.compact");
+        FileChannel newLog = null;
+        AsynchronousFileChannel newReader = null;
+        try {
+            long startNanos = System.nanoTime();
+            newLog = FileChannel.open(compactLog, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            newReader = AsynchronousFileChannel.open(compactLog, StandardOpenOption.READ);
+            long now = clock.millis();
+            // 按写入顺序扫描，过期记录和超出上限的最早记录不再写入
+            long toDrop = Math.max(0, liveCount - maxEntries);
+            long[] stats = new long[5]; // dropped, written bytes, kept, oldestWrite, expired
+            Generation target = newIndex(capacityFor(Math.min(liveCount, maxEntries)));
+            FileChannel targetLog = newLog;
+            ByteBuffer batch = ByteBuffer.allocate(1 << 16);
+            scan(source.log(), sourceLogSize, entry -> {
+                if (entry.type() != TYPE_PUT) {
+                    return;
+                }
+                long hash = hash(entry.key());
+                int slot = findSlot(source, hash);
+                if (slot < 0 || slotLocation(source, slot) != location(entry.offset(), entry.length())) {
+                    return;
+                }
+                boolean expired = isExpired(entry.writtenAt(), now);
+                if (expired || stats[0] < toDrop) {
+                    stats[0]++;
+                    if (expired) {
+                        stats[4]++;
+                    }
+                    return;
+                }
+                ByteBuffer record = encode(TYPE_PUT, entry.writtenAt(), entry.key(), entry.value());
+                long offset = stats[1];
+                if (batch.remaining() < record.remaining()) {
+                    flush(batch, targetLog, offset - batch.position());
+                }
+                if (record.remaining() > batch.capacity()) {
+                    writeFully(targetLog, record, offset);
+                } else {
+                    batch.put(record);
+                }
+                stats[1] += entry.length();
+                insertSlot(target, hash, location(offset, entry.length()));
+                if (stats[2]++ == 0) {
+                    stats[3] = entry.writtenAt();
+                }
+            });
+            flush(batch, targetLog, stats[1] - batch.position());
+            newLog.force(true);
+            Generation compacted = new Generation(newLog, newReader, target.index(), target.capacity());
+
+            Generation old = generation;
+            long oldLogSize = logSize;
+            logSize = stats[1];
+            size = stats[2];
+            tombstones = 0;
+            liveBytes = stats[1];
+            oldestWriteMillis = stats[3];
+            writeHeader(compacted, false);
+            Files.move(compactLog, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moveIndex();
+            generation = compacted;
+            newLog = null;
+            newReader = null;
+            closeQuietly(old.log());
+            closeQuietly(old.reader());
+            logger.info("磁盘缓存压缩完成: {}，{} 条（丢弃 {} 条，其中过期 {} 条），{} -> {} 字节，耗时 {}ms",
+                name, size, stats[0], stats[4], oldLogSize, logSize, (System.nanoTime() - startNanos) / 1_000_000);
+            return true;
+        } finally {
+            if (newLog != null) {
+                closeQuietly(newLog);
+                Files.deleteIfExists(compactLog);
+            }
+            if (newReader != null) {
+                closeQuietly(newReader);
+            }
+        }
+    }
+
+    /**
+     * 当前条目数
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * 数据文件大小（字节）
+     */
+    public long logBytes() {
+        return logSize;
+    }
+
+    /**
+     * 存活记录占用的字节数
+     */
+    public long liveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * 关闭存储：等待队列中的写入落盘后关闭文件
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer.isShutdown()) {
+            return;
+        }
+        try {
+            call(() -> {
+                closeFiles();
+                return null;
+            });
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    private void closeFiles() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Generation current = generation;
+        try {
+            // 去掉写入失败可能留下的残余字节，使文件大小与索引头一致
+            current.log().truncate(logSize);
+            current.log().force(true);
+            writeHeader(current, true);
+            current.index().force();
+        } finally {
+            current.log().close();
+            current.reader().close();
+        }
+    }
+
+    /**
+     * 在写线程上执行并等待结果。调用线程在等待时被中断只是不再等待，操作仍会执行完成
+     */
+    private <T> T call(Callable<T> operation) throws IOException {
+        FutureTask<T> task = new FutureTask<>(operation);
+        try {
+            writer.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (writer.isShutdown()) {
+                throw new ClosedChannelException();
+            }
+            throw new IOException("磁盘缓存写入队列已满: " + name);
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待磁盘缓存写入时被中断: " + name);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // ---------------------------------------------------------------- 写入（写线程）
+
+    private void applyPut(byte[] key, byte[] value, long writtenAt) throws IOException {
+        ByteBuffer record = encode(TYPE_PUT, writtenAt, key, value);
+        int length = record.remaining();
+        if (logSize + length > MAX_LOG_BYTES) {
+            logger.warn("磁盘缓存数据文件已达上限，等待压缩: {}", name);
+            return;
+        }
+        long offset = logSize;
+        writeFully(generation.log(), record, offset);
+        logSize += length;
+
+        ensureCapacity();
+        long hash = hash(key);
+        long previous = insertSlot(generation, hash, location(offset, length));
+        if (previous == 0) {
+            size++;
+        } else if (previous == TOMBSTONE) {
+            tombstones--;
+            size++;
+        } else {
+            liveBytes -= lengthOf(previous);
+        }
+        liveBytes += length;
+        if (oldestWriteMillis == 0) {
+            oldestWriteMillis = writtenAt;
+        }
+    }
+
+    private boolean applyRemove(byte[] key) throws IOException {
+        long hash = hash(key);
+        Generation current = generation;
+        int slot = findLive(current, hash);
+        if (slot < 0) {
+            return false;
+        }
+        // 删除也写入数据文件，重建索引时不会复活
+        ByteBuffer record = encode(TYPE_REMOVE, clock.millis(), key, new byte[0]);
+        writeFully(current.log(), record, logSize);
+        logSize += record.remaining();
+
+        liveBytes -= lengthOf(slotLocation(current, slot));
+        setSlotLocation(current, slot, TOMBSTONE);
+        size--;
+        tombstones++;
+        return true;
+    }
+
+    private void applyClear() throws IOException {
+        Generation fresh = newIndex(MIN_CAPACITY);
+        Generation current = generation;
+        current.log().truncate(0);
+        fresh = new Generation(current.log(), current.reader(), fresh.index(), fresh.capacity());
+        logSize = 0;
+        size = 0;
+        tombstones = 0;
+        liveBytes = 0;
+        oldestWriteMillis = 0;
+        writeHeader(fresh, false);
+        moveIndex();
+        generation = fresh;
+    }
+
+    /**
+     * 插入后负载超过上限时扩容（重建到新的索引文件）
+     */
+    private void ensureCapacity() throws IOException {
+        Generation current = generation;
+        if (size + tombstones + 1 <= current.capacity() * MAX_LOAD) {
+            return;
+        }
+        int capacity = capacityFor(size + 1);
+        if (capacity <= current.capacity() && tombstones == 0) {
+            if (current.capacity() >= MAX_CAPACITY) {
+                throw new IOException("磁盘缓存索引已满: " + name);
+            }
+            capacity = current.capacity() << 1;
+        }
+        Generation resized = newIndex(capacity);
+        for (int slot = 0; slot < current.capacity(); slot++) {
+            long hash = slotHash(current, slot);
+            long location = slotLocation(current, slot);
+            if (hash != 0 && location != TOMBSTONE) {
+                insertSlot(resized, hash, location);
+            }
+        }
+        resized = new Generation(current.log(), current.reader(), resized.index(), resized.capacity());
+        tombstones = 0;
+        writeHeader(resized, false);
+        moveIndex();
+        generation = resized;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    // ---------------------------------------------------------------- 索引
+
+    private Generation loadIndex(FileChannel log, AsynchronousFileChannel reader) {
+        if (!Files.exists(indexPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                return null;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            int capacity = header.getInt(8);
+            boolean valid = header.getInt(0) == MAGIC
+                && header.getInt(4) == VERSION
+                && Integer.bitCount(capacity) == 1 && capacity >= MIN_CAPACITY && capacity <= MAX_CAPACITY
+                && fileSize == HEADER_BYTES + (long) capacity * SLOT_BYTES
+                && header.getInt(12) == 1
+                && header.getLong(16) == logSize;
+            if (!valid) {
+                logger.warn("磁盘缓存未正常关闭，重建索引: {}", name);
+                return null;
+            }
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            size = index.getLong(24);
+            tombstones = index.getLong(32);
+            liveBytes = index.getLong(40);
+            oldestWriteMillis = index.getLong(48);
+            logger.info("磁盘缓存已加载: {}，{} 条，{} 字节", name, size, logSize);
+            return new Generation(log, reader, index, capacity);
+        } catch (IOException e) {
+            logger.warn("读取磁盘缓存索引失败，重建索引: {}", name, e);
+            return null;
+        }
+    }
+
+    private Generation rebuildIndex(FileChannel log, AsynchronousFileChannel reader) throws IOException {
+        long startNanos = System.nanoTime();
+        size = 0;
+        tombstones = 0;
+        liveBytes = 0;
+        oldestWriteMillis = 0;
+        generation = new Generation(log, reader, newIndex(MIN_CAPACITY).index(), MIN_CAPACITY);
+        moveIndex();
+        long validEnd = scan(log, logSize, entry -> {
+            if (entry.type() == TYPE_PUT) {
+                applyIndexedPut(entry);
+            } else if (entry.type() == TYPE_REMOVE) {
+                int slot = findLive(generation, hash(entry.key()));
+                if (slot >= 0) {
+                    liveBytes -= lengthOf(slotLocation(generation, slot));
+                    setSlotLocation(generation, slot, TOMBSTONE);
+                    size--;
+                    tombstones++;
+                }
+            }
+        });
+        if (validEnd < logSize) {
+            logger.warn("磁盘缓存数据文件末尾有不完整的记录，截断 {} 字节: {}", logSize - validEnd, name);
+            log.truncate(validEnd);
+            logSize = validEnd;
+        }
+        Generation rebuilt = generation;
+        writeHeader(rebuilt, false);
+        logger.info("磁盘缓存索引已重建: {}，{} 条，耗时 {}ms", name, size, (System.nanoTime() - startNanos) / 1_000_000);
+        return rebuilt;
+    }
+
+    private void applyIndexedPut(Entry entry) throws IOException {
+        ensureCapacity();
+        long previous = insertSlot(generation, hash(entry.key()), location(entry.offset(), entry.length()));
+        if (previous == 0) {
+            size++;
+        } else if (previous == TOMBSTONE) {
+            tombstones--;
+            size++;
+        } else {
+            liveBytes -= lengthOf(previous);
+        }
+        liveBytes += entry.length();
+        if (oldestWriteMillis == 0) {
+            oldestWriteMillis = entry.writtenAt();
+        }
+    }
+
+    /**
+     * 在临时文件中创建空索引，调用方写完后用 {@link #moveIndex} 替换正式文件，再创建下一个之前必须先替换。
+     * 正在使用的索引文件不截断，只整体替换，避免并发读取访问到已截断的映射
+     */
+    private Generation newIndex(int capacity) throws IOException {
+        Path temp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_BYTES + (long) capacity * SLOT_BYTES);
+            return new Generation(null, null, index, capacity);
+        }
+    }
+
+    private void moveIndex() throws IOException {
+        Path temp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeHeader(Generation target, boolean clean) {
+        MappedByteBuffer index = target.index();
+        index.putInt(0, MAGIC);
+        index.putInt(4, VERSION);
+        index.putInt(8, target.capacity());
+        index.putInt(12, clean ? 1 : 0);
+        index.putLong(16, logSize);
+        index.putLong(24, size);
+        index.putLong(32, tombstones);
+        index.putLong(40, liveBytes);
+        index.putLong(48, oldestWriteMillis);
+        index.force(0, HEADER_BYTES);
+    }
+
+    /**
+     * 线性探测查找哈希所在槽位（含已删除槽位），不存在时返回-1
+     */
+    private static int findSlot(Generation target, long hash) {
+        int mask = target.capacity() - 1;
+        int slot = (int) hash & mask;
+        for (int probes = 0; probes < target.capacity(); probes++) {
+            long slotHash = slotHash(target, slot);
+            if (slotHash == hash) {
+                return slot;
+            }
+            if (slotHash == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int findLive(Generation target, long hash) {
+        int slot = findSlot(target, hash);
+        return slot >= 0 && slotLocation(target, slot) != TOMBSTONE ? slot : -1;
+    }
+
+    /**
+     * 写入槽位：已有相同哈希时覆盖，否则占用第一个空槽位
+     * @return 原来的槽位值，新槽位返回0
+     */
+    private static long insertSlot(Generation target, long hash, long location) {
+        int mask = target.capacity() - 1;
+        int slot = (int) hash & mask;
+        while (true) {
+            long slotHash = slotHash(target, slot);
+            if (slotHash == hash) {
+                long previous = slotLocation(target, slot);
+                setSlotLocation(target, slot, location);
+                return previous;
+            }
+            if (slotHash == 0) {
+                // 先写位置再写哈希，并发读取看到哈希时位置已就绪
+                setSlotLocation(target, slot, location);
+                target.index().putLong(slotPosition(slot), hash);
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static long slotHash(Generation target, int slot) {
+        return target.index().getLong(slotPosition(slot));
+    }
+
+    private static long slotLocation(Generation target, int slot) {
+        return target.index().getLong(slotPosition(slot) + 8);
+    }
+
+    private static void setSlotLocation(Generation target, int slot, long location) {
+        target.index().putLong(slotPosition(slot) + 8, location);
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private static int capacityFor(long entries) {
+        long wanted = Math.max(MIN_CAPACITY, (long) Math.ceil(entries * 2 / MAX_LOAD));
+        long capacity = Long.highestOneBit(wanted - 1) << 1;
+        return (int) Math.min(MAX_CAPACITY, capacity);
+    }
+
+    private static long location(long offset, int length) {
+        return (offset << LENGTH_BITS) | length;
+    }
+
+    private static long offsetOf(long location) {
+        return location >>> LENGTH_BITS;
+    }
+
+    private static int lengthOf(long location) {
+        return (int) (location & MAX_RECORD_BYTES);
+    }
+
+    /**
+     * FNV-1a 后再做一次混合，0 保留表示空槽位
+     */
+    static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    // ---------------------------------------------------------------- 数据文件
+
+    private static ByteBuffer encode(byte type, long writtenAt, byte[] key, byte[] value) {
+        int bodyLength = BODY_FIXED_BYTES + key.length + value.length;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + bodyLength);
+        record.putInt(bodyLength).putInt(0)
+            .put(type).putLong(writtenAt).putInt(key.length).put(key).put(value);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_BYTES, bodyLength);
+        record.putInt(4, (int) crc.getValue());
+        return record.flip();
+    }
+
+    private byte[] readValue(AsynchronousFileChannel reader, long offset, int length, byte[] key)
+            throws IOException {
+        if (length < RECORD_HEADER_BYTES + BODY_FIXED_BYTES + key.length) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate(length);
+        while (record.hasRemaining()) {
+            if (read(reader, record, offset + record.position()) < 0) {
+                return null;
+            }
+        }
+        int bodyLength = record.getInt(0);
+        if (bodyLength != length - RECORD_HEADER_BYTES) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_BYTES, bodyLength);
+        if ((int) crc.getValue() != record.getInt(4) || record.get(8) != TYPE_PUT) {
+            return null;
+        }
+        if (isExpired(record.getLong(9), clock.millis())) {
+            return null;
+        }
+        int keyLength = record.getInt(17);
+        int keyStart = RECORD_HEADER_BYTES + BODY_FIXED_BYTES;
+        if (keyLength != key.length
+                || !Arrays.equals(record.array(), keyStart, keyStart + keyLength, key, 0, key.length)) {
+            return null;
+        }
+        return Arrays.copyOfRange(record.array(), keyStart + keyLength, length);
+    }
+
+    /**
+     * 按顺序扫描数据文件，遇到不完整或校验失败的记录即停止
+     * @return 最后一条有效记录的结束位置
+     */
+    private static long scan(FileChannel log, long limit, EntryVisitor visitor) throws IOException {
+        InputStream stream = Channels.newInputStream(log.position(0));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+        CRC32 crc = new CRC32();
+        long offset = 0;
+        while (offset + RECORD_HEADER_BYTES <= limit) {
+            int bodyLength;
+            int checksum;
+            byte[] body;
+            try {
+                bodyLength = in.readInt();
+                checksum = in.readInt();
+                if (bodyLength < BODY_FIXED_BYTES || bodyLength > MAX_RECORD_BYTES - RECORD_HEADER_BYTES
+                        || offset + RECORD_HEADER_BYTES + bodyLength > limit) {
+                    break;
+                }
+                body = new byte[bodyLength];
+                in.readFully(body);
+            } catch (EOFException e) {
+                break;
+            }
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            byte type = buffer.get();
+            long writtenAt = buffer.getLong();
+            int keyLength = buffer.getInt();
+            if (keyLength < 0 || keyLength > buffer.remaining()) {
+                break;
+            }
+            byte[] key = new byte[keyLength];
+            buffer.get(key);
+            byte[] value = new byte[buffer.remaining()];
+            buffer.get(value);
+            int length = RECORD_HEADER_BYTES + bodyLength;
+            visitor.visit(new Entry(offset, length, type, writtenAt, key, value));
+            offset += length;
+        }
+        return offset;
+    }
+
+    /**
+     * 读取在通道自己的线程上完成，调用线程被中断只放弃等待（恢复中断标记），不会关闭通道
+     */
+    private static int read(AsynchronousFileChannel reader, ByteBuffer buffer, long position) throws IOException {
+        Future<Integer> read = reader.read(buffer, position);
+        try {
+            return read.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("读取磁盘缓存时被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static void flush(ByteBuffer batch, FileChannel log, long position) throws IOException {
+        batch.flip();
+        writeFully(log, batch, position);
+        batch.clear();
+    }
+
+    private static void writeFully(FileChannel log, ByteBuffer buffer, long position) throws IOException {
+        long next = position;
+        while (buffer.hasRemaining()) {
+            next += log.write(buffer, next);
+        }
+    }
+
+    private boolean isExpired(long writtenAt, long now) {
+        return writtenAt + ttlMillis < now;
+    }
+
+    private static void closeQuietly(Closeable channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("关闭文件失败", e);
+        }
+    }
+}
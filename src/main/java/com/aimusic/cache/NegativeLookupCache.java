@@ -0,0 +1,133 @@
+package com.aimusic.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 歌曲查找的否定缓存
+ * 记录搜索不到的歌曲和拿不到播放链接的歌曲ID，有效期内相同的查找直接按未找到处理，不再调用上游。
+ * "未找到"（上游正常返回但没有结果）和"上游错误"（超时、非2xx、响应无法解析）分开记录：
+ * 前者多是AI编造的歌曲，缓存较久；后者只短暂缓存，避免故障期间反复请求，恢复后很快重试。
+ * 条目保存在 musicMissCache 中，按查找类型和结果分别统计命中与写入次数
+ */
+public class NegativeLookupCache {
+
+    /**
+     * 查找类型
+     */
+    public enum Lookup {
+        SEARCH("search"),
+        URL("url");
+
+        private final String tagValue;
+
+        Lookup(String tagValue) {
+            this.tagValue = tagValue;
+        }
+
+        public String tagValue() {
+            return tagValue;
+        }
+    }
+
+    /**
+     * 查找失败的原因
+     */
+    public enum Outcome {
+        NOT_FOUND("not_found"),
+        UPSTREAM_ERROR("upstream_error");
+
+        private final String tagValue;
+
+        Outcome(String tagValue) {
+            this.tagValue = tagValue;
+        }
+
+        public String tagValue() {
+            return tagValue;
+        }
+    }
+
+    private record Key(Lookup lookup, Object key) {
+    }
+
+    private static final int OUTCOMES = Outcome.values().length;
+
+    private final Cache cache;
+    private final LongAdder[] hits = newCounters();
+    private final LongAdder[] stores = newCounters();
+
+    public NegativeLookupCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * 按失败原因决定有效期的Caffeine策略，读取不延长有效期
+     */
+    public static Expiry<Object, Object> expiry(Duration notFoundTtl, Duration upstreamErrorTtl) {
+        long notFoundNanos = notFoundTtl.toNanos();
+        long upstreamErrorNanos = upstreamErrorTtl.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return value == Outcome.UPSTREAM_ERROR ? upstreamErrorNanos : notFoundNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    /**
+     * 查询否定缓存
+     * @return 有效期内记录的失败原因，没有记录时返回null
+     */
+    public Outcome get(Lookup lookup, Object key) {
+        Outcome outcome = cache.get(new Key(lookup, key), Outcome.class);
+        if (outcome != null) {
+            hits[index(lookup, outcome)].increment();
+        }
+        return outcome;
+    }
+
+    public void put(Lookup lookup, Object key, Outcome outcome) {
+        cache.put(new Key(lookup, key), outcome);
+        stores[index(lookup, outcome)].increment();
+    }
+
+    /**
+     * 因否定缓存命中而省去的上游调用次数
+     */
+    public long getHitCount(Lookup lookup, Outcome outcome) {
+        return hits[index(lookup, outcome)].sum();
+    }
+
+    /**
+     * 写入的否定缓存条目数
+     */
+    public long getStoreCount(Lookup lookup, Outcome outcome) {
+        return stores[index(lookup, outcome)].sum();
+    }
+
+    private static int index(Lookup lookup, Outcome outcome) {
+        return lookup.ordinal() * OUTCOMES + outcome.ordinal();
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[Lookup.values().length * OUTCOMES];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
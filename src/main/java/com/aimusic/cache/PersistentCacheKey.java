@@ -0,0 +1,11 @@
+package com.aimusic.cache;
+
+/**
+ * 可写入磁盘缓存的非字符串键
+ * {@link TieredCaffeineCache} 用 {@link #persistentKey()} 作为L2中的键，
+ * 相等的键必须返回相同的字符串，不相等的键返回不同的字符串
+ */
+public interface PersistentCacheKey {
+
+    String persistentKey();
+}
@@ -0,0 +1,11 @@
+package com.aimusic.cache;
+
+/**
+ * 播放链接缓存条目
+ *
+ * @param url 播放链接
+ * @param refreshAt 过了这个时间（毫秒时间戳）命中时在后台重新获取
+ * @param expireAt 从缓存中移除的时间（毫秒时间戳），早于链接本身的过期时间
+ */
+public record PlayUrl(String url, long refreshAt, long expireAt) {
+}
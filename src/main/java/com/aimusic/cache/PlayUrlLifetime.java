@@ -0,0 +1,202 @@
+package com.aimusic.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 播放链接的缓存期限
+ * 上游返回的是带签名的临时链接，缓存多久由链接自身携带的过期时间决定：
+ * 在过期前 safetyMargin 移出缓存，保证交给播放器的链接仍然有效；
+ * 剩余时间不足 refreshAhead（且已过一半寿命）时命中的请求照常返回，由调用方在后台重新获取。
+ * 链接未携带过期时间时使用 defaultTtl，任何情况下都不超过 maxTtl
+ *
+ * <p>识别的过期时间：网易云CDN路径首段的 yyyyMMddHHmmss（北京时间）、
+ * 查询参数 expires / x-expires / x-oss-expires（秒或毫秒时间戳）、X-Amz-Date + X-Amz-Expires
+ */
+public class PlayUrlLifetime {
+
+    private static final ZoneId NETEASE_ZONE = ZoneId.of("Asia/Shanghai");
+
+    private static final DateTimeFormatter PATH_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    // 2000-01-01，早于此的数值不是时间戳
+    private static final long MIN_EPOCH_SECONDS = 946_684_800L;
+
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final Duration safetyMargin;
+    private final Duration refreshAhead;
+    private final Clock clock;
+
+    public PlayUrlLifetime(Duration defaultTtl, Duration maxTtl, Duration safetyMargin, Duration refreshAhead) {
+        this(defaultTtl, maxTtl, safetyMargin, refreshAhead, Clock.systemUTC());
+    }
+
+    PlayUrlLifetime(Duration defaultTtl, Duration maxTtl, Duration safetyMargin, Duration refreshAhead, Clock clock) {
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.safetyMargin = safetyMargin;
+        this.refreshAhead = refreshAhead;
+        this.clock = clock;
+    }
+
+    /**
+     * 为新获取的链接生成缓存条目
+     * @return 缓存条目，链接已过期或即将过期（不足 safetyMargin）时返回null，不应缓存
+     */
+    public PlayUrl entry(String url) {
+        long now = clock.millis();
+        long signedExpiry = signedExpiry(url);
+        long lifetime = signedExpiry > 0
+            ? Math.min(signedExpiry - safetyMargin.toMillis() - now, maxTtl.toMillis())
+            : Math.min(defaultTtl.toMillis(), maxTtl.toMillis());
+        if (lifetime <= 0) {
+            return null;
+        }
+        long expireAt = now + lifetime;
+        long refreshAt = Math.max(now + lifetime / 2, expireAt - refreshAhead.toMillis());
+        return new PlayUrl(url, refreshAt, expireAt);
+    }
+
+    /**
+     * 命中的条目是否应在后台重新获取
+     */
+    public boolean needsRefresh(PlayUrl entry) {
+        return clock.millis() >= entry.refreshAt();
+    }
+
+    /**
+     * 按条目的 expireAt 过期的Caffeine策略，读取不延长有效期
+     */
+    public Expiry<Object, Object> expiry() {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return remainingNanos(value);
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return remainingNanos(value);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private long remainingNanos(Object value) {
+        if (value instanceof PlayUrl entry) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.expireAt() - clock.millis()));
+        }
+        return defaultTtl.toNanos();
+    }
+
+    /**
+     * 解析链接携带的过期时间
+     * @return 毫秒时间戳，无法识别时返回-1
+     */
+    static long signedExpiry(String url) {
+        if (url == null) {
+            return -1;
+        }
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0) {
+            return -1;
+        }
+        int pathStart = url.indexOf('/', schemeEnd + 3);
+        int queryStart = url.indexOf('?', schemeEnd + 3);
+        if (queryStart >= 0) {
+            long expiry = queryExpiry(url.substring(queryStart + 1));
+            if (expiry > 0) {
+                return expiry;
+            }
+        }
+        if (pathStart >= 0 && (queryStart < 0 || pathStart < queryStart)) {
+            return pathExpiry(url, pathStart + 1);
+        }
+        return -1;
+    }
+
+    // 网易云CDN：https://m701.music.126.net/20240101120000/<签名>/...
+    private static long pathExpiry(String url, int segmentStart) {
+        int segmentEnd = segmentStart + 14;
+        if (url.length() <= segmentEnd || url.charAt(segmentEnd) != '/') {
+            return -1;
+        }
+        for (int i = segmentStart; i < segmentEnd; i++) {
+            if (!Character.isDigit(url.charAt(i))) {
+                return -1;
+            }
+        }
+        try {
+            return LocalDateTime.parse(url.substring(segmentStart, segmentEnd), PATH_TIME)
+                .atZone(NETEASE_ZONE).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static long queryExpiry(String query) {
+        String amzDate = null;
+        String amzExpires = null;
+        for (String param : query.split("&")) {
+            int eq = param.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            String name = param.substring(0, eq).toLowerCase(Locale.ROOT);
+            String value = param.substring(eq + 1);
+            switch (name) {
+                case "expires", "x-expires", "x-oss-expires" -> {
+                    long expiry = epochMillis(value);
+                    if (expiry > 0) {
+                        return expiry;
+                    }
+                }
+                case "x-amz-date" -> amzDate = value;
+                case "x-amz-expires" -> amzExpires = value;
+                default -> {
+                }
+            }
+        }
+        if (amzDate != null && amzExpires != null) {
+            try {
+                return LocalDateTime.parse(amzDate, AMZ_DATE).toInstant(ZoneOffset.UTC).toEpochMilli()
+                    + Long.parseLong(amzExpires) * 1000;
+            } catch (DateTimeParseException | NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 秒或毫秒时间戳，不是时间戳时返回-1
+     */
+    private static long epochMillis(String value) {
+        long number;
+        try {
+            number = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (number >= MIN_EPOCH_SECONDS * 1000) {
+            return number;
+        }
+        return number >= MIN_EPOCH_SECONDS ? number * 1000 : -1;
+    }
+}
@@ -0,0 +1,88 @@
+package com.aimusic.cache;
+
+import com.aimusic.util.ChineseVariants;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * 歌曲搜索缓存键
+ * 歌手和歌名去除首尾空白、合并连续空白，并折叠全半角、大小写和繁简字形，
+ * 使"周杰伦《青花瓷》"与"周杰倫《青花瓷》"命中同一条缓存。
+ * 已是规范形式的输入（小写ASCII、简体汉字）原样保留，不产生新字符串
+ *
+ * @param limit 搜索结果数量，{@link #BEST_MATCH} 表示只取最佳匹配（缓存值为 {@link SongMatch}）
+ */
+public record SongCacheKey(String artist, String song, int limit) implements PersistentCacheKey {
+
+    public static final int BEST_MATCH = 0;
+
+    // 磁盘键的字段分隔符，规范化时已去除控制字符，不会与字段内容冲突
+    private static final char SEPARATOR = '\u001f';
+
+    public SongCacheKey {
+        artist = normalize(artist);
+        song = normalize(song);
+    }
+
+    public static SongCacheKey of(String artist, String song, int limit) {
+        return new SongCacheKey(artist, song, limit);
+    }
+
+    @Override
+    public String persistentKey() {
+        return artist + SEPARATOR + song + SEPARATOR + limit;
+    }
+
+    /**
+     * 折叠全半角、大小写和繁简，去除首尾空白与控制字符，连续空白合并为一个空格
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        if (isNormalized(text)) {
+            return text;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(folded.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < folded.length(); ) {
+            int cp = folded.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isWhitespace(cp) || Character.isSpaceChar(cp) || Character.isISOControl(cp)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.appendCodePoint(ChineseVariants.toSimplified(cp));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 快速判断：只含小写ASCII、单个空格和非繁体的常用汉字时无需规范化，
+     * 其他字符一律走完整流程
+     */
+    private static boolean isNormalized(String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                if (i == 0 || i == length - 1 || text.charAt(i - 1) == ' ') {
+                    return false;
+                }
+            } else if (c < 0x80) {
+                if (c < 0x20 || c == 0x7f || (c >= 'A' && c <= 'Z')) {
+                    return false;
+                }
+            } else if (c < 0x4E00 || c > 0x9FFF || ChineseVariants.isTraditional(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
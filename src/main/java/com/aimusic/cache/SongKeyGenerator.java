@@ -0,0 +1,22 @@
+package com.aimusic.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+
+/**
+ * 歌曲搜索方法的缓存键生成器
+ * 参数依次为歌手、歌名和可选的结果数量，生成 {@link SongCacheKey}，替代每次调用都要求值的SpEL字符串拼接；
+ * 没有数量参数的方法（只返回最佳匹配）使用 {@link SongCacheKey#BEST_MATCH}，与列表结果互不覆盖
+ */
+public class SongKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        if (params.length < 2) {
+            throw new IllegalArgumentException("歌曲缓存键需要歌手和歌名参数: " + method);
+        }
+        int limit = params.length > 2 && params[2] instanceof Integer value ? value : SongCacheKey.BEST_MATCH;
+        return SongCacheKey.of((String) params[0], (String) params[1], limit);
+    }
+}
@@ -0,0 +1,10 @@
+package com.aimusic.cache;
+
+/**
+ * 歌曲搜索的最佳匹配缓存条目
+ *
+ * @param songId 歌曲ID
+ * @param confidence 匹配置信度（0到1），即搜索结果排序时最佳匹配的得分
+ */
+public record SongMatch(String songId, double confidence) {
+}
@@ -0,0 +1,249 @@
+package com.aimusic.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 两级缓存：堆内Caffeine为L1，{@link DiskCacheStore} 为L2
+ * L1未命中时查L2，命中后回填L1；写入和淘汰同时作用于两级。
+ * 写入L2由磁盘层的写线程异步完成，请求线程不等待磁盘写入；淘汰和清空等待L2执行完成，避免随后的读取从L2回填旧值。
+ * 只有字符串键或 {@link PersistentCacheKey}、值为字符串、字符串列表（歌曲ID）或 {@link SongMatch} 时写入L2，其他值仅保存在L1。
+ * 磁盘读写失败只记录日志，按L2未命中处理
+ */
+public class TieredCaffeineCache extends CaffeineCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredCaffeineCache.class);
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte STRING_LIST_VALUE = 2;
+    private static final byte SONG_MATCH_VALUE = 3;
+
+    private final DiskCacheStore diskStore;
+
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder diskMisses = new LongAdder();
+
+    public TieredCaffeineCache(String name, Cache<Object, Object> cache, DiskCacheStore diskStore,
+                               boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+        this.diskStore = diskStore;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value == null) {
+            value = loadFromDisk(key);
+            if (value != null) {
+                getNativeCache().put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return super.get(key, () -> {
+            Object stored = loadFromDisk(key);
+            if (stored != null) {
+                return (T) fromStoreValue(stored);
+            }
+            T value = valueLoader.call();
+            writeToDisk(key, toStoreValue(value));
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        writeToDisk(key, toStoreValue(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        if (existing == null) {
+            writeToDisk(key, toStoreValue(value));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        removeFromDisk(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = super.evictIfPresent(key);
+        return removeFromDisk(key) || present;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        clearDisk();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = super.invalidate();
+        boolean diskNotEmpty = diskStore.size() > 0;
+        clearDisk();
+        return notEmpty || diskNotEmpty;
+    }
+
+    public DiskCacheStore getDiskStore() {
+        return diskStore;
+    }
+
+    /**
+     * L1未命中后在L2命中的次数
+     */
+    public long getDiskHitCount() {
+        return diskHits.sum();
+    }
+
+    /**
+     * L1和L2均未命中的次数
+     */
+    public long getDiskMissCount() {
+        return diskMisses.sum();
+    }
+
+    private Object loadFromDisk(Object key) {
+        String stringKey = diskKey(key);
+        if (stringKey == null) {
+            return null;
+        }
+        byte[] bytes = diskStore.get(stringKey);
+        Object value = bytes == null ? null : decode(bytes);
+        if (value != null) {
+            diskHits.increment();
+        } else {
+            diskMisses.increment();
+        }
+        return value;
+    }
+
+    private void writeToDisk(Object key, Object storeValue) {
+        String stringKey = diskKey(key);
+        if (stringKey == null) {
+            return;
+        }
+        byte[] bytes = encode(storeValue);
+        if (bytes == null) {
+            return;
+        }
+        diskStore.put(stringKey, bytes);
+    }
+
+    private boolean removeFromDisk(Object key) {
+        String stringKey = diskKey(key);
+        if (stringKey == null) {
+            return false;
+        }
+        try {
+            return diskStore.remove(stringKey);
+        } catch (IOException e) {
+            logger.warn("删除磁盘缓存失败: {} {}", getName(), stringKey, e);
+            return false;
+        }
+    }
+
+    private static String diskKey(Object key) {
+        if (key instanceof String stringKey) {
+            return stringKey;
+        }
+        if (key instanceof PersistentCacheKey persistentKey) {
+            return persistentKey.persistentKey();
+        }
+        return null;
+    }
+
+    private void clearDisk() {
+        try {
+            diskStore.clear();
+        } catch (IOException e) {
+            logger.warn("清空磁盘缓存失败: {}", getName(), e);
+        }
+    }
+
+    /**
+     * 序列化缓存值，不支持的类型返回null
+     */
+    static byte[] encode(Object storeValue) {
+        if (storeValue == NullValue.INSTANCE) {
+            return new byte[] {NULL_VALUE};
+        }
+        if (storeValue instanceof String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(1 + bytes.length).put(STRING_VALUE).put(bytes).array();
+        }
+        if (storeValue instanceof List<?> list) {
+            List<byte[]> elements = new ArrayList<>(list.size());
+            int length = 1 + 4;
+            for (Object element : list) {
+                if (!(element instanceof String string)) {
+                    return null;
+                }
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                elements.add(bytes);
+                length += 4 + bytes.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length).put(STRING_LIST_VALUE).putInt(elements.size());
+            for (byte[] bytes : elements) {
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            return buffer.array();
+        }
+        if (storeValue instanceof SongMatch match) {
+            byte[] bytes = match.songId().getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(1 + 8 + bytes.length).put(SONG_MATCH_VALUE).putDouble(match.confidence())
+                .put(bytes).array();
+        }
+        return null;
+    }
+
+    static Object decode(byte[] bytes) {
+        if (bytes.length == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        switch (buffer.get()) {
+            case NULL_VALUE:
+                return NullValue.INSTANCE;
+            case STRING_VALUE:
+                return new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+            case STRING_LIST_VALUE:
+                int count = buffer.getInt();
+                List<String> list = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    byte[] element = new byte[buffer.getInt()];
+                    buffer.get(element);
+                    list.add(new String(element, StandardCharsets.UTF_8));
+                }
+                return list;
+            case SONG_MATCH_VALUE:
+                double confidence = buffer.getDouble();
+                return new SongMatch(new String(bytes, 9, bytes.length - 9, StandardCharsets.UTF_8), confidence);
+            default:
+                return null;
+        }
+    }
+}
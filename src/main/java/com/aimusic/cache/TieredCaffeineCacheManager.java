@@ -0,0 +1,81 @@
+package com.aimusic.cache;
+
+import com.aimusic.config.DiskCacheConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 支持磁盘层的Caffeine缓存管理器
+ * {@link DiskCacheConfig#getCacheNames()} 中的缓存创建为 {@link TieredCaffeineCache}，
+ * 磁盘文件打开失败时退回只使用堆内缓存；定期检查并压缩磁盘文件，关闭时落盘
+ */
+public class TieredCaffeineCacheManager extends CaffeineCacheManager implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredCaffeineCacheManager.class);
+
+    private final DiskCacheConfig diskCacheConfig;
+
+    private final Map<String, DiskCacheStore> diskStores = new ConcurrentHashMap<>();
+
+    public TieredCaffeineCacheManager(DiskCacheConfig diskCacheConfig) {
+        this.diskCacheConfig = diskCacheConfig;
+    }
+
+    @Override
+    protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+        if (!diskCacheConfig.isEnabled() || !diskCacheConfig.getCacheNames().contains(name)) {
+            return super.adaptCaffeineCache(name, cache);
+        }
+        try {
+            // 修改Caffeine配置时缓存会重建，磁盘文件沿用已打开的
+            DiskCacheStore store = diskStores.get(name);
+            if (store == null) {
+                store = new DiskCacheStore(Path.of(diskCacheConfig.getDirectory()), name,
+                    diskCacheConfig.getMaxEntries(), diskCacheConfig.getTtl());
+                diskStores.put(name, store);
+            }
+            return new TieredCaffeineCache(name, cache, store, isAllowNullValues());
+        } catch (IOException e) {
+            logger.warn("打开磁盘缓存失败，{} 仅使用堆内缓存", name, e);
+            return super.adaptCaffeineCache(name, cache);
+        }
+    }
+
+    /**
+     * 压缩需要压缩的磁盘文件（过期、垃圾过多或超出容量）
+     */
+    @Scheduled(initialDelayString = "#{@diskCacheConfig.compactionInterval.toMillis()}",
+        fixedDelayString = "#{@diskCacheConfig.compactionInterval.toMillis()}")
+    public void compactDiskStores() {
+        diskStores.forEach((name, store) -> {
+            if (!store.needsCompaction()) {
+                return;
+            }
+            try {
+                store.compact();
+            } catch (IOException e) {
+                logger.warn("磁盘缓存压缩失败: {}", name, e);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        diskStores.forEach((name, store) -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                logger.warn("关闭磁盘缓存失败: {}", name, e);
+            }
+        });
+    }
+}
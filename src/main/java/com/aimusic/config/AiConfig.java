@@ -7,6 +7,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+
 @Component
 @ConfigurationProperties(prefix = "ai")
 @Validated
@@ -25,6 +27,46 @@ public class AiConfig {
     @Max(value = 300, message = "超时时间不能大于300秒")
     private int timeout = 30;
     
+    /**
+     * AI连接池总连接数与单路由连接数上限；虚拟线程模式下它们决定同时进行的AI调用数
+     */
+    @Min(value = 1, message = "AI连接池最大连接数不能小于1")
+    private int maxConnections = 100;
+    
+    @Min(value = 1, message = "AI连接池单路由连接数不能小于1")
+    private int maxConnectionsPerRoute = 20;
+    
+    @Min(value = 1, message = "流式问答线程数不能小于1")
+    @Max(value = 256, message = "流式问答线程数不能大于256")
+    private int streamThreads = 16;
+    
+    /**
+     * 后台探测AI服务可用性的间隔
+     */
+    private Duration availabilityRefreshInterval = Duration.ofSeconds(30);
+    
+    @Min(value = 1, message = "可用性失败阈值不能小于1")
+    private int availabilityFailureThreshold = 3;
+    
+    /**
+     * 服务是否可能不提供模型列表接口；为true时探测返回404/405也视为可达
+     */
+    private boolean modelsEndpointOptional = false;
+    
+    /**
+     * 是否启用AI回答缓存（容量和有效期见 caches.specs.aiAnswerCache）
+     */
+    private boolean answerCacheEnabled = true;
+    
+    /**
+     * 系统提示词模板目录，每种语言一个子目录（zh-CN、en-US），可指向 file: 路径以便不重新打包即可修改
+     */
+    @NotBlank(message = "提示词模板目录不能为空")
+    private String promptLocation = "classpath:prompts/";
+    
+    @Min(value = 1, message = "提示词缓存容量不能小于1")
+    private long promptCacheMaxSize = 512;
+    
     public String getBaseUrl() {
         return baseUrl;
     }
@@ -56,4 +98,76 @@ public class AiConfig {
     public void setTimeout(int timeout) {
         this.timeout = timeout;
     }
+    
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+    
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+    
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+    
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+    
+    public int getStreamThreads() {
+        return streamThreads;
+    }
+    
+    public void setStreamThreads(int streamThreads) {
+        this.streamThreads = streamThreads;
+    }
+    
+    public Duration getAvailabilityRefreshInterval() {
+        return availabilityRefreshInterval;
+    }
+    
+    public void setAvailabilityRefreshInterval(Duration availabilityRefreshInterval) {
+        this.availabilityRefreshInterval = availabilityRefreshInterval;
+    }
+    
+    public int getAvailabilityFailureThreshold() {
+        return availabilityFailureThreshold;
+    }
+    
+    public void setAvailabilityFailureThreshold(int availabilityFailureThreshold) {
+        this.availabilityFailureThreshold = availabilityFailureThreshold;
+    }
+    
+    public boolean isModelsEndpointOptional() {
+        return modelsEndpointOptional;
+    }
+    
+    public void setModelsEndpointOptional(boolean modelsEndpointOptional) {
+        this.modelsEndpointOptional = modelsEndpointOptional;
+    }
+    
+    public boolean isAnswerCacheEnabled() {
+        return answerCacheEnabled;
+    }
+    
+    public void setAnswerCacheEnabled(boolean answerCacheEnabled) {
+        this.answerCacheEnabled = answerCacheEnabled;
+    }
+    
+    public String getPromptLocation() {
+        return promptLocation;
+    }
+    
+    public void setPromptLocation(String promptLocation) {
+        this.promptLocation = promptLocation;
+    }
+    
+    public long getPromptCacheMaxSize() {
+        return promptCacheMaxSize;
+    }
+    
+    public void setPromptCacheMaxSize(long promptCacheMaxSize) {
+        this.promptCacheMaxSize = promptCacheMaxSize;
+    }
 }
\ No newline at end of file
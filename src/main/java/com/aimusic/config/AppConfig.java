@@ -9,6 +9,16 @@ public class AppConfig {
     
     private int maxQuestionLength;
     
+    /**
+     * 是否使用异步上游调用（JDK HttpClient），/api/ask 以异步请求完成，不为等待上游占用线程
+     */
+    private boolean asyncUpstream;
+    
+    /**
+     * 是否在 /api/ask 响应中附带 Server-Timing 头（各阶段耗时，可在浏览器开发者工具中查看）
+     */
+    private boolean serverTimingEnabled;
+    
     public int getMaxQuestionLength() {
         return maxQuestionLength;
     }
@@ -16,4 +26,20 @@ public class AppConfig {
     public void setMaxQuestionLength(int maxQuestionLength) {
         this.maxQuestionLength = maxQuestionLength;
     }
+    
+    public boolean isAsyncUpstream() {
+        return asyncUpstream;
+    }
+    
+    public void setAsyncUpstream(boolean asyncUpstream) {
+        this.asyncUpstream = asyncUpstream;
+    }
+    
+    public boolean isServerTimingEnabled() {
+        return serverTimingEnabled;
+    }
+    
+    public void setServerTimingEnabled(boolean serverTimingEnabled) {
+        this.serverTimingEnabled = serverTimingEnabled;
+    }
 }
\ No newline at end of file
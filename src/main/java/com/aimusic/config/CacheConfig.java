@@ -1,9 +1,15 @@
 package com.aimusic.config;
 
+import com.aimusic.cache.NegativeLookupCache;
+import com.aimusic.cache.PlayUrlLifetime;
+import com.aimusic.cache.SongKeyGenerator;
+import com.aimusic.cache.TieredCaffeineCacheManager;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,38 +17,127 @@ import java.time.Duration;
 
 /**
  * 缓存配置
- * 使用Caffeine作为缓存实现，提高性能
+ * 使用Caffeine作为缓存实现，各缓存的容量和有效期见 {@link CacheSpecConfig}
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
     
+    /**
+     * AI回答缓存名称
+     */
+    public static final String AI_ANSWER_CACHE = "aiAnswerCache";
+    
+    /**
+     * 歌曲搜索结果缓存名称（歌手+歌名 → 歌曲ID）
+     */
+    public static final String MUSIC_CACHE = "musicCache";
+    
+    /**
+     * 播放链接缓存名称（歌曲ID → 播放链接）
+     */
+    public static final String MUSIC_URL_CACHE = "musicUrlCache";
+    
+    /**
+     * 否定缓存名称（搜索不到的歌曲、拿不到播放链接的歌曲ID）
+     */
+    public static final String MUSIC_MISS_CACHE = "musicMissCache";
+    
+    @Autowired
+    private CacheSpecConfig cacheSpecConfig;
+    
+    @Autowired
+    private DiskCacheConfig diskCacheConfig;
+    
+    @Autowired
+    private MusicConfig musicConfig;
+    
     /**
      * 配置缓存管理器
+     * caches.specs 中声明的缓存各自使用独立的容量和有效期，其中 musicUrlCache 按每条链接的过期时间淘汰（{@link PlayUrlLifetime}），
+     * musicMissCache 按失败原因决定有效期（{@link NegativeLookupCache}）；
+     * disk-cache.cache-names 中的缓存（默认 musicCache）在堆内缓存之外再写入磁盘，重启后仍可命中
      */
     @Bean
     public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        TieredCaffeineCacheManager cacheManager = new TieredCaffeineCacheManager(diskCacheConfig);
+        
+        // 未声明的缓存使用默认配置
+        cacheManager.setCaffeine(caffeine(cacheSpecConfig.getDefaults()));
         
-        // 音乐搜索缓存配置
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .maximumSize(1000) // 最大缓存条目数
-                .expireAfterWrite(Duration.ofHours(24)) // 写入后24小时过期
-                .expireAfterAccess(Duration.ofHours(6)) // 访问后6小时过期
-                .recordStats()); // 记录统计信息
+        cacheSpecConfig.getSpecs().forEach((name, spec) ->
+            cacheManager.registerCustomCache(name, caffeine(name, spec).build()));
+        
+        // 启动时即打开磁盘文件（加载或重建索引），并让监控能发现这些缓存
+        if (diskCacheConfig.isEnabled()) {
+            diskCacheConfig.getCacheNames().forEach(cacheManager::getCache);
+        }
         
         return cacheManager;
     }
     
     /**
-     * 音乐URL缓存配置
+     * 播放链接的缓存期限；caches.specs.musicUrlCache.expire-after-write 用于未携带过期时间的链接
+     */
+    @Bean
+    public PlayUrlLifetime playUrlLifetime() {
+        CacheSpecConfig.Spec spec = cacheSpecConfig.getSpecs().get(MUSIC_URL_CACHE);
+        Duration defaultTtl = spec != null && spec.getExpireAfterWrite() != null
+            ? spec.getExpireAfterWrite() : Duration.ofMinutes(15);
+        return new PlayUrlLifetime(defaultTtl, musicConfig.getUrlMaxTtl(),
+            musicConfig.getUrlExpiryMargin(), musicConfig.getUrlRefreshAhead());
+    }
+    
+    /**
+     * 歌曲查找的否定缓存；caches.specs.musicMissCache.expire-after-write 为"未找到"的有效期，
+     * 上游错误的有效期见 music.upstream-error-ttl
+     */
+    @Bean
+    public NegativeLookupCache negativeLookupCache() {
+        return new NegativeLookupCache(cacheManager().getCache(MUSIC_MISS_CACHE));
+    }
+    
+    /**
+     * 歌曲搜索缓存键生成器，歌手和歌名经过繁简、全半角和大小写归一
      */
-    @Bean("musicUrlCache")
-    public com.github.benmanes.caffeine.cache.Cache<String, String> musicUrlCache() {
+    @Bean
+    public KeyGenerator songKeyGenerator() {
+        return new SongKeyGenerator();
+    }
+    
+    private Caffeine<Object, Object> caffeine(String name, CacheSpecConfig.Spec spec) {
+        switch (name) {
+            case MUSIC_URL_CACHE:
+                return caffeine(spec, playUrlLifetime().expiry());
+            case MUSIC_MISS_CACHE:
+                Duration notFoundTtl = spec.getExpireAfterWrite() != null
+                    ? spec.getExpireAfterWrite() : Duration.ofMinutes(30);
+                return caffeine(spec, NegativeLookupCache.expiry(notFoundTtl, musicConfig.getUpstreamErrorTtl()));
+            default:
+                return caffeine(spec);
+        }
+    }
+    
+    /**
+     * 按条目计算过期时间的缓存：容量取自配置，不使用固定的写入/访问过期
+     */
+    private static Caffeine<Object, Object> caffeine(CacheSpecConfig.Spec spec, Expiry<Object, Object> expiry) {
         return Caffeine.newBuilder()
-                .maximumSize(500)
-                .expireAfterWrite(Duration.ofMinutes(30)) // URL缓存30分钟
-                .recordStats()
-                .build();
+                .maximumSize(spec.getMaximumSize())
+                .expireAfter(expiry)
+                .recordStats();
+    }
+    
+    private static Caffeine<Object, Object> caffeine(CacheSpecConfig.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .recordStats(); // 记录统计信息
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        return builder;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package com.aimusic.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 各缓存的容量和有效期
+ * 歌曲ID、播放链接和AI回答的有效期相差很大，按缓存名称分别配置；未声明的缓存使用 defaults
+ */
+@Component
+@ConfigurationProperties(prefix = "caches")
+@Validated
+public class CacheSpecConfig {
+
+    /**
+     * 未在 specs 中声明的缓存使用的配置
+     */
+    @Valid
+    @NotNull(message = "默认缓存配置不能为空")
+    private Spec defaults = new Spec(1000, Duration.ofHours(24), Duration.ofHours(6));
+
+    /**
+     * 按缓存名称声明的配置，启动时即创建
+     */
+    @Valid
+    private Map<String, Spec> specs = new LinkedHashMap<>(Map.of(
+        CacheConfig.MUSIC_CACHE, new Spec(50_000, Duration.ofDays(7), null),
+        CacheConfig.MUSIC_URL_CACHE, new Spec(5000, Duration.ofMinutes(15), null),
+        CacheConfig.AI_ANSWER_CACHE, new Spec(2000, Duration.ofHours(1), null),
+        CacheConfig.MUSIC_MISS_CACHE, new Spec(20_000, Duration.ofMinutes(30), null)));
+
+    public Spec getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Spec defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Spec> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, Spec> specs) {
+        this.specs = specs;
+    }
+
+    /**
+     * 单个缓存的配置
+     */
+    public static class Spec {
+
+        @Min(value = 1, message = "缓存容量不能小于1")
+        private long maximumSize = 1000;
+
+        /**
+         * 写入后过期时间，为空表示不按写入时间过期
+         */
+        private Duration expireAfterWrite;
+
+        /**
+         * 最后访问后过期时间，为空表示不按访问时间过期
+         */
+        private Duration expireAfterAccess;
+
+        public Spec() {
+        }
+
+        public Spec(long maximumSize, Duration expireAfterWrite, Duration expireAfterAccess) {
+            this.maximumSize = maximumSize;
+            this.expireAfterWrite = expireAfterWrite;
+            this.expireAfterAccess = expireAfterAccess;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+    }
+}
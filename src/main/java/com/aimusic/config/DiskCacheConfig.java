@@ -0,0 +1,101 @@
+package com.aimusic.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 磁盘缓存层配置
+ * 指定的缓存在堆内Caffeine（L1）之外再写入本地文件（L2），重启后仍可命中
+ */
+@Component
+@ConfigurationProperties(prefix = "disk-cache")
+@Validated
+public class DiskCacheConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * 缓存文件目录，每个缓存一组 .log / .idx 文件
+     */
+    @NotBlank(message = "磁盘缓存目录不能为空")
+    private String directory = "data/cache";
+
+    /**
+     * 使用磁盘层的缓存名称
+     */
+    private List<String> cacheNames = new ArrayList<>(List.of(CacheConfig.MUSIC_CACHE));
+
+    /**
+     * 每个缓存的最大条目数，压缩时按写入顺序淘汰最早的条目
+     */
+    @Min(value = 1, message = "磁盘缓存最大条目数不能小于1")
+    private long maxEntries = 5_000_000;
+
+    /**
+     * 写入后过期时间
+     */
+    @NotNull(message = "磁盘缓存过期时间不能为空")
+    private Duration ttl = Duration.ofDays(30);
+
+    /**
+     * 检查是否需要压缩的间隔
+     */
+    @NotNull(message = "磁盘缓存压缩检查间隔不能为空")
+    private Duration compactionInterval = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public List<String> getCacheNames() {
+        return cacheNames;
+    }
+
+    public void setCacheNames(List<String> cacheNames) {
+        this.cacheNames = cacheNames;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    public void setCompactionInterval(Duration compactionInterval) {
+        this.compactionInterval = compactionInterval;
+    }
+}
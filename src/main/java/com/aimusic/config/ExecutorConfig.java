@@ -0,0 +1,92 @@
+package com.aimusic.config;
+
+import com.aimusic.util.BoundedVirtualThreadExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 线程池配置
+ * 为上游调用提供独立的有界线程池，避免占用Tomcat工作线程；
+ * 开启 spring.threads.virtual.enabled 后改为每任务一个虚拟线程，运行数和排队数上限与线程池相同
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Autowired
+    private MusicConfig musicConfig;
+
+    @Autowired
+    private AiConfig aiConfig;
+
+    @Autowired
+    private Environment environment;
+
+    /**
+     * 歌曲解析线程池（搜索歌曲 + 获取播放链接）
+     */
+    @Bean("musicLookupExecutor")
+    public Executor musicLookupExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // 同时最多 lookup-threads 个上游调用，其余排队，队列满时拒绝
+            return new BoundedVirtualThreadExecutor("music-lookup-",
+                musicConfig.getLookupThreads(), musicConfig.getLookupQueueCapacity());
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(musicConfig.getLookupThreads());
+        executor.setMaxPoolSize(musicConfig.getLookupThreads());
+        executor.setQueueCapacity(musicConfig.getLookupQueueCapacity());
+        executor.setThreadNamePrefix("music-lookup-");
+        // 队列满时拒绝，由调用方放弃该任务；不在请求线程上执行，否则单曲期限无法生效
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 播放链接后台刷新线程池，与歌曲解析分开，刷新不占用请求的解析名额
+     */
+    @Bean("musicRefreshExecutor")
+    public Executor musicRefreshExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new BoundedVirtualThreadExecutor("music-refresh-", musicConfig.getUrlRefreshThreads(), 0);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(musicConfig.getUrlRefreshThreads());
+        executor.setMaxPoolSize(musicConfig.getUrlRefreshThreads());
+        // 不排队：刷新是可选的，满时由调用方跳过
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("music-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 流式问答线程池，负责读取AI流式响应并推送SSE事件
+     */
+    @Bean("askStreamExecutor")
+    public Executor askStreamExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // 同时进行的流式请求数仍受 ai.stream-threads 限制，超出时拒绝
+            return new BoundedVirtualThreadExecutor("ask-stream-", aiConfig.getStreamThreads(), 0);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(aiConfig.getStreamThreads());
+        executor.setMaxPoolSize(aiConfig.getStreamThreads());
+        // 不排队：流式请求必须立即开始，否则拒绝
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("ask-stream-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,18 +1,29 @@
 package com.aimusic.config;
 
+import com.aimusic.monitor.UpstreamMetrics;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import java.net.InetSocketAddress;
+import java.net.URI;
 import java.net.Proxy;
+import java.net.http.HttpClient;
 import java.time.Duration;
 
 /**
@@ -28,14 +39,20 @@ public class HttpClientConfig {
     @Autowired
     private AiConfig aiConfig;
     
+    @Autowired
+    private MusicConfig musicConfig;
+    
+    @Autowired
+    private UpstreamMetrics upstreamMetrics;
+    
     /**
      * 配置HTTP连接池
      */
     @Bean
     public PoolingHttpClientConnectionManager connectionManager() {
         PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-        connectionManager.setMaxTotal(100); // 最大连接数
-        connectionManager.setDefaultMaxPerRoute(20); // 每个路由的最大连接数
+        connectionManager.setMaxTotal(aiConfig.getMaxConnections()); // 最大连接数
+        connectionManager.setDefaultMaxPerRoute(aiConfig.getMaxConnectionsPerRoute()); // 每个路由的最大连接数
         return connectionManager;
     }
     
@@ -43,7 +60,7 @@ public class HttpClientConfig {
      * 配置HTTP客户端
      */
     @Bean
-    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+    public CloseableHttpClient httpClient(@Qualifier("connectionManager") PoolingHttpClientConnectionManager connectionManager) {
         RequestConfig requestConfig = RequestConfig.custom()
                 .setConnectionRequestTimeout(Timeout.ofSeconds(5))
                 .setResponseTimeout(Timeout.ofSeconds(aiConfig.getTimeout()))
@@ -59,22 +76,90 @@ public class HttpClientConfig {
      * 配置RestTemplate
      */
     @Bean
-    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+    public RestTemplate restTemplate(@Qualifier("httpClient") CloseableHttpClient httpClient) {
         HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
         factory.setHttpClient(httpClient);
         
-        return new RestTemplate(factory);
+        RestTemplate restTemplate = new RestTemplate(factory);
+        restTemplate.getInterceptors().add(upstreamMetrics.interceptor(
+                uri -> uri.getPath().endsWith("/models") ? UpstreamMetrics.AI_MODELS : UpstreamMetrics.AI_CHAT));
+        return restTemplate;
+    }
+    
+    /**
+     * 音乐接口连接池，搜索接口和播放链接接口所在主机分别设置路由上限
+     */
+    @Bean("musicConnectionManager")
+    public PoolingHttpClientConnectionManager musicConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(musicConfig.getConnectTimeout().toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(musicConfig.getResponseTimeout().toMillis()))
+                        .build())
+                .build();
+        connectionManager.setMaxTotal(musicConfig.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(musicConfig.getMaxConnectionsPerRoute());
+        connectionManager.setMaxPerRoute(routeOf(musicConfig.getSearchUrl()), musicConfig.getSearchMaxConnections());
+        connectionManager.setMaxPerRoute(routeOf(musicConfig.getSongUrlApi()), musicConfig.getSongUrlMaxConnections());
+        return connectionManager;
+    }
+    
+    /**
+     * 音乐接口HTTP客户端：亚秒级超时，后台回收空闲连接
+     */
+    @Bean("musicHttpClient")
+    public CloseableHttpClient musicHttpClient(
+            @Qualifier("musicConnectionManager") PoolingHttpClientConnectionManager musicConnectionManager) {
+        TimeValue idleTimeout = TimeValue.ofMilliseconds(musicConfig.getIdleTimeout().toMillis());
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(musicConfig.getConnectionRequestTimeout().toMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(musicConfig.getResponseTimeout().toMillis()))
+                .build();
+        
+        return HttpClients.custom()
+                .setConnectionManager(musicConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                // 服务端声明的Keep-Alive与空闲保留时长取较小值，避免复用已被对端关闭的连接
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue declared = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return TimeValue.isPositive(declared) && declared.compareTo(idleTimeout) < 0 ? declared : idleTimeout;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout)
+                .build();
     }
     
     /**
      * 专用于音乐服务的RestTemplate
      */
     @Bean("musicRestTemplate")
-    public RestTemplate musicRestTemplate() {
-        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
-        factory.setConnectTimeout(Duration.ofSeconds(30));
-        factory.setConnectionRequestTimeout(Duration.ofSeconds(30));
-        
-        return new RestTemplate(factory);
+    public RestTemplate musicRestTemplate(@Qualifier("musicHttpClient") CloseableHttpClient musicHttpClient) {
+        String searchPath = URI.create(musicConfig.getSearchUrl()).getPath();
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(musicHttpClient));
+        restTemplate.getInterceptors().add(upstreamMetrics.interceptor(
+                uri -> uri.getPath().equals(searchPath) ? UpstreamMetrics.NETEASE_SEARCH : UpstreamMetrics.SONG_URL));
+        return restTemplate;
+    }
+    
+    /**
+     * 异步上游调用使用的非阻塞HTTP客户端，AI和音乐接口共用
+     */
+    @Bean("upstreamHttpClient")
+    @ConditionalOnProperty(prefix = "app", name = "async-upstream", havingValue = "true")
+    public HttpClient upstreamHttpClient() {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+    
+    /**
+     * 与默认路由规划一致的路由（目标主机带默认端口，https为安全路由），用于按主机设置连接上限
+     */
+    static HttpRoute routeOf(String url) {
+        URI uri = URI.create(url);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port), null, secure);
     }
-}
\ No newline at end of file
+}
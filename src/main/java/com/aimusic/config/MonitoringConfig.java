@@ -1,14 +1,23 @@
 package com.aimusic.config;
 
+import com.aimusic.cache.DiskCacheStore;
+import com.aimusic.cache.NegativeLookupCache;
+import com.aimusic.cache.TieredCaffeineCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
 import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
 import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
 import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
 import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
 import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
 import io.micrometer.core.instrument.binder.system.UptimeMetrics;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCache;
@@ -30,6 +39,23 @@ public class MonitoringConfig {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+
+    @Autowired
+    @Qualifier("connectionManager")
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    @Qualifier("musicConnectionManager")
+    private PoolingHttpClientConnectionManager musicConnectionManager;
+
+    @Autowired
+    private AiConfig aiConfig;
+
+    @Autowired
+    private MusicConfig musicConfig;
+
     /**
      * 自定义MeterRegistry配置
      */
@@ -58,6 +84,7 @@ public class MonitoringConfig {
         
         // 缓存指标
         bindCacheMetrics();
+        bindNegativeCacheMetrics();
         
         // 自定义业务指标
         initCustomMetrics();
@@ -74,10 +101,50 @@ public class MonitoringConfig {
                     CaffeineCache caffeineCache = (CaffeineCache) cache;
                     CaffeineCacheMetrics.monitor(meterRegistry, caffeineCache.getNativeCache(), cacheName);
                 }
+                if (cache instanceof TieredCaffeineCache tieredCache) {
+                    bindDiskTierMetrics(tieredCache);
+                }
             });
         }
     }
 
+    /**
+     * 否定缓存指标：按查找类型（search/url）和失败原因（not_found/upstream_error）统计命中和写入次数，
+     * 命中次数即省去的上游调用次数
+     */
+    private void bindNegativeCacheMetrics() {
+        for (NegativeLookupCache.Lookup lookup : NegativeLookupCache.Lookup.values()) {
+            for (NegativeLookupCache.Outcome outcome : NegativeLookupCache.Outcome.values()) {
+                FunctionCounter.builder("cache.negative.hits", negativeLookupCache, c -> c.getHitCount(lookup, outcome))
+                    .tags("lookup", lookup.tagValue(), "outcome", outcome.tagValue())
+                    .register(meterRegistry);
+                FunctionCounter.builder("cache.negative.puts", negativeLookupCache, c -> c.getStoreCount(lookup, outcome))
+                    .tags("lookup", lookup.tagValue(), "outcome", outcome.tagValue())
+                    .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * 磁盘缓存层指标：条目数、文件大小和L1未命中后的命中情况
+     */
+    private void bindDiskTierMetrics(TieredCaffeineCache cache) {
+        DiskCacheStore store = cache.getDiskStore();
+        Gauge.builder("cache.disk.size", store, DiskCacheStore::size)
+            .tag("cache", cache.getName())
+            .register(meterRegistry);
+        Gauge.builder("cache.disk.bytes", store, DiskCacheStore::logBytes)
+            .tag("cache", cache.getName())
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.disk.gets", cache, TieredCaffeineCache::getDiskHitCount)
+            .tags("cache", cache.getName(), "result", "hit")
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.disk.gets", cache, TieredCaffeineCache::getDiskMissCount)
+            .tags("cache", cache.getName(), "result", "miss")
+            .register(meterRegistry);
+    }
+
     /**
      * 初始化自定义业务指标
      */
@@ -88,8 +155,7 @@ public class MonitoringConfig {
         // 音乐服务调用计数器
         meterRegistry.counter("music.service.calls.total", "service", "music");
         
-        // 问题处理时间计时器
-        meterRegistry.timer("question.processing.time");
+        // 问题处理时间计时器 question.processing.time 由 AskTimingInterceptor 注册和记录
         
         // 错误计数器
         meterRegistry.counter("errors.total", "type", "business");
@@ -100,20 +166,39 @@ public class MonitoringConfig {
     }
 
     /**
-     * HTTP客户端指标配置
+     * HTTP连接池指标：总量由Micrometer的hc5绑定器提供，
+     * 另按上游主机（路由）提供租用/可用/等待连接数，用于判断延迟是否来自连接池耗尽。
+     * 上游调用本身的耗时、状态码和异常见 UpstreamMetrics
      */
     @PostConstruct
     public void configureHttpClientMetrics() {
-        // HTTP客户端请求计数器
-        meterRegistry.counter("http.client.requests.total", "client", "ai-service");
-        meterRegistry.counter("http.client.requests.total", "client", "music-service");
-        
-        // HTTP客户端响应时间
-        meterRegistry.timer("http.client.requests.duration", "client", "ai-service");
-        meterRegistry.timer("http.client.requests.duration", "client", "music-service");
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "ai").bindTo(meterRegistry);
+        new PoolingHttpClientConnectionManagerMetricsBinder(musicConnectionManager, "music").bindTo(meterRegistry);
         
-        // HTTP客户端错误计数器
-        meterRegistry.counter("http.client.errors.total", "client", "ai-service");
-        meterRegistry.counter("http.client.errors.total", "client", "music-service");
+        bindRouteMetrics(connectionManager, "ai", aiConfig.getBaseUrl());
+        bindRouteMetrics(musicConnectionManager, "music", musicConfig.getSearchUrl());
+        bindRouteMetrics(musicConnectionManager, "music", musicConfig.getSongUrlApi());
+    }
+
+    private void bindRouteMetrics(PoolingHttpClientConnectionManager pool, String poolName, String url) {
+        HttpRoute route = HttpClientConfig.routeOf(url);
+        String routeName = route.getTargetHost().toHostString();
+        if (meterRegistry.find("upstream.pool.route.connections")
+                .tags("pool", poolName, "route", routeName).gauge() != null) {
+            // 两个上游地址在同一主机时只注册一次
+            return;
+        }
+        Gauge.builder("upstream.pool.route.connections", pool, p -> p.getStats(route).getLeased())
+            .tags("pool", poolName, "route", routeName, "state", "leased")
+            .register(meterRegistry);
+        Gauge.builder("upstream.pool.route.connections", pool, p -> p.getStats(route).getAvailable())
+            .tags("pool", poolName, "route", routeName, "state", "available")
+            .register(meterRegistry);
+        Gauge.builder("upstream.pool.route.connections", pool, p -> p.getStats(route).getPending())
+            .tags("pool", poolName, "route", routeName, "state", "pending")
+            .register(meterRegistry);
+        Gauge.builder("upstream.pool.route.max", pool, p -> p.getMaxPerRoute(route))
+            .tags("pool", poolName, "route", routeName)
+            .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,319 @@
+package com.aimusic.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "music")
+@Validated
+public class MusicConfig {
+
+    /**
+     * 网易云搜索接口地址
+     */
+    @NotBlank(message = "歌曲搜索接口地址不能为空")
+    private String searchUrl = "https://music.163.com/api/search/get/web";
+
+    /**
+     * 播放链接解析接口地址
+     */
+    @NotBlank(message = "播放链接接口地址不能为空")
+    private String songUrlApi = "https://wyy-api-three.vercel.app/song/url";
+
+    @Min(value = 1, message = "歌曲解析线程数不能小于1")
+    @Max(value = 256, message = "歌曲解析线程数不能大于256")
+    private int lookupThreads = 16;
+
+    @Min(value = 0, message = "歌曲解析队列长度不能小于0")
+    private int lookupQueueCapacity = 200;
+
+    /**
+     * 音乐接口连接池总连接数；搜索接口和播放链接接口所在主机各有单独的路由上限，
+     * 其他主机（如重定向目标）使用 maxConnectionsPerRoute。
+     * 虚拟线程模式下等待连接会占住载体线程，应不小于预期的并发解析数
+     */
+    @Min(value = 1, message = "音乐连接池最大连接数不能小于1")
+    private int maxConnections = 32;
+
+    @Min(value = 1, message = "音乐连接池单路由连接数不能小于1")
+    private int maxConnectionsPerRoute = 5;
+
+    @Min(value = 1, message = "搜索接口连接数不能小于1")
+    private int searchMaxConnections = 16;
+
+    @Min(value = 1, message = "播放链接接口连接数不能小于1")
+    private int songUrlMaxConnections = 16;
+
+    /**
+     * 建立连接超时
+     */
+    @NotNull(message = "音乐接口连接超时时间不能为空")
+    private Duration connectTimeout = Duration.ofMillis(500);
+
+    /**
+     * 从连接池获取连接的超时，连接池满时快速失败
+     */
+    @NotNull(message = "音乐接口获取连接超时时间不能为空")
+    private Duration connectionRequestTimeout = Duration.ofMillis(200);
+
+    /**
+     * 等待响应数据的超时
+     */
+    @NotNull(message = "音乐接口响应超时时间不能为空")
+    private Duration responseTimeout = Duration.ofSeconds(1);
+
+    /**
+     * 空闲连接保留时长，超过后由后台线程关闭；服务端未声明Keep-Alive时也以此作为复用期限
+     */
+    @NotNull(message = "音乐接口空闲连接保留时长不能为空")
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 单首歌曲（搜索 + 获取播放链接）的解析期限，从开始执行时计算，在解析线程池中排队的时间不计入
+     */
+    @NotNull(message = "单曲解析超时时间不能为空")
+    private Duration songTimeout = Duration.ofSeconds(3);
+
+    /**
+     * 整个歌单解析的总期限，从提交时计算（含排队时间），超时后返回已完成的歌曲
+     */
+    @NotNull(message = "歌单解析超时时间不能为空")
+    private Duration totalTimeout = Duration.ofSeconds(6);
+
+    /**
+     * 播放链接在缓存中的最长保留时间；链接未携带过期时间时按 caches.specs.musicUrlCache.expire-after-write 缓存
+     */
+    @NotNull(message = "播放链接最长缓存时间不能为空")
+    private Duration urlMaxTtl = Duration.ofHours(6);
+
+    /**
+     * 在链接过期前多久移出缓存，留给播放器开始播放的时间
+     */
+    @NotNull(message = "播放链接过期余量不能为空")
+    private Duration urlExpiryMargin = Duration.ofMinutes(1);
+
+    /**
+     * 距移出缓存不足多久时，命中的请求在后台重新获取链接
+     */
+    @NotNull(message = "播放链接提前刷新时间不能为空")
+    private Duration urlRefreshAhead = Duration.ofMinutes(5);
+
+    /**
+     * 后台刷新播放链接的并发上限，满时跳过刷新（旧链接在移出缓存前仍可用）
+     */
+    @Min(value = 1, message = "播放链接刷新线程数不能小于1")
+    private int urlRefreshThreads = 2;
+
+    /**
+     * 上游出错（超时、非2xx、响应无法解析）时否定缓存的有效期，期间相同的查找不再调用上游；
+     * "未找到"的有效期见 caches.specs.musicMissCache.expire-after-write
+     */
+    @NotNull(message = "上游错误缓存时间不能为空")
+    private Duration upstreamErrorTtl = Duration.ofSeconds(30);
+
+    /**
+     * 搜索时先请求的结果数，按歌名和歌手相似度排序后取最佳匹配
+     */
+    @Min(value = 1, message = "搜索结果页大小不能小于1")
+    @Max(value = 100, message = "搜索结果页大小不能大于100")
+    private int searchPageSize = 5;
+
+    /**
+     * 第一页中没有足够好的匹配时，扩大搜索的结果数
+     */
+    @Min(value = 1, message = "扩大搜索的结果数不能小于1")
+    @Max(value = 100, message = "扩大搜索的结果数不能大于100")
+    private int searchWidePageSize = 30;
+
+    /**
+     * 最佳匹配得分（0~1）不低于此值时不再扩大搜索
+     */
+    @DecimalMin(value = "0.0", message = "匹配阈值不能小于0")
+    @DecimalMax(value = "1.0", message = "匹配阈值不能大于1")
+    private double searchMatchThreshold = 0.8;
+
+    public String getSearchUrl() {
+        return searchUrl;
+    }
+
+    public void setSearchUrl(String searchUrl) {
+        this.searchUrl = searchUrl;
+    }
+
+    public String getSongUrlApi() {
+        return songUrlApi;
+    }
+
+    public void setSongUrlApi(String songUrlApi) {
+        this.songUrlApi = songUrlApi;
+    }
+
+    public int getLookupThreads() {
+        return lookupThreads;
+    }
+
+    public void setLookupThreads(int lookupThreads) {
+        this.lookupThreads = lookupThreads;
+    }
+
+    public int getLookupQueueCapacity() {
+        return lookupQueueCapacity;
+    }
+
+    public void setLookupQueueCapacity(int lookupQueueCapacity) {
+        this.lookupQueueCapacity = lookupQueueCapacity;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public int getSearchMaxConnections() {
+        return searchMaxConnections;
+    }
+
+    public void setSearchMaxConnections(int searchMaxConnections) {
+        this.searchMaxConnections = searchMaxConnections;
+    }
+
+    public int getSongUrlMaxConnections() {
+        return songUrlMaxConnections;
+    }
+
+    public void setSongUrlMaxConnections(int songUrlMaxConnections) {
+        this.songUrlMaxConnections = songUrlMaxConnections;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public Duration getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    public void setResponseTimeout(Duration responseTimeout) {
+        this.responseTimeout = responseTimeout;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getSongTimeout() {
+        return songTimeout;
+    }
+
+    public void setSongTimeout(Duration songTimeout) {
+        this.songTimeout = songTimeout;
+    }
+
+    public Duration getTotalTimeout() {
+        return totalTimeout;
+    }
+
+    public void setTotalTimeout(Duration totalTimeout) {
+        this.totalTimeout = totalTimeout;
+    }
+
+    public Duration getUrlMaxTtl() {
+        return urlMaxTtl;
+    }
+
+    public void setUrlMaxTtl(Duration urlMaxTtl) {
+        this.urlMaxTtl = urlMaxTtl;
+    }
+
+    public Duration getUrlExpiryMargin() {
+        return urlExpiryMargin;
+    }
+
+    public void setUrlExpiryMargin(Duration urlExpiryMargin) {
+        this.urlExpiryMargin = urlExpiryMargin;
+    }
+
+    public Duration getUrlRefreshAhead() {
+        return urlRefreshAhead;
+    }
+
+    public void setUrlRefreshAhead(Duration urlRefreshAhead) {
+        this.urlRefreshAhead = urlRefreshAhead;
+    }
+
+    public int getUrlRefreshThreads() {
+        return urlRefreshThreads;
+    }
+
+    public void setUrlRefreshThreads(int urlRefreshThreads) {
+        this.urlRefreshThreads = urlRefreshThreads;
+    }
+
+    public Duration getUpstreamErrorTtl() {
+        return upstreamErrorTtl;
+    }
+
+    public void setUpstreamErrorTtl(Duration upstreamErrorTtl) {
+        this.upstreamErrorTtl = upstreamErrorTtl;
+    }
+
+    public int getSearchPageSize() {
+        return searchPageSize;
+    }
+
+    public void setSearchPageSize(int searchPageSize) {
+        this.searchPageSize = searchPageSize;
+    }
+
+    public int getSearchWidePageSize() {
+        return searchWidePageSize;
+    }
+
+    public void setSearchWidePageSize(int searchWidePageSize) {
+        this.searchWidePageSize = searchWidePageSize;
+    }
+
+    public double getSearchMatchThreshold() {
+        return searchMatchThreshold;
+    }
+
+    public void setSearchMatchThreshold(double searchMatchThreshold) {
+        this.searchMatchThreshold = searchMatchThreshold;
+    }
+}
@@ -0,0 +1,111 @@
+package com.aimusic.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Validated
+public class RateLimitConfig {
+
+    /**
+     * 是否按IP令牌桶限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否忽略重复请求，与是否限流无关
+     */
+    private boolean dedupEnabled = true;
+
+    /**
+     * 每个IP允许的突发请求数（令牌桶容量）
+     */
+    @Min(value = 1, message = "令牌桶容量不能小于1")
+    private int burst = 10;
+
+    /**
+     * 每个IP每分钟补充的请求数
+     */
+    @Min(value = 1, message = "每分钟请求数不能小于1")
+    private int requestsPerMinute = 30;
+
+    /**
+     * 相同请求在该时间窗口内重复提交将被忽略
+     */
+    @NotNull(message = "重复请求窗口不能为空")
+    private Duration duplicateWindow = Duration.ofSeconds(5);
+
+    /**
+     * 最多跟踪的客户端IP数，超出后淘汰最久未访问的
+     */
+    @Min(value = 1, message = "跟踪客户端数不能小于1")
+    private long maxTrackedClients = 100_000;
+
+    /**
+     * 最多跟踪的请求指纹数
+     */
+    @Min(value = 1, message = "跟踪请求数不能小于1")
+    private long maxTrackedRequests = 100_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isDedupEnabled() {
+        return dedupEnabled;
+    }
+
+    public void setDedupEnabled(boolean dedupEnabled) {
+        this.dedupEnabled = dedupEnabled;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    public void setRequestsPerMinute(int requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    public Duration getDuplicateWindow() {
+        return duplicateWindow;
+    }
+
+    public void setDuplicateWindow(Duration duplicateWindow) {
+        this.duplicateWindow = duplicateWindow;
+    }
+
+    public long getMaxTrackedClients() {
+        return maxTrackedClients;
+    }
+
+    public void setMaxTrackedClients(long maxTrackedClients) {
+        this.maxTrackedClients = maxTrackedClients;
+    }
+
+    public long getMaxTrackedRequests() {
+        return maxTrackedRequests;
+    }
+
+    public void setMaxTrackedRequests(long maxTrackedRequests) {
+        this.maxTrackedRequests = maxTrackedRequests;
+    }
+}
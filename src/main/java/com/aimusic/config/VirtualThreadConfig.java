@@ -0,0 +1,45 @@
+package com.aimusic.config;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * 虚拟线程诊断配置
+ * 虚拟线程模式本身由 spring.threads.virtual.enabled 开启
+ */
+@Component
+@ConfigurationProperties(prefix = "virtual-threads")
+@Validated
+public class VirtualThreadConfig {
+
+    /**
+     * 是否在虚拟线程模式下通过JFR监控载体线程钉住（pinning）
+     */
+    private boolean pinningMonitorEnabled = true;
+
+    /**
+     * 钉住时长超过该值才记录
+     */
+    @NotNull(message = "钉住记录阈值不能为空")
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+
+    public boolean isPinningMonitorEnabled() {
+        return pinningMonitorEnabled;
+    }
+
+    public void setPinningMonitorEnabled(boolean pinningMonitorEnabled) {
+        this.pinningMonitorEnabled = pinningMonitorEnabled;
+    }
+
+    public Duration getPinnedThreshold() {
+        return pinnedThreshold;
+    }
+
+    public void setPinnedThreshold(Duration pinnedThreshold) {
+        this.pinnedThreshold = pinnedThreshold;
+    }
+}
@@ -0,0 +1,26 @@
+package com.aimusic.config;
+
+import com.aimusic.monitor.AskTimingInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web MVC配置类
+ * 注册业务相关的拦截器（国际化拦截器见 InternationalizationConfig）
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private AskTimingInterceptor askTimingInterceptor;
+
+    /**
+     * 添加拦截器
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(askTimingInterceptor).addPathPatterns("/api/ask");
+    }
+}
@@ -1,5 +1,9 @@
 package com.aimusic.controller;
 
+import com.aimusic.cache.DiskCacheStore;
+import com.aimusic.cache.NegativeLookupCache;
+import com.aimusic.cache.TieredCaffeineCache;
+import com.aimusic.config.CacheConfig;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -26,6 +30,9 @@ public class CacheController {
     @Autowired
     private CacheManager cacheManager;
     
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+    
     /**
      * 获取所有缓存的统计信息
      */
@@ -53,6 +60,13 @@ public class CacheController {
                 cacheInfo.put("missRate", String.format("%.2f%%", stats.missRate() * 100));
                 cacheInfo.put("evictionCount", stats.evictionCount());
                 cacheInfo.put("averageLoadTime", String.format("%.2fms", stats.averageLoadPenalty() / 1_000_000.0));
+                cacheInfo.put("policy", policyInfo(nativeCache));
+                if (cache instanceof TieredCaffeineCache tieredCache) {
+                    cacheInfo.put("diskTier", diskTierInfo(tieredCache));
+                }
+                if (CacheConfig.MUSIC_MISS_CACHE.equals(cacheName)) {
+                    cacheInfo.put("negative", negativeInfo());
+                }
                 
                 result.put(cacheName, cacheInfo);
             }
@@ -97,6 +111,14 @@ public class CacheController {
             result.put("totalLoadTime", stats.totalLoadTime());
             result.put("averageLoadTime", stats.averageLoadPenalty());
             result.put("averageLoadTimeMs", String.format("%.2f", stats.averageLoadPenalty() / 1_000_000.0));
+            result.put("policy", policyInfo(nativeCache));
+            if (CacheConfig.MUSIC_MISS_CACHE.equals(cacheName)) {
+                result.put("negative", negativeInfo());
+            }
+            if (cache instanceof TieredCaffeineCache tieredCache) {
+                result.put("cacheType", "Caffeine+Disk");
+                result.put("diskTier", diskTierInfo(tieredCache));
+            }
         } else {
             result.put("cacheName", cacheName);
             result.put("cacheType", cache.getClass().getSimpleName());
@@ -106,6 +128,51 @@ public class CacheController {
         return result;
     }
     
+    /**
+     * 缓存的容量和有效期（caches.specs 中的配置）
+     */
+    private Map<String, Object> policyInfo(com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache) {
+        Map<String, Object> info = new HashMap<>();
+        nativeCache.policy().eviction().ifPresent(eviction -> info.put("maximumSize", eviction.getMaximum()));
+        nativeCache.policy().expireAfterWrite().ifPresent(expiration ->
+            info.put("expireAfterWrite", expiration.getExpiresAfter().toString()));
+        nativeCache.policy().expireAfterAccess().ifPresent(expiration ->
+            info.put("expireAfterAccess", expiration.getExpiresAfter().toString()));
+        nativeCache.policy().expireVariably().ifPresent(expiration -> info.put("expireVariably", true));
+        return info;
+    }
+    
+    /**
+     * 否定缓存按查找类型和失败原因的命中/写入次数，如 {"search": {"not_found": {"hits": 3, "puts": 1}}}
+     */
+    private Map<String, Object> negativeInfo() {
+        Map<String, Object> info = new HashMap<>();
+        for (NegativeLookupCache.Lookup lookup : NegativeLookupCache.Lookup.values()) {
+            Map<String, Object> byOutcome = new HashMap<>();
+            for (NegativeLookupCache.Outcome outcome : NegativeLookupCache.Outcome.values()) {
+                byOutcome.put(outcome.tagValue(), Map.of(
+                    "hits", negativeLookupCache.getHitCount(lookup, outcome),
+                    "puts", negativeLookupCache.getStoreCount(lookup, outcome)));
+            }
+            info.put(lookup.tagValue(), byOutcome);
+        }
+        return info;
+    }
+    
+    /**
+     * 磁盘层统计：L1未命中后的命中/未命中次数、条目数和文件大小
+     */
+    private Map<String, Object> diskTierInfo(TieredCaffeineCache cache) {
+        DiskCacheStore store = cache.getDiskStore();
+        Map<String, Object> info = new HashMap<>();
+        info.put("size", store.size());
+        info.put("hitCount", cache.getDiskHitCount());
+        info.put("missCount", cache.getDiskMissCount());
+        info.put("fileBytes", store.logBytes());
+        info.put("liveBytes", store.liveBytes());
+        return info;
+    }
+    
     /**
      * 清空指定缓存
      */
@@ -206,6 +206,7 @@ public class GlobalExceptionHandler {
             case "AI_NO_RESPONSE" -> HttpStatus.INTERNAL_SERVER_ERROR;
             case "MUSIC_SERVICE_ERROR" -> HttpStatus.BAD_GATEWAY;
             case "VALIDATION_ERROR" -> HttpStatus.BAD_REQUEST;
+            case "RATE_LIMITED" -> HttpStatus.TOO_MANY_REQUESTS;
             default -> HttpStatus.INTERNAL_SERVER_ERROR;
         };
     }
@@ -219,6 +220,7 @@ public class GlobalExceptionHandler {
             case "AI_NO_RESPONSE" -> "error.ai.no.response";
             case "MUSIC_SERVICE_ERROR" -> "error.music.service.error";
             case "VALIDATION_ERROR" -> "error.validation.failed";
+            case "RATE_LIMITED" -> "error.rate.limited";
             case "UNKNOWN_ERROR" -> "error.unknown";
             default -> "error.system.internal";
         };
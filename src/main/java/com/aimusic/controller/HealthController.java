@@ -1,5 +1,6 @@
 package com.aimusic.controller;
 
+import com.aimusic.service.AiAvailabilityTracker;
 import com.aimusic.service.IAiService;
 import com.aimusic.service.IMusicService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -29,6 +30,9 @@ public class HealthController {
     @Autowired
     private IMusicService musicService;
 
+    @Autowired
+    private AiAvailabilityTracker availabilityTracker;
+
     /**
      * 基础健康检查
      */
@@ -51,13 +55,18 @@ public class HealthController {
         Map<String, Object> health = new HashMap<>();
         Map<String, Object> services = new HashMap<>();
 
-        // 检查AI服务
+        // 检查AI服务（读取后台探测结果，不直接请求AI服务商）
         try {
             boolean aiAvailable = aiService.isServiceAvailable();
-            services.put("ai-service", Map.of(
-                "status", aiAvailable ? "UP" : "DOWN",
-                "description", "AI问答服务"
-            ));
+            Map<String, Object> aiStatus = new HashMap<>();
+            aiStatus.put("status", aiAvailable ? "UP" : "DOWN");
+            aiStatus.put("description", "AI问答服务");
+            aiStatus.put("lastCheckTime", availabilityTracker.getLastCheckTime());
+            aiStatus.put("consecutiveFailures", availabilityTracker.getConsecutiveFailures());
+            if (availabilityTracker.getLastError() != null) {
+                aiStatus.put("error", availabilityTracker.getLastError());
+            }
+            services.put("ai-service", aiStatus);
         } catch (Exception e) {
             services.put("ai-service", Map.of(
                 "status", "DOWN",
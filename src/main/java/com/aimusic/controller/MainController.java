@@ -1,23 +1,36 @@
 package com.aimusic.controller;
 
+import com.aimusic.config.AiConfig;
 import com.aimusic.config.AppConfig;
+import com.aimusic.config.MusicConfig;
 import com.aimusic.dto.AnswerResponse;
 import com.aimusic.dto.ApiResponse;
 import com.aimusic.dto.MusicInfo;
 import com.aimusic.dto.QuestionRequest;
 import com.aimusic.dto.SearchSongRequest;
 import com.aimusic.exception.BusinessException;
+import com.aimusic.monitor.AskStage;
+import com.aimusic.monitor.RequestTimeline;
+import com.aimusic.ratelimit.RequestRateLimiter;
 import com.aimusic.service.IAiService;
+import com.aimusic.service.IAsyncAiService;
+import com.aimusic.service.IAsyncMusicService;
 import com.aimusic.service.IMusicService;
+import com.aimusic.service.MusicService;
+import com.aimusic.util.RequestFingerprint;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -29,11 +42,15 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Controller
 @Tag(name = "主控制器", description = "曲中人系统主要接口")
@@ -41,23 +58,39 @@ public class MainController {
     
     private static final Logger logger = LoggerFactory.getLogger(MainController.class);
     
-    // 请求去重相关配置
-    private static final long REQUEST_TIMEOUT = 5000; // 5秒内的重复请求将被忽略
-    private static final long CACHE_CLEANUP_INTERVAL = 60000; // 1分钟清理一次过期缓存
-    private final Map<String, Long> requestCache = new ConcurrentHashMap<>();
-    private final AtomicLong totalRequests = new AtomicLong(0);
-    private final AtomicLong duplicateRequests = new AtomicLong(0);
-    private volatile long lastCleanupTime = System.currentTimeMillis();
-    
     @Autowired
     private IAiService aiService;
     
     @Autowired
     private IMusicService musicService;
     
+    // 仅在 app.async-upstream=true 时存在
+    @Autowired(required = false)
+    private IAsyncAiService asyncAiService;
+    
+    @Autowired(required = false)
+    private IAsyncMusicService asyncMusicService;
+    
     @Autowired
     private AppConfig appConfig;
     
+    @Autowired
+    private RequestRateLimiter rateLimiter;
+    
+    @Autowired
+    private AiConfig aiConfig;
+    
+    @Autowired
+    private MusicConfig musicConfig;
+    
+    @Autowired
+    @Qualifier("askStreamExecutor")
+    private Executor askStreamExecutor;
+    
+    @Autowired
+    @Qualifier("musicLookupExecutor")
+    private Executor musicLookupExecutor;
+    
     /**
      * 首页
      */
@@ -87,7 +120,7 @@ public class MainController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "请求参数错误"),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "服务器内部错误")
     })
-    public ResponseEntity<ApiResponse<AnswerResponse>> askQuestion(
+    public DeferredResult<ResponseEntity<ApiResponse<AnswerResponse>>> askQuestion(
             @Parameter(description = "用户问题请求", required = true)
             @Valid @RequestBody QuestionRequest request, 
             BindingResult bindingResult,
@@ -99,53 +132,58 @@ public class MainController {
         String requestId = java.util.UUID.randomUUID().toString().substring(0, 8);
         String clientIp = getClientIpAddress(httpRequest);
         
-        // 记录总请求数
-        totalRequests.incrementAndGet();
+        long timeoutMs = aiConfig.getTimeout() * 1000L + musicConfig.getTotalTimeout().toMillis();
+        DeferredResult<ResponseEntity<ApiResponse<AnswerResponse>>> result = new DeferredResult<>(timeoutMs);
+        result.onTimeout(() -> result.setErrorResult(new BusinessException("AI_NO_RESPONSE", "AI服务响应超时，请重试")));
         
-        // 生成请求唯一标识进行去重检查
-        String requestKey = generateRequestKey(request, clientIp);
-        long currentTime = System.currentTimeMillis();
+        // 各阶段耗时记录到拦截器绑定的时间线
+        RequestTimeline timeline = RequestTimeline.current();
+        boolean debug = Boolean.TRUE.equals(request.getDebug());
         
-        // 检查重复请求
-        Long lastRequestTime = requestCache.get(requestKey);
-        if (lastRequestTime != null && (currentTime - lastRequestTime) < REQUEST_TIMEOUT) {
-            duplicateRequests.incrementAndGet();
-            logger.warn("[{}] 检测到重复请求，已忽略: {} (来源IP: {}) - 总请求: {}, 重复请求: {}, 重复率: {}%", 
-                requestId, question, clientIp,
-                totalRequests.get(), 
-                duplicateRequests.get(),
-                String.format("%.2f", (duplicateRequests.get() * 100.0 / totalRequests.get())));
-            return ResponseEntity.ok(ApiResponse.error("请求过于频繁，请稍后再试"));
+        // 限流与重复请求检查
+        RequestRateLimiter.Decision decision = RequestTimeline.time(AskStage.DEDUP_CHECK,
+            () -> checkRateLimit(request, clientIp, requestId, question));
+        if (decision == RequestRateLimiter.Decision.DUPLICATE) {
+            result.setResult(ResponseEntity.ok(ApiResponse.error("请求过于频繁，请稍后再试")));
+            return result;
+        }
+        if (decision == RequestRateLimiter.Decision.RATE_LIMITED) {
+            throw new BusinessException("RATE_LIMITED", "请求过于频繁，请稍后再试");
         }
-        
-        // 记录请求时间
-        requestCache.put(requestKey, currentTime);
-        
-        // 定期清理过期的缓存记录
-        cleanExpiredRequests();
         
         logger.info("[{}] 收到问题: {} (来源IP: {})", requestId, question, clientIp);
         
         try {
             // 检查AI服务可用性
-            if (!aiService.isServiceAvailable()) {
+            if (!RequestTimeline.time(AskStage.AVAILABILITY_CHECK, aiService::isServiceAvailable)) {
                 throw new BusinessException("AI_SERVICE_UNAVAILABLE", "AI服务暂时不可用，请稍后重试");
             }
             
             // 获取歌曲数量
-            int musicCount = request.getMusicCount() != null ? request.getMusicCount() : 5;
+            int musicCount = resolveMusicCount(request);
             
             // 获取用户语言偏好（从Accept-Language请求头或默认中文）
             String language = getLanguageFromRequest(httpRequest);
             
             // 获取流派和地区偏好
-            List<String> genres = request.getGenres() != null && !request.getGenres().isEmpty() ? 
-                request.getGenres() : List.of("pop");
-            List<String> regions = request.getRegions() != null && !request.getRegions().isEmpty() ? 
-                request.getRegions() : List.of("china");
+            List<String> genres = resolveGenres(request);
+            List<String> regions = resolveRegions(request);
+            
+            if (asyncAiService != null && asyncMusicService != null) {
+                // 异步模式：AI调用和歌曲解析组成一条异步链，等待上游期间不占用请求线程
+                askAsync(question, musicCount, language, genres, regions, resolveUseCache(request))
+                    .whenComplete((answerResponse, e) -> {
+                        if (e != null) {
+                            result.setErrorResult(toBusinessException(e));
+                        } else {
+                            result.setResult(buildAnswerResponse(answerResponse, timeline, debug));
+                        }
+                    });
+                return result;
+            }
             
             // 调用AI获取答案（传递歌曲数量、语言、流派和地区）
-            String answer = aiService.getAnswer(question, musicCount, language, genres, regions);
+            String answer = aiService.getAnswer(question, musicCount, language, genres, regions, resolveUseCache(request));
             if (answer == null) {
                 throw new BusinessException("AI_NO_RESPONSE", "AI服务未返回有效回答，请重试");
             }
@@ -156,14 +194,7 @@ public class MainController {
             List<MusicInfo> musicList = null;
             try {
                 musicList = musicService.getMusicList(answer, musicCount);
-                if (musicList != null && !musicList.isEmpty()) {
-                    for (int i = 0; i < musicList.size(); i++) {
-                        MusicInfo music = musicList.get(i);
-                        logger.info("找到音乐{}: {} - {}, ID: {}", i + 1, music.getArtist(), music.getSong(), music.getSongId());
-                    }
-                } else {
-                    logger.info("未找到相关音乐");
-                }
+                logMusicList(musicList);
             } catch (Exception e) {
                 logger.warn("获取音乐信息失败", e);
                 // 音乐获取失败不影响主要功能
@@ -171,7 +202,8 @@ public class MainController {
             
             // 构建响应
             AnswerResponse answerResponse = new AnswerResponse(question, answer, musicList);
-            return ResponseEntity.ok(ApiResponse.success(answerResponse));
+            result.setResult(buildAnswerResponse(answerResponse, timeline, debug));
+            return result;
             
         } catch (BusinessException e) {
             // 业务异常由全局异常处理器处理
@@ -182,6 +214,200 @@ public class MainController {
         }
     }
     
+    /**
+     * 异步问答：AI回答完成后解析歌曲，音乐获取失败不影响主要功能
+     */
+    private CompletableFuture<AnswerResponse> askAsync(
+            String question, int musicCount, String language, List<String> genres, List<String> regions, boolean useCache) {
+        return asyncAiService.getAnswerAsync(question, musicCount, language, genres, regions, useCache)
+            .thenCompose(RequestTimeline.propagate(answer -> {
+                if (answer == null) {
+                    throw new BusinessException("AI_NO_RESPONSE", "AI服务未返回有效回答，请重试");
+                }
+                logger.info("AI回答:\n{}", answer);
+                
+                return asyncMusicService.getMusicListAsync(answer, musicCount)
+                    .exceptionally(e -> {
+                        logger.warn("获取音乐信息失败", e);
+                        return null;
+                    })
+                    .thenApply(musicList -> {
+                        logMusicList(musicList);
+                        return new AnswerResponse(question, answer, musicList);
+                    });
+            }));
+    }
+    
+    /**
+     * 构建问答响应，按配置附带 Server-Timing 头和各阶段耗时
+     */
+    private ResponseEntity<ApiResponse<AnswerResponse>> buildAnswerResponse(
+            AnswerResponse answerResponse, RequestTimeline timeline, boolean debug) {
+        if (timeline == null) {
+            return ResponseEntity.ok(ApiResponse.success(answerResponse));
+        }
+        timeline.markHandled();
+        if (debug) {
+            answerResponse.setTimings(timeline.toStageTimings());
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (appConfig.isServerTimingEnabled()) {
+            builder.header("Server-Timing", timeline.toServerTiming());
+        }
+        return builder.body(ApiResponse.success(answerResponse));
+    }
+    
+    /**
+     * 异步链上的异常统一转换为业务异常，交由全局异常处理器处理
+     */
+    private BusinessException toBusinessException(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof BusinessException businessException) {
+            return businessException;
+        }
+        logger.error("处理问题时发生未知错误", cause);
+        return new BusinessException("UNKNOWN_ERROR", "服务器内部错误，请稍后重试", cause);
+    }
+    
+    private void logMusicList(List<MusicInfo> musicList) {
+        if (musicList != null && !musicList.isEmpty()) {
+            for (int i = 0; i < musicList.size(); i++) {
+                MusicInfo music = musicList.get(i);
+                logger.info("找到音乐{}: {} - {}, ID: {}", i + 1, music.getArtist(), music.getSong(), music.getSongId());
+            }
+        } else {
+            logger.info("未找到相关音乐");
+        }
+    }
+    
+    /**
+     * 流式处理问题提交（Server-Sent Events）
+     * 每生成一行歌词即推送lyric事件，并立即开始解析对应歌曲，解析完成后推送music事件；
+     * 不符合歌词格式的行（开场白、说明）不推送，index 只按歌词行计数
+     */
+    @PostMapping(value = "/api/ask/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    @Operation(summary = "流式提交问题", description = "以SSE方式逐行返回歌词(lyric)和音乐信息(music)，结束时返回done事件，失败时返回error事件")
+    public SseEmitter askQuestionStream(
+            @Parameter(description = "用户问题请求", required = true)
+            @Valid @RequestBody QuestionRequest request,
+            HttpServletRequest httpRequest) {
+        
+        String question = request.getQuestion().trim();
+        String requestId = java.util.UUID.randomUUID().toString().substring(0, 8);
+        String clientIp = getClientIpAddress(httpRequest);
+        
+        long timeoutMs = aiConfig.getTimeout() * 1000L + musicConfig.getTotalTimeout().toMillis();
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        
+        if (checkRateLimit(request, clientIp, requestId, question) != RequestRateLimiter.Decision.ALLOWED) {
+            sendErrorAndComplete(emitter, "请求过于频繁，请稍后再试");
+            return emitter;
+        }
+        
+        logger.info("[{}] 收到流式问题: {} (来源IP: {})", requestId, question, clientIp);
+        
+        int musicCount = resolveMusicCount(request);
+        String language = getLanguageFromRequest(httpRequest);
+        List<String> genres = resolveGenres(request);
+        List<String> regions = resolveRegions(request);
+        boolean useCache = resolveUseCache(request);
+        
+        try {
+            askStreamExecutor.execute(() ->
+                streamAnswer(emitter, requestId, question, musicCount, language, genres, regions, useCache));
+        } catch (RejectedExecutionException e) {
+            logger.warn("[{}] 流式问答线程池已满，拒绝请求", requestId);
+            sendErrorAndComplete(emitter, "服务繁忙，请稍后再试");
+        }
+        
+        return emitter;
+    }
+    
+    /**
+     * 执行流式问答：边读取AI输出边解析歌曲
+     */
+    private void streamAnswer(SseEmitter emitter, String requestId, String question, int musicCount,
+                              String language, List<String> genres, List<String> regions, boolean useCache) {
+        try {
+            if (!aiService.isServiceAvailable()) {
+                sendErrorAndComplete(emitter, "AI服务暂时不可用，请稍后重试");
+                return;
+            }
+            
+            List<CompletableFuture<Void>> lookups = new ArrayList<>();
+            AtomicInteger lineIndex = new AtomicInteger();
+            
+            String answer = aiService.streamAnswer(question, musicCount, language, genres, regions, useCache, line -> {
+                // 开场白、说明等不是 "歌词--歌手《歌名》" 格式的行不推送，也不占用歌曲数量
+                if (!MusicService.isLyricLine(line)) {
+                    logger.debug("[{}] 跳过非歌词行: {}", requestId, line);
+                    return;
+                }
+                int index = lineIndex.getAndIncrement();
+                sendEvent(emitter, "lyric", Map.of("index", index, "line", line));
+                if (index >= musicCount) {
+                    return;
+                }
+                try {
+                    lookups.add(CompletableFuture
+                        .supplyAsync(() -> musicService.getMusicList(line, 1), musicLookupExecutor)
+                        .thenAccept(musicList -> {
+                            if (musicList != null && !musicList.isEmpty()) {
+                                sendEvent(emitter, "music", Map.of("index", index, "music", musicList.get(0)));
+                            }
+                        })
+                        .exceptionally(e -> {
+                            logger.warn("[{}] 获取音乐信息失败: {}", requestId, line, e);
+                            return null;
+                        }));
+                } catch (RejectedExecutionException e) {
+                    logger.warn("[{}] 解析线程池已满，跳过歌曲: {}", requestId, line);
+                }
+            });
+            
+            if (answer == null) {
+                sendErrorAndComplete(emitter, "AI服务未返回有效回答，请重试");
+                return;
+            }
+            logger.info("[{}] AI流式回答完成，共{}行歌词", requestId, lineIndex.get());
+            
+            // 等待仍在进行的歌曲解析，超时后直接结束
+            try {
+                CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[0]))
+                    .get(musicConfig.getTotalTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("[{}] 流式歌曲解析超时，提前结束", requestId);
+            }
+            
+            sendEvent(emitter, "done", Map.of("question", question, "answer", answer));
+            emitter.complete();
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } catch (Exception e) {
+            logger.error("[{}] 流式处理问题时发生错误", requestId, e);
+            sendErrorAndComplete(emitter, "服务器内部错误，请稍后重试");
+        }
+    }
+    
+    /**
+     * 推送SSE事件，客户端断开时忽略
+     */
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("SSE事件发送失败（客户端可能已断开）: {}", e.getMessage());
+        }
+    }
+    
+    private void sendErrorAndComplete(SseEmitter emitter, String message) {
+        sendEvent(emitter, "error", ApiResponse.error(message));
+        emitter.complete();
+    }
+    
     /**
      * 搜索单首歌曲
      */
@@ -266,6 +492,55 @@ public class MainController {
         return "zh-CN";
     }
     
+    /**
+     * 获取请求的歌曲数量，未指定时默认5首
+     */
+    private int resolveMusicCount(QuestionRequest request) {
+        return request.getMusicCount() != null ? request.getMusicCount() : 5;
+    }
+    
+    /**
+     * 获取流派偏好，未指定时默认流行
+     */
+    private List<String> resolveGenres(QuestionRequest request) {
+        return request.getGenres() != null && !request.getGenres().isEmpty() ? 
+            request.getGenres() : List.of("pop");
+    }
+    
+    /**
+     * 获取地区偏好，未指定时默认中国
+     */
+    private List<String> resolveRegions(QuestionRequest request) {
+        return request.getRegions() != null && !request.getRegions().isEmpty() ? 
+            request.getRegions() : List.of("china");
+    }
+    
+    /**
+     * 是否允许使用缓存的AI回答，未指定时默认允许
+     */
+    private boolean resolveUseCache(QuestionRequest request) {
+        return request.getUseCache() == null || request.getUseCache();
+    }
+    
+    /**
+     * 限流与重复请求检查
+     * @return 判定结果
+     */
+    private RequestRateLimiter.Decision checkRateLimit(QuestionRequest request, String clientIp, String requestId, String question) {
+        // 生成请求唯一标识进行去重检查
+        long requestKey = generateRequestKey(request, clientIp);
+        RequestRateLimiter.Decision decision = rateLimiter.tryAcquire(clientIp, requestKey);
+        
+        if (decision == RequestRateLimiter.Decision.DUPLICATE) {
+            logger.warn("[{}] 检测到重复请求，已忽略: {} (来源IP: {}) - 累计重复请求: {}", 
+                requestId, question, clientIp, (long) rateLimiter.getDuplicateCount());
+        } else if (decision == RequestRateLimiter.Decision.RATE_LIMITED) {
+            logger.warn("[{}] 请求频率超限，已拒绝: {} (来源IP: {}) - 累计限流: {}", 
+                requestId, question, clientIp, (long) rateLimiter.getRateLimitedCount());
+        }
+        return decision;
+    }
+    
     /**
      * 获取客户端真实IP地址
      * @param request HTTP请求
@@ -290,52 +565,11 @@ public class MainController {
      * 生成请求唯一标识
      * @param request 请求对象
      * @param clientIp 客户端IP
-     * @return 请求唯一标识
-     */
-    private String generateRequestKey(QuestionRequest request, String clientIp) {
-        try {
-            String data = clientIp + ":" + request.getQuestion().trim() + ":" + 
-                         (request.getMusicCount() != null ? request.getMusicCount() : 5) + ":" +
-                         (request.getGenres() != null ? String.join(",", request.getGenres()) : "pop") + ":" +
-                         (request.getRegions() != null ? String.join(",", request.getRegions()) : "china");
-            
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] hash = md.digest(data.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            // 如果MD5不可用，使用简单的字符串拼接
-            return clientIp + "_" + request.getQuestion().hashCode();
-        }
-    }
-    
-    /**
-     * 清理过期的请求缓存
+     * @return 64位请求指纹
      */
-    private void cleanExpiredRequests() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastCleanupTime > CACHE_CLEANUP_INTERVAL) {
-            synchronized (this) {
-                if (currentTime - lastCleanupTime > CACHE_CLEANUP_INTERVAL) {
-                    int sizeBefore = requestCache.size();
-                    requestCache.entrySet().removeIf(entry -> 
-                        currentTime - entry.getValue() > REQUEST_TIMEOUT);
-                    int sizeAfter = requestCache.size();
-                    lastCleanupTime = currentTime;
-                    
-                    if (sizeBefore > sizeAfter) {
-                        logger.debug("清理过期请求缓存: {} -> {} (清理了{}个过期记录)", 
-                            sizeBefore, sizeAfter, sizeBefore - sizeAfter);
-                    }
-                }
-            }
-        }
+    private long generateRequestKey(QuestionRequest request, String clientIp) {
+        return RequestFingerprint.ofQuestion(clientIp, request.getQuestion(),
+            request.getMusicCount() != null ? request.getMusicCount() : 5,
+            request.getGenres(), request.getRegions());
     }
 }
\ No newline at end of file
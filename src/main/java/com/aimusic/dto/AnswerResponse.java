@@ -1,6 +1,9 @@
 package com.aimusic.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
+import java.util.Map;
 
 public class AnswerResponse {
     
@@ -8,6 +11,8 @@ public class AnswerResponse {
     private String answer;
     private MusicInfo music; // 保持向后兼容
     private List<MusicInfo> musicList; // 新增多首歌曲支持
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, StageTiming> timings; // 各处理阶段耗时，仅在请求 debug=true 时返回
     
     public AnswerResponse() {}
     
@@ -58,4 +63,12 @@ public class AnswerResponse {
         // 为了向后兼容，设置第一首歌曲为music字段
         this.music = (musicList != null && !musicList.isEmpty()) ? musicList.get(0) : null;
     }
+    
+    public Map<String, StageTiming> getTimings() {
+        return timings;
+    }
+    
+    public void setTimings(Map<String, StageTiming> timings) {
+        this.timings = timings;
+    }
 }
\ No newline at end of file
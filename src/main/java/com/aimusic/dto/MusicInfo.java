@@ -6,6 +6,9 @@ public class MusicInfo {
     private String song;
     private String songId;
     private String playUrl;
+    private String lyric;
+    // 搜索结果与歌手、歌名的匹配置信度（0到1）
+    private Double confidence;
     
     public MusicInfo() {}
     
@@ -16,6 +19,16 @@ public class MusicInfo {
         this.playUrl = playUrl;
     }
     
+    public MusicInfo(String artist, String song, String songId, String playUrl, String lyric) {
+        this(artist, song, songId, playUrl);
+        this.lyric = lyric;
+    }
+    
+    public MusicInfo(String artist, String song, String songId, String playUrl, String lyric, Double confidence) {
+        this(artist, song, songId, playUrl, lyric);
+        this.confidence = confidence;
+    }
+    
     public String getArtist() {
         return artist;
     }
@@ -47,4 +60,20 @@ public class MusicInfo {
     public void setPlayUrl(String playUrl) {
         this.playUrl = playUrl;
     }
+    
+    public String getLyric() {
+        return lyric;
+    }
+    
+    public void setLyric(String lyric) {
+        this.lyric = lyric;
+    }
+    
+    public Double getConfidence() {
+        return confidence;
+    }
+    
+    public void setConfidence(Double confidence) {
+        this.confidence = confidence;
+    }
 }
\ No newline at end of file
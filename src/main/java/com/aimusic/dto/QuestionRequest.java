@@ -22,6 +22,10 @@ public class QuestionRequest {
     private List<String> genres = new ArrayList<>(); // 选中的音乐流派
     private List<String> regions = new ArrayList<>(); // 选中的国家/地区
     
+    private Boolean useCache = true; // 是否允许使用缓存的AI回答，false时强制重新生成
+    
+    private Boolean debug = false; // 是否在响应中返回各处理阶段耗时
+    
     public String getQuestion() {
         return question;
     }
@@ -53,4 +57,20 @@ public class QuestionRequest {
     public void setRegions(List<String> regions) {
         this.regions = regions;
     }
+    
+    public Boolean getUseCache() {
+        return useCache;
+    }
+    
+    public void setUseCache(Boolean useCache) {
+        this.useCache = useCache;
+    }
+    
+    public Boolean getDebug() {
+        return debug;
+    }
+    
+    public void setDebug(Boolean debug) {
+        this.debug = debug;
+    }
 }
\ No newline at end of file
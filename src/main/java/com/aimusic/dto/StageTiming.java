@@ -0,0 +1,10 @@
+package com.aimusic.dto;
+
+/**
+ * 单个处理阶段的耗时（调试用）
+ * @param count 执行次数（每首歌曲的搜索和获取播放链接各计一次）
+ * @param totalMs 累计耗时
+ * @param maxMs 单次最长耗时，并行阶段以此近似其对总耗时的贡献
+ */
+public record StageTiming(long count, double totalMs, double maxMs) {
+}
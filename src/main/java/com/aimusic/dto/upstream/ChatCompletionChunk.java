@@ -0,0 +1,20 @@
+package com.aimusic.dto.upstream;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * 流式 chat completions 响应中的一个SSE事件，只映射用到的 choices[].delta.content
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ChatCompletionChunk(List<Choice> choices) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Choice(Delta delta) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Delta(String content) {
+    }
+}
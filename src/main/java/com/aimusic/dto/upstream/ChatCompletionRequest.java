@@ -0,0 +1,18 @@
+package com.aimusic.dto.upstream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * chat completions 请求体
+ * @param stream 仅流式请求时为true，非流式请求不输出该字段
+ */
+public record ChatCompletionRequest(
+    String model,
+    List<ChatMessage> messages,
+    @JsonProperty("max_tokens") int maxTokens,
+    double temperature,
+    @JsonInclude(JsonInclude.Include.NON_NULL) Boolean stream) {
+}
@@ -0,0 +1,15 @@
+package com.aimusic.dto.upstream;
+
+/**
+ * chat completions 请求中的一条消息
+ */
+public record ChatMessage(String role, String content) {
+
+    public static ChatMessage system(String content) {
+        return new ChatMessage("system", content);
+    }
+
+    public static ChatMessage user(String content) {
+        return new ChatMessage("user", content);
+    }
+}
@@ -0,0 +1,19 @@
+package com.aimusic.dto.upstream;
+
+import java.util.List;
+
+/**
+ * 网易云搜索结果中的一首歌曲，只保留匹配排序用到的字段
+ * @param artists 歌手名，按接口返回顺序
+ * @param aliases 歌曲别名和译名（alias、transNames）
+ * @param artistAliases 歌手的别名和译名
+ * @param durationMs 时长（毫秒），接口未返回时为0
+ * @param popularity 热度（0-100），接口未返回时为0
+ */
+public record NeteaseSong(String id, String name, List<String> artists, List<String> aliases,
+                          List<String> artistAliases, long durationMs, double popularity) {
+
+    public NeteaseSong(String id, String name, List<String> artists) {
+        this(id, name, artists, List.of(), List.of(), 0, 0);
+    }
+}
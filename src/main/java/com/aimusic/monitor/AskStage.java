@@ -0,0 +1,29 @@
+package com.aimusic.monitor;
+
+/**
+ * /api/ask 处理流程的各个阶段
+ */
+public enum AskStage {
+
+    DEDUP_CHECK("dedup"),
+    AVAILABILITY_CHECK("availability"),
+    PROMPT_BUILD("prompt"),
+    LLM_CALL("llm"),
+    ANSWER_PARSE("parse"),
+    SONG_SEARCH("song-search"),
+    SONG_URL("song-url"),
+    SERIALIZATION("serialize");
+
+    private final String metricName;
+
+    AskStage(String metricName) {
+        this.metricName = metricName;
+    }
+
+    /**
+     * 指标标签和 Server-Timing 中使用的名称
+     */
+    public String metricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,83 @@
+package com.aimusic.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /api/ask 分阶段计时拦截器
+ * 请求开始时创建 {@link RequestTimeline} 并绑定到处理线程，结束时记录序列化耗时和端到端耗时：
+ * <ul>
+ *   <li>ask.stage.duration：各阶段耗时，标签 stage，带分位数</li>
+ *   <li>question.processing.time：从进入拦截器到响应写出的端到端耗时</li>
+ * </ul>
+ * /api/ask 以异步请求完成，异步分派时复用同一条时间线
+ */
+@Component
+public class AskTimingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String TIMELINE_ATTRIBUTE = RequestTimeline.class.getName();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer[] stageTimers;
+
+    private Timer processingTimer;
+
+    @PostConstruct
+    public void initTimers() {
+        AskStage[] stages = AskStage.values();
+        stageTimers = new Timer[stages.length];
+        for (AskStage stage : stages) {
+            stageTimers[stage.ordinal()] = Timer.builder("ask.stage.duration")
+                .description("/api/ask 各处理阶段耗时")
+                .tag("stage", stage.metricName())
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        }
+        processingTimer = Timer.builder("question.processing.time")
+            .description("/api/ask 端到端处理耗时")
+            .publishPercentiles(0.5, 0.9, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestTimeline timeline = (RequestTimeline) request.getAttribute(TIMELINE_ATTRIBUTE);
+        if (timeline == null) {
+            timeline = new RequestTimeline(stageTimers);
+            request.setAttribute(TIMELINE_ATTRIBUTE, timeline);
+        }
+        timeline.bind();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 处理线程交还容器，后续在异步分派中重新绑定
+        RequestTimeline.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestTimeline.unbind();
+        RequestTimeline timeline = (RequestTimeline) request.getAttribute(TIMELINE_ATTRIBUTE);
+        if (timeline == null) {
+            return;
+        }
+        long end = System.nanoTime();
+        if (timeline.handledNanos() != 0) {
+            timeline.record(AskStage.SERIALIZATION, end - timeline.handledNanos());
+        }
+        processingTimer.record(end - timeline.startNanos(), TimeUnit.NANOSECONDS);
+    }
+}
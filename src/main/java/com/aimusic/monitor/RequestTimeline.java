@@ -0,0 +1,218 @@
+package com.aimusic.monitor;
+
+import com.aimusic.dto.StageTiming;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 单次 /api/ask 请求的分阶段耗时
+ * 由 {@link AskTimingInterceptor} 创建并绑定到请求线程，服务层通过静态方法记录当前请求的阶段耗时；
+ * 当前线程没有绑定时间线（流式接口、单元测试等）时只执行原逻辑。
+ * 切换到其他线程执行时需用 {@link #propagate} 传递
+ */
+public final class RequestTimeline {
+
+    private static final ThreadLocal<RequestTimeline> CURRENT = new ThreadLocal<>();
+
+    private static final AskStage[] STAGES = AskStage.values();
+
+    private final Timer[] stageTimers;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray counts = new AtomicLongArray(STAGES.length);
+    private final AtomicLongArray totalNanos = new AtomicLongArray(STAGES.length);
+    private final AtomicLongArray maxNanos = new AtomicLongArray(STAGES.length);
+    private volatile long handledNanos;
+
+    /**
+     * @param stageTimers 按 {@link AskStage} 顺序排列的阶段计时器，为null时只在本地累计
+     */
+    RequestTimeline(Timer[] stageTimers) {
+        this.stageTimers = stageTimers;
+    }
+
+    /**
+     * 可抛出受检异常的阶段逻辑
+     */
+    @FunctionalInterface
+    public interface StageAction<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    /**
+     * 当前线程绑定的时间线，没有时返回null
+     */
+    public static RequestTimeline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 执行并记录一个同步阶段，异常时同样计时
+     */
+    public static <T, E extends Exception> T time(AskStage stage, StageAction<T, E> action) throws E {
+        RequestTimeline timeline = CURRENT.get();
+        if (timeline == null) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            timeline.record(stage, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 记录一个异步阶段，计时从调用 call 开始到Future完成
+     */
+    public static <T> CompletableFuture<T> timeAsync(AskStage stage, Supplier<CompletableFuture<T>> call) {
+        RequestTimeline timeline = CURRENT.get();
+        if (timeline == null) {
+            return call.get();
+        }
+        long start = System.nanoTime();
+        return call.get().whenComplete((value, e) -> timeline.record(stage, System.nanoTime() - start));
+    }
+
+    /**
+     * 让 action 在其他线程执行时仍记录到当前时间线
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> action) {
+        RequestTimeline timeline = CURRENT.get();
+        if (timeline == null) {
+            return action;
+        }
+        return () -> timeline.callWith(action);
+    }
+
+    /**
+     * 让异步回调在其他线程执行时仍记录到当前时间线
+     */
+    public static <T, R> Function<T, R> propagate(Function<T, R> action) {
+        RequestTimeline timeline = CURRENT.get();
+        if (timeline == null) {
+            return action;
+        }
+        return value -> timeline.callWith(() -> action.apply(value));
+    }
+
+    /**
+     * 在不记录到当前时间线的情况下执行，用于请求顺带触发的后台任务（如提前刷新缓存）
+     */
+    public static <T> T detached(Supplier<T> action) {
+        RequestTimeline timeline = CURRENT.get();
+        if (timeline == null) {
+            return action.get();
+        }
+        CURRENT.remove();
+        try {
+            return action.get();
+        } finally {
+            CURRENT.set(timeline);
+        }
+    }
+
+    private <T> T callWith(Supplier<T> action) {
+        RequestTimeline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    void bind() {
+        CURRENT.set(this);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 记录一次阶段耗时
+     */
+    public void record(AskStage stage, long elapsedNanos) {
+        int index = stage.ordinal();
+        counts.incrementAndGet(index);
+        totalNanos.addAndGet(index, elapsedNanos);
+        maxNanos.accumulateAndGet(index, elapsedNanos, Math::max);
+        if (stageTimers != null) {
+            stageTimers[index].record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 标记业务处理完成，之后到请求结束的时间计为序列化阶段
+     */
+    public void markHandled() {
+        handledNanos = System.nanoTime();
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    long handledNanos() {
+        return handledNanos;
+    }
+
+    /**
+     * 生成 Server-Timing 响应头
+     * 执行多次的阶段（每首歌曲的搜索和获取播放链接）并行进行，dur 取单次最长耗时，desc 中给出次数和累计耗时；
+     * total 为到业务处理完成为止的耗时，不含序列化（响应头须先于响应体写出）
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        for (AskStage stage : STAGES) {
+            long count = counts.get(stage.ordinal());
+            if (count == 0) {
+                continue;
+            }
+            header.append(stage.metricName());
+            if (count > 1) {
+                header.append(";desc=\"").append(count).append(" calls, total ")
+                    .append(millis(totalNanos.get(stage.ordinal()))).append("ms\"");
+            }
+            header.append(";dur=").append(millis(maxNanos.get(stage.ordinal()))).append(", ");
+        }
+        long end = handledNanos != 0 ? handledNanos : System.nanoTime();
+        return header.append("total;dur=").append(millis(end - startNanos)).toString();
+    }
+
+    /**
+     * 各阶段耗时明细，按处理顺序排列，只包含已执行的阶段
+     */
+    public Map<String, StageTiming> toStageTimings() {
+        Map<String, StageTiming> timings = new LinkedHashMap<>();
+        for (AskStage stage : STAGES) {
+            int index = stage.ordinal();
+            long count = counts.get(index);
+            if (count > 0) {
+                timings.put(stage.metricName(), new StageTiming(count,
+                    toMillis(totalNanos.get(index)), toMillis(maxNanos.get(index))));
+            }
+        }
+        return timings;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 100_000.0) / 10.0;
+    }
+}
@@ -0,0 +1,112 @@
+package com.aimusic.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 上游调用指标
+ * 按上游（AI chat / AI models / 网易云搜索 / 播放链接）记录耗时分布、状态码和异常：
+ * <ul>
+ *   <li>upstream.requests：耗时，标签 upstream、outcome，带分位数</li>
+ *   <li>upstream.responses：收到响应的次数，标签 upstream、status</li>
+ *   <li>upstream.errors：未收到响应（超时、连接失败等）的次数，标签 upstream、exception</li>
+ * </ul>
+ * 同步路径通过 {@link #interceptor} 挂到RestTemplate上，异步路径用 {@link #observe} 包装 sendAsync
+ */
+@Component
+public class UpstreamMetrics {
+
+    public static final String AI_CHAT = "ai-chat";
+    public static final String AI_MODELS = "ai-models";
+    public static final String NETEASE_SEARCH = "netease-search";
+    public static final String SONG_URL = "song-url";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 创建RestTemplate拦截器；流式响应只计到收到响应头为止
+     * @param classifier 根据请求地址判断所属上游
+     */
+    public ClientHttpRequestInterceptor interceptor(Function<URI, String> classifier) {
+        return (request, body, execution) -> {
+            String upstream = classifier.apply(request.getURI());
+            long start = System.nanoTime();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                recordResponse(upstream, response.getStatusCode().value(), System.nanoTime() - start);
+                return response;
+            } catch (IOException | RuntimeException e) {
+                recordError(upstream, e, System.nanoTime() - start);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * 记录一次异步调用，计时从调用 call 开始
+     */
+    public <T> CompletableFuture<HttpResponse<T>> observe(String upstream, Supplier<CompletableFuture<HttpResponse<T>>> call) {
+        long start = System.nanoTime();
+        return call.get().whenComplete((response, e) -> {
+            long elapsed = System.nanoTime() - start;
+            if (e != null) {
+                recordError(upstream, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e, elapsed);
+            } else {
+                recordResponse(upstream, response.statusCode(), elapsed);
+            }
+        });
+    }
+
+    void recordResponse(String upstream, int status, long elapsedNanos) {
+        timer(upstream, outcome(status)).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("upstream.responses", "upstream", upstream, "status", String.valueOf(status)).increment();
+    }
+
+    void recordError(String upstream, Throwable error, long elapsedNanos) {
+        timer(upstream, "ERROR").record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("upstream.errors", "upstream", upstream, "exception", exceptionName(error)).increment();
+    }
+
+    private Timer timer(String upstream, String outcome) {
+        return Timer.builder("upstream.requests")
+            .description("上游HTTP调用耗时")
+            .tags("upstream", upstream, "outcome", outcome)
+            .publishPercentiles(0.5, 0.9, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private static String outcome(int status) {
+        return switch (status / 100) {
+            case 2 -> "SUCCESS";
+            case 4 -> "CLIENT_ERROR";
+            case 5 -> "SERVER_ERROR";
+            default -> "UNKNOWN";
+        };
+    }
+
+    /**
+     * 取最内层原因的类名，如 SocketTimeoutException、ConnectException
+     */
+    private static String exceptionName(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,107 @@
+package com.aimusic.monitor;
+
+import com.aimusic.config.VirtualThreadConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 虚拟线程钉住监控
+ * 通过JFR事件流订阅 jdk.VirtualThreadPinned：每次钉住计入指标，
+ * 每个不同的调用位置只打印一次堆栈，避免日志刷屏
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 12;
+
+    // 已打印过的调用位置上限，防止异常情况下无限增长
+    private static final int MAX_REPORTED_SITES = 256;
+
+    @Autowired
+    private VirtualThreadConfig virtualThreadConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recordingStream;
+    private Counter pinnedCounter;
+    private Timer pinnedTimer;
+
+    @PostConstruct
+    public void start() {
+        if (!virtualThreadConfig.isPinningMonitorEnabled()) {
+            return;
+        }
+        pinnedCounter = meterRegistry.counter("jvm.threads.virtual.pinned");
+        pinnedTimer = Timer.builder("jvm.threads.virtual.pinned.duration")
+            .description("虚拟线程钉住载体线程的时长")
+            .register(meterRegistry);
+
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT)
+            .withThreshold(virtualThreadConfig.getPinnedThreshold())
+            .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        logger.info("虚拟线程钉住监控已启动，阈值 {}ms", virtualThreadConfig.getPinnedThreshold().toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        pinnedTimer.record(event.getDuration());
+
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        String site = frames.isEmpty() ? "unknown" : describe(frames.get(0));
+        if (reportedSites.size() >= MAX_REPORTED_SITES || !reportedSites.add(site)) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(frames.size(), LOGGED_FRAMES); i++) {
+            sb.append("\n\tat ").append(describe(frames.get(i)));
+        }
+        logger.warn("虚拟线程钉住载体线程 {}ms（同一位置仅提示一次）:{}", event.getDuration().toMillis(), sb);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        if (frame.getMethod() == null) {
+            return "unknown";
+        }
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,88 @@
+package com.aimusic.prompt;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预编译的文本模板，占位符格式为 {{name}}
+ * 解析一次后渲染时只做片段拼接，不再扫描模板文本
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    // literals.length == names.length + 1，渲染结果为 literals[0] + value(names[0]) + literals[1] + ...
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private PromptTemplate(String[] literals, String[] names) {
+        this.literals = literals;
+        this.names = names;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * 解析模板文本
+     * @throws IllegalArgumentException 占位符未闭合或为空
+     */
+    public static PromptTemplate parse(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int from = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, from);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("模板占位符未闭合: " + source.substring(open, Math.min(source.length(), open + 20)));
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("模板占位符名称为空");
+            }
+            literals.add(source.substring(from, open));
+            names.add(name);
+            from = close + CLOSE.length();
+        }
+        literals.add(source.substring(from));
+        return new PromptTemplate(literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    /**
+     * 模板中出现的占位符名称
+     */
+    public Set<String> placeholders() {
+        return new LinkedHashSet<>(List.of(names));
+    }
+
+    /**
+     * 渲染模板，缺失的占位符替换为空串
+     */
+    public String render(Map<String, String> values) {
+        int length = literalLength;
+        for (String name : names) {
+            String value = values.get(name);
+            length += value != null ? value.length() : 0;
+        }
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < names.length; i++) {
+            sb.append(literals[i]);
+            String value = values.get(names[i]);
+            if (value != null) {
+                sb.append(value);
+            }
+        }
+        return sb.append(literals[names.length]).toString();
+    }
+}
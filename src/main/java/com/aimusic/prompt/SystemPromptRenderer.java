@@ -0,0 +1,205 @@
+package com.aimusic.prompt;
+
+import com.aimusic.config.AiConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 系统提示词渲染
+ * 启动时从 ai.prompt-location 下按语言加载模板（system.txt）和偏好文本（preferences.properties），
+ * 解析为不可变结构；渲染结果按 (语言, 歌曲数, 流派, 地区) 缓存在有界缓存中
+ */
+@Component
+public class SystemPromptRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SystemPromptRenderer.class);
+
+    static final String ZH_CN = "zh-CN";
+    static final String EN_US = "en-US";
+
+    private static final Set<String> SYSTEM_PLACEHOLDERS = Set.of("musicCount", "genreText", "regionText");
+    private static final Set<String> LIST_PLACEHOLDERS = Set.of("list");
+
+    @Autowired
+    private AiConfig aiConfig;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    private Map<String, LanguagePack> packs;
+
+    private Cache<PromptKey, String> rendered;
+
+    @PostConstruct
+    public void init() {
+        packs = Map.of(
+            ZH_CN, loadPack(ZH_CN),
+            EN_US, loadPack(EN_US));
+        rendered = Caffeine.newBuilder()
+            .maximumSize(aiConfig.getPromptCacheMaxSize())
+            .build();
+        logger.info("系统提示词模板已加载: {}", aiConfig.getPromptLocation());
+    }
+
+    /**
+     * 获取系统提示词，相同参数直接返回缓存的结果
+     * @param language 请求语言，en/en-US 使用英文模板，其他均使用中文模板
+     */
+    public String render(int musicCount, String language, List<String> genres, List<String> regions) {
+        PromptKey key = new PromptKey(resolveLanguage(language), musicCount, copyOf(genres), copyOf(regions));
+        return rendered.get(key, this::doRender);
+    }
+
+    private String doRender(PromptKey key) {
+        String prompt = renderUncached(key.language(), key.musicCount(), key.genres(), key.regions());
+        logger.debug("渲染系统提示词 [{}]:\n{}", key, prompt);
+        return prompt;
+    }
+
+    /**
+     * 不经缓存直接渲染
+     */
+    private String renderUncached(String language, int musicCount, List<String> genres, List<String> regions) {
+        LanguagePack pack = packs.get(language);
+        Map<String, String> values = new HashMap<>(4);
+        values.put("musicCount", Integer.toString(musicCount));
+        values.put("genreText", pack.genres().describe(genres));
+        values.put("regionText", pack.regions().describe(regions));
+        return pack.system().render(values);
+    }
+
+    private static String resolveLanguage(String language) {
+        return EN_US.equals(language) || "en".equals(language) ? EN_US : ZH_CN;
+    }
+
+    /**
+     * 复制为不可变列表作为缓存键，丢弃null元素
+     */
+    private static List<String> copyOf(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return List.of();
+        }
+        for (String value : values) {
+            if (value == null) {
+                List<String> copy = new ArrayList<>(values);
+                copy.removeIf(Objects::isNull);
+                return List.copyOf(copy);
+            }
+        }
+        return List.copyOf(values);
+    }
+
+    private LanguagePack loadPack(String language) {
+        String base = aiConfig.getPromptLocation();
+        if (!base.endsWith("/")) {
+            base = base + "/";
+        }
+        PromptTemplate system = PromptTemplate.parse(read(base + language + "/system.txt").stripTrailing());
+        requirePlaceholders(system, SYSTEM_PLACEHOLDERS, language + "/system.txt");
+
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(open(base + language + "/preferences.properties"), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取提示词偏好文本失败: " + language, e);
+        }
+        String separator = required(properties, "list.separator", language);
+        return new LanguagePack(system,
+            PreferenceText.of(properties, "genre", separator, language),
+            PreferenceText.of(properties, "region", separator, language));
+    }
+
+    private String read(String location) {
+        try (InputStream in = open(location)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取提示词模板失败: " + location, e);
+        }
+    }
+
+    private InputStream open(String location) throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            throw new IllegalStateException("提示词模板不存在: " + location);
+        }
+        return resource.getInputStream();
+    }
+
+    private static void requirePlaceholders(PromptTemplate template, Set<String> allowed, String name) {
+        for (String placeholder : template.placeholders()) {
+            if (!allowed.contains(placeholder)) {
+                throw new IllegalStateException("提示词模板 " + name + " 包含未知占位符: {{" + placeholder + "}}");
+            }
+        }
+    }
+
+    private static String required(Properties properties, String key, String language) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("提示词偏好文本缺少 " + key + ": " + language);
+        }
+        return value;
+    }
+
+    private record PromptKey(String language, int musicCount, List<String> genres, List<String> regions) {
+    }
+
+    private record LanguagePack(PromptTemplate system, PreferenceText genres, PreferenceText regions) {
+    }
+
+    /**
+     * 一种偏好（流派或地区）的文本：默认文本、列表模板和不可变翻译表
+     */
+    private record PreferenceText(String defaultText, PromptTemplate listTemplate, String separator,
+                                  Map<String, String> translations) {
+
+        static PreferenceText of(Properties properties, String prefix, String separator, String language) {
+            Map<String, String> translations = new HashMap<>();
+            String keyPrefix = prefix + ".";
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(keyPrefix) && !name.equals(keyPrefix + "default") && !name.equals(keyPrefix + "list")) {
+                    translations.put(name.substring(keyPrefix.length()), properties.getProperty(name));
+                }
+            }
+            PromptTemplate listTemplate = PromptTemplate.parse(required(properties, keyPrefix + "list", language));
+            requirePlaceholders(listTemplate, LIST_PLACEHOLDERS, language + "/preferences.properties " + keyPrefix + "list");
+            return new PreferenceText(required(properties, keyPrefix + "default", language), listTemplate,
+                separator, Map.copyOf(translations));
+        }
+
+        String describe(List<String> values) {
+            if (values.isEmpty()) {
+                return defaultText;
+            }
+            StringBuilder list = new StringBuilder();
+            for (String value : values) {
+                if (!list.isEmpty()) {
+                    list.append(separator);
+                }
+                list.append(translations.getOrDefault(value, value));
+            }
+            return listTemplate.render(Map.of("list", list.toString()));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.aimusic.ratelimit;
+
+import com.aimusic.config.RateLimitConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 请求限流器
+ * 按IP令牌桶限流，并在时间窗口内忽略重复请求，两者分别由 rate-limit.enabled 和 rate-limit.dedup-enabled 开关。
+ * 状态保存在有界的Caffeine缓存中，过期由其时间轮以均摊O(1)完成，无全局锁
+ */
+@Component
+public class RequestRateLimiter {
+
+    /**
+     * 限流判定结果
+     */
+    public enum Decision {
+        ALLOWED,
+        DUPLICATE,
+        RATE_LIMITED
+    }
+
+    @Autowired
+    private RateLimitConfig rateLimitConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, TokenBucket> clientBuckets;
+    private ConcurrentMap<Long, Boolean> recentRequests;
+
+    private Counter allowedCounter;
+    private Counter duplicateCounter;
+    private Counter rateLimitedCounter;
+
+    @PostConstruct
+    public void init() {
+        // 桶闲置到完全补满后即可丢弃，重新创建的桶是满的，行为等价
+        Duration refillTime = Duration.ofMillis(
+            60_000L * rateLimitConfig.getBurst() / rateLimitConfig.getRequestsPerMinute() + 1);
+        clientBuckets = Caffeine.newBuilder()
+            .maximumSize(rateLimitConfig.getMaxTrackedClients())
+            .expireAfterAccess(refillTime)
+            .build();
+
+        Cache<Long, Boolean> requests = Caffeine.newBuilder()
+            .maximumSize(rateLimitConfig.getMaxTrackedRequests())
+            .expireAfterWrite(rateLimitConfig.getDuplicateWindow())
+            .build();
+        recentRequests = requests.asMap();
+
+        allowedCounter = meterRegistry.counter("rate.limit.requests", "outcome", "allowed");
+        duplicateCounter = meterRegistry.counter("rate.limit.requests", "outcome", "duplicate");
+        rateLimitedCounter = meterRegistry.counter("rate.limit.requests", "outcome", "rate_limited");
+        Gauge.builder("rate.limit.tracked", clientBuckets, Cache::estimatedSize)
+            .tag("type", "clients")
+            .register(meterRegistry);
+        Gauge.builder("rate.limit.tracked", requests, Cache::estimatedSize)
+            .tag("type", "requests")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 判定请求是否放行，放行的请求会被记录用于后续去重
+     * @param clientIp 客户端IP
+     * @param requestKey 请求指纹（见 RequestFingerprint，相同内容的请求应相同）
+     * @return 判定结果
+     */
+    public Decision tryAcquire(String clientIp, long requestKey) {
+        // 先做去重：重复请求不消耗令牌
+        boolean dedupEnabled = rateLimitConfig.isDedupEnabled();
+        if (dedupEnabled && recentRequests.putIfAbsent(requestKey, Boolean.TRUE) != null) {
+            duplicateCounter.increment();
+            return Decision.DUPLICATE;
+        }
+
+        if (!rateLimitConfig.isEnabled()) {
+            allowedCounter.increment();
+            return Decision.ALLOWED;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = clientBuckets.get(clientIp, ip -> new TokenBucket(
+            rateLimitConfig.getBurst(), rateLimitConfig.getRequestsPerMinute(), now));
+        if (!bucket.tryAcquire(now)) {
+            // 被限流的请求不占用去重窗口，允许稍后重试
+            if (dedupEnabled) {
+                recentRequests.remove(requestKey);
+            }
+            rateLimitedCounter.increment();
+            return Decision.RATE_LIMITED;
+        }
+
+        allowedCounter.increment();
+        return Decision.ALLOWED;
+    }
+
+    public double getAllowedCount() {
+        return allowedCounter.count();
+    }
+
+    public double getDuplicateCount() {
+        return duplicateCounter.count();
+    }
+
+    public double getRateLimitedCount() {
+        return rateLimitedCounter.count();
+    }
+}
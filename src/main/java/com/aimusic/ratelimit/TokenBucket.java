@@ -0,0 +1,43 @@
+package com.aimusic.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * 采用GCRA（通用信元速率算法）实现，只维护一个"理论到达时间"，一次CAS即可完成判定
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * @param burst 允许的突发请求数
+     * @param requestsPerMinute 每分钟补充的请求数
+     * @param nowNanos 当前时间（纳秒）
+     */
+    public TokenBucket(int burst, int requestsPerMinute, long nowNanos) {
+        this.emissionIntervalNanos = 60_000_000_000L / requestsPerMinute;
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1L);
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 尝试消耗一个令牌
+     * @param nowNanos 当前时间（纳秒）
+     * @return 是否允许本次请求
+     */
+    public boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrivalTime.get();
+            long base = Math.max(tat, nowNanos);
+            if (base - nowNanos > burstToleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, base + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.aimusic.service;
+
+import com.aimusic.config.AiConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AI服务可用性状态
+ * 由后台定时探测和真实调用结果共同更新，请求路径上只做一次volatile读取
+ */
+@Component
+public class AiAvailabilityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiAvailabilityTracker.class);
+
+    @Autowired
+    private AiConfig aiConfig;
+
+    // 启动后首次探测完成前默认可用，避免误拒请求
+    private volatile boolean available = true;
+    private volatile long lastCheckTime;
+    private volatile String lastError;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * 当前是否可用
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * 记录一次主动探测的结果
+     * 成功立即恢复可用；失败与真实调用失败共用连续失败计数，达到阈值才标记为不可用，
+     * 避免一次探测超时就造成整个刷新间隔的不可用
+     */
+    public void recordProbe(boolean success, String error) {
+        lastCheckTime = System.currentTimeMillis();
+        if (success) {
+            markUp();
+        } else {
+            recordFailure(error);
+        }
+    }
+
+    /**
+     * 记录一次真实调用成功
+     */
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (!available) {
+            markUp();
+        }
+    }
+
+    /**
+     * 记录一次真实调用失败，连续失败达到阈值后标记为不可用
+     */
+    public void recordFailure(String error) {
+        lastError = error;
+        int failures = consecutiveFailures.incrementAndGet();
+        if (failures >= aiConfig.getAvailabilityFailureThreshold()) {
+            markDown(error);
+        }
+    }
+
+    private void markUp() {
+        consecutiveFailures.set(0);
+        lastError = null;
+        if (!available) {
+            available = true;
+            logger.info("AI服务已恢复可用");
+        }
+    }
+
+    private void markDown(String error) {
+        if (available) {
+            available = false;
+            logger.warn("AI服务标记为不可用: {}", error);
+        }
+    }
+
+    public long getLastCheckTime() {
+        return lastCheckTime;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+}
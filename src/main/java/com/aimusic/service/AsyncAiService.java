@@ -0,0 +1,145 @@
+package com.aimusic.service;
+
+import com.aimusic.cache.AnswerCacheKey;
+import com.aimusic.config.AiConfig;
+import com.aimusic.config.CacheConfig;
+import com.aimusic.monitor.AskStage;
+import com.aimusic.monitor.RequestTimeline;
+import com.aimusic.monitor.UpstreamMetrics;
+import com.aimusic.prompt.SystemPromptRenderer;
+import com.aimusic.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 基于JDK HttpClient的异步AI服务
+ * 缓存、请求合并和可用性记录与 {@link AiService} 相同，只是等待上游期间不占用线程
+ */
+@Service
+@ConditionalOnProperty(prefix = "app", name = "async-upstream", havingValue = "true")
+public class AsyncAiService implements IAsyncAiService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncAiService.class);
+
+    @Autowired
+    private AiConfig aiConfig;
+
+    @Autowired
+    @Qualifier("upstreamHttpClient")
+    private HttpClient httpClient;
+
+    @Autowired
+    private AiAvailabilityTracker availabilityTracker;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private SystemPromptRenderer promptRenderer;
+
+    @Autowired
+    private UpstreamMetrics upstreamMetrics;
+
+    @Autowired
+    private UpstreamPayloads upstreamPayloads;
+
+    private final SingleFlight<AnswerCacheKey, String> answerFlight = new SingleFlight<>();
+
+    @Override
+    public CompletableFuture<String> getAnswerAsync(String question, int musicCount, String language,
+                                                    List<String> genres, List<String> regions, boolean useCache) {
+        Cache answerCache = useCache && aiConfig.isAnswerCacheEnabled()
+            ? cacheManager.getCache(CacheConfig.AI_ANSWER_CACHE) : null;
+        AnswerCacheKey cacheKey = AnswerCacheKey.of(question, musicCount, language, genres, regions);
+
+        if (answerCache != null) {
+            String cached = answerCache.get(cacheKey, String.class);
+            if (cached != null) {
+                logger.debug("AI回答缓存命中: {}", cacheKey.question());
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+
+        // 相同问题的并发请求共享同一次上游调用
+        return answerFlight.executeAsync(cacheKey, () ->
+            requestAnswer(question, musicCount, language, genres, regions)
+                .thenApply(answer -> {
+                    if (answer != null && answerCache != null) {
+                        answerCache.put(cacheKey, answer);
+                    }
+                    return answer;
+                }));
+    }
+
+    /**
+     * 调用chat completions接口获取回答，任何失败都以null完成
+     */
+    private CompletableFuture<String> requestAnswer(String question, int musicCount, String language,
+                                                    List<String> genres, List<String> regions) {
+        HttpRequest request;
+        try {
+            String systemPrompt = RequestTimeline.time(AskStage.PROMPT_BUILD,
+                () -> promptRenderer.render(musicCount, language, genres, regions));
+            byte[] body = upstreamPayloads.toJson(
+                UpstreamPayloads.chatRequest(aiConfig.getModelName(), systemPrompt, question, false));
+            request = HttpRequest.newBuilder(URI.create(aiConfig.getBaseUrl() + "/chat/completions"))
+                .timeout(Duration.ofSeconds(aiConfig.getTimeout()))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + aiConfig.getApiKey())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        } catch (IOException | RuntimeException e) {
+            logger.error("构建AI请求失败", e);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return RequestTimeline.timeAsync(AskStage.LLM_CALL, () -> upstreamMetrics.observe(UpstreamMetrics.AI_CHAT,
+                () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())))
+            .thenApply(RequestTimeline.propagate(this::handleResponse))
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                logger.error("调用AI服务失败", cause);
+                availabilityTracker.recordFailure(cause.getMessage());
+                return null;
+            });
+    }
+
+    /**
+     * 响应体按字节接收后直接流式解析，不解码成字符串
+     */
+    private String handleResponse(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            // 与RestTemplate一致：非2xx视为调用失败
+            throw new IllegalStateException("AI服务返回状态码 " + response.statusCode());
+        }
+        String content;
+        try {
+            content = RequestTimeline.time(AskStage.ANSWER_PARSE, () -> upstreamPayloads.chatContent(response.body()));
+        } catch (IOException e) {
+            throw new IllegalStateException("AI响应解析失败", e);
+        }
+        if (content != null) {
+            availabilityTracker.recordSuccess();
+            return content;
+        }
+        logger.error("AI响应格式错误: {}", new String(response.body(), StandardCharsets.UTF_8));
+        return null;
+    }
+}
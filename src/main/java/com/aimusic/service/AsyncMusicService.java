@@ -0,0 +1,320 @@
+package com.aimusic.service;
+
+import com.aimusic.cache.NegativeLookupCache;
+import com.aimusic.cache.NegativeLookupCache.Lookup;
+import com.aimusic.cache.NegativeLookupCache.Outcome;
+import com.aimusic.cache.PlayUrl;
+import com.aimusic.cache.PlayUrlLifetime;
+import com.aimusic.cache.SongCacheKey;
+import com.aimusic.cache.SongMatch;
+import com.aimusic.config.CacheConfig;
+import com.aimusic.config.MusicConfig;
+import com.aimusic.dto.MusicInfo;
+import com.aimusic.dto.upstream.NeteaseSong;
+import com.aimusic.monitor.AskStage;
+import com.aimusic.monitor.RequestTimeline;
+import com.aimusic.monitor.UpstreamMetrics;
+import com.aimusic.service.MusicService.SongInfo;
+import com.aimusic.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于JDK HttpClient的异步音乐服务
+ * 每首歌曲的搜索和获取播放链接组合成一条异步链，各首歌曲并行，期限与 {@link MusicService} 相同
+ */
+@Service
+@ConditionalOnProperty(prefix = "app", name = "async-upstream", havingValue = "true")
+public class AsyncMusicService implements IAsyncMusicService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncMusicService.class);
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+
+    @Autowired
+    @Qualifier("upstreamHttpClient")
+    private HttpClient httpClient;
+
+    @Autowired
+    private MusicConfig musicConfig;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private UpstreamMetrics upstreamMetrics;
+    
+    @Autowired
+    private PlayUrlLifetime playUrlLifetime;
+    
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+
+    @Autowired
+    private UpstreamPayloads upstreamPayloads;
+
+    private final SingleFlight<SongCacheKey, SongMatch> searchFlight = new SingleFlight<>();
+
+    private final SingleFlight<String, String> urlFlight = new SingleFlight<>();
+
+    // 正在后台刷新播放链接的歌曲ID
+    private final Set<String> refreshingUrls = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public CompletableFuture<List<MusicInfo>> getMusicListAsync(String aiAnswer, int count) {
+        List<SongInfo> songInfoList = RequestTimeline.time(AskStage.ANSWER_PARSE,
+            () -> MusicService.extractMultipleSongInfo(aiAnswer));
+        int processCount = Math.min(songInfoList.size(), count);
+        if (processCount == 0) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        long songTimeoutMs = musicConfig.getSongTimeout().toMillis();
+        List<CompletableFuture<MusicInfo>> futures = new ArrayList<>(processCount);
+        for (int i = 0; i < processCount; i++) {
+            futures.add(resolveSong(songInfoList.get(i))
+                .completeOnTimeout(null, songTimeoutMs, TimeUnit.MILLISECONDS));
+        }
+
+        long totalTimeoutMs = musicConfig.getTotalTimeout().toMillis();
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+            .completeOnTimeout(null, totalTimeoutMs, TimeUnit.MILLISECONDS)
+            .thenApply(ignored -> {
+                // 按原始顺序收集已完成的结果
+                List<MusicInfo> musicList = new ArrayList<>(processCount);
+                for (CompletableFuture<MusicInfo> future : futures) {
+                    if (!future.isDone()) {
+                        logger.warn("歌单解析超时({}ms)，返回已完成的歌曲", totalTimeoutMs);
+                    }
+                    MusicInfo music = future.getNow(null);
+                    if (music != null) {
+                        musicList.add(music);
+                    }
+                }
+                return musicList;
+            });
+    }
+
+    /**
+     * 解析单首歌曲：搜索歌曲ID后获取播放链接，未找到或失败时以null完成
+     */
+    private CompletableFuture<MusicInfo> resolveSong(SongInfo songInfo) {
+        return searchSong(songInfo.getArtist(), songInfo.getSong())
+            .thenCompose(RequestTimeline.propagate(match -> {
+                if (match == null) {
+                    return CompletableFuture.<MusicInfo>completedFuture(null);
+                }
+                return getSongUrl(match.songId()).thenApply(playUrl -> playUrl == null ? null
+                    : new MusicInfo(songInfo.getArtist(), songInfo.getSong(), match.songId(), playUrl,
+                        songInfo.getLyric(), match.confidence()));
+            }))
+            .exceptionally(e -> {
+                logger.warn("获取歌曲信息失败: {} - {}", songInfo.getArtist(), songInfo.getSong(), e);
+                return null;
+            });
+    }
+
+    /**
+     * 搜索最佳匹配的一首歌曲，与同步实现共用 musicCache 和否定缓存；未找到或失败时以null完成
+     */
+    private CompletableFuture<SongMatch> searchSong(String artist, String song) {
+        SongCacheKey cacheKey = SongCacheKey.of(artist, song, SongCacheKey.BEST_MATCH);
+        Cache musicCache = cacheManager.getCache(CacheConfig.MUSIC_CACHE);
+        if (musicCache != null) {
+            Cache.ValueWrapper cached = musicCache.get(cacheKey);
+            if (cached != null && cached.get() instanceof SongMatch match) {
+                return CompletableFuture.completedFuture(match);
+            }
+        }
+
+        if (negativeLookupCache.get(Lookup.SEARCH, cacheKey) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // 相同歌曲的并发搜索共享同一次上游调用
+        return searchFlight.executeAsync(cacheKey, () -> doSearchSong(artist, song)
+            .handle((match, e) -> {
+                if (e != null) {
+                    logger.error("搜索歌曲失败: {} - {}", artist, song, e);
+                    negativeLookupCache.put(Lookup.SEARCH, cacheKey, Outcome.UPSTREAM_ERROR);
+                    return null;
+                }
+                if (match == null) {
+                    negativeLookupCache.put(Lookup.SEARCH, cacheKey, Outcome.NOT_FOUND);
+                } else if (musicCache != null) {
+                    musicCache.put(cacheKey, match);
+                }
+                return match;
+            }));
+    }
+
+    /**
+     * 调用网易云搜索接口并按匹配得分取最佳匹配，没有结果时以null完成，失败时以异常完成
+     * 与同步实现相同：先请求 searchPageSize 条，最佳匹配不够好时再扩大到 searchWidePageSize 条
+     */
+    private CompletableFuture<SongMatch> doSearchSong(String artist, String song) {
+        int pageSize = musicConfig.getSearchPageSize();
+        int widePageSize = musicConfig.getSearchWidePageSize();
+        return requestSearch(artist, song, pageSize).thenCompose(RequestTimeline.propagate(page -> {
+            List<SongMatcher.Match> ranked = SongMatcher.rank(artist, song, page);
+            if (!SongMatcher.shouldWiden(ranked, pageSize, widePageSize, musicConfig.getSearchMatchThreshold())) {
+                return CompletableFuture.completedFuture(bestMatch(ranked));
+            }
+            return requestSearch(artist, song, widePageSize)
+                .thenApply(wide -> bestMatch(SongMatcher.rank(artist, song, wide)));
+        }));
+    }
+
+    private static SongMatch bestMatch(List<SongMatcher.Match> ranked) {
+        return ranked.isEmpty() ? null : new SongMatch(ranked.get(0).song().id(), ranked.get(0).score());
+    }
+
+    /**
+     * 请求一页搜索结果，按接口返回顺序
+     */
+    private CompletableFuture<List<NeteaseSong>> requestSearch(String artist, String song, int pageSize) {
+        URI uri = UriComponentsBuilder
+            .fromHttpUrl(musicConfig.getSearchUrl())
+            .queryParam("s", artist + " " + song)
+            .queryParam("type", 1)
+            .queryParam("limit", pageSize)
+            .encode()
+            .build()
+            .toUri();
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .timeout(musicConfig.getSongTimeout())
+            .header("Accept", "application/json, text/plain, */*")
+            .header("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8")
+            .header("Referer", "https://music.163.com/")
+            .header("Cache-Control", "no-cache")
+            .header("User-Agent", USER_AGENT)
+            .GET()
+            .build();
+
+        return RequestTimeline.timeAsync(AskStage.SONG_SEARCH, () -> upstreamMetrics.observe(UpstreamMetrics.NETEASE_SEARCH,
+                () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())))
+            .thenApply(response -> {
+                try {
+                    return upstreamPayloads.searchResults(successBody(response), pageSize);
+                } catch (IOException e) {
+                    throw new IllegalStateException("搜索结果解析失败", e);
+                }
+            });
+    }
+
+    /**
+     * 获取歌曲播放链接，与同步实现共用 musicUrlCache 和否定缓存，相同歌曲的并发请求共享同一次上游调用；
+     * 命中的链接临近过期时照常返回，同时在后台重新获取。没有链接或失败时返回null
+     */
+    private CompletableFuture<String> getSongUrl(String songId) {
+        Cache urlCache = cacheManager.getCache(CacheConfig.MUSIC_URL_CACHE);
+        if (urlCache != null) {
+            PlayUrl cached = urlCache.get(songId, PlayUrl.class);
+            if (cached != null) {
+                if (playUrlLifetime.needsRefresh(cached) && refreshingUrls.add(songId)) {
+                    // 后台刷新不计入当前请求的阶段耗时
+                    RequestTimeline.detached(() -> fetchSongUrl(songId, urlCache))
+                        .whenComplete((playUrl, e) -> {
+                            refreshingUrls.remove(songId);
+                            if (e != null) {
+                                // 刷新失败时保留旧链接，过期后由下一次请求重新获取
+                                logger.warn("刷新播放链接失败: {}", songId, e);
+                            }
+                        });
+                }
+                return CompletableFuture.completedFuture(cached.url());
+            }
+        }
+        if (negativeLookupCache.get(Lookup.URL, songId) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return fetchSongUrl(songId, urlCache).handle((playUrl, e) -> {
+            if (e != null) {
+                logger.error("获取播放链接失败: {}", songId, e);
+                negativeLookupCache.put(Lookup.URL, songId, Outcome.UPSTREAM_ERROR);
+                return null;
+            }
+            if (playUrl == null) {
+                negativeLookupCache.put(Lookup.URL, songId, Outcome.NOT_FOUND);
+            }
+            return playUrl;
+        });
+    }
+
+    private CompletableFuture<String> fetchSongUrl(String songId, Cache urlCache) {
+        return urlFlight.executeAsync(songId, () -> doGetSongUrl(songId)
+            .thenApply(playUrl -> {
+                if (playUrl != null && urlCache != null) {
+                    PlayUrl entry = playUrlLifetime.entry(playUrl);
+                    if (entry != null) {
+                        urlCache.put(songId, entry);
+                    }
+                }
+                return playUrl;
+            }));
+    }
+
+    /**
+     * 调用播放链接解析接口，没有链接时返回null，失败时以异常完成
+     */
+    private CompletableFuture<String> doGetSongUrl(String songId) {
+        URI uri = UriComponentsBuilder
+            .fromHttpUrl(musicConfig.getSongUrlApi())
+            .queryParam("id", songId)
+            .queryParam("quality", "flac")
+            .encode()
+            .build()
+            .toUri();
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .timeout(musicConfig.getSongTimeout())
+            .header("Accept", "application/json, text/plain, */*")
+            .header("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8")
+            .header("Cache-Control", "no-cache")
+            .header("Pragma", "no-cache")
+            .header("User-Agent", USER_AGENT)
+            .GET()
+            .build();
+
+        return RequestTimeline.timeAsync(AskStage.SONG_URL, () -> upstreamMetrics.observe(UpstreamMetrics.SONG_URL,
+                () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())))
+            .thenApply(response -> {
+                try {
+                    return upstreamPayloads.playUrl(successBody(response));
+                } catch (IOException e) {
+                    throw new IllegalStateException("播放链接解析失败", e);
+                }
+            });
+    }
+
+    /**
+     * 与RestTemplate一致：非2xx视为调用失败
+     * 响应体按字节接收后直接流式解析，不解码成字符串；不在HttpClient线程上阻塞读取 InputStream
+     */
+    private static byte[] successBody(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("上游返回状态码 " + response.statusCode() + ": " + response.uri());
+        }
+        return response.body();
+    }
+}
@@ -42,7 +42,34 @@ public interface IAiService {
     String getAnswer(String question, int musicCount, String language, java.util.List<String> genres, java.util.List<String> regions);
     
     /**
-     * 检查AI服务是否可用
+     * 获取AI回答（可选择是否使用回答缓存）
+     * @param question 用户问题
+     * @param musicCount 推荐歌曲数量
+     * @param language 语言（zh-CN, en-US等）
+     * @param genres 音乐流派列表
+     * @param regions 国家/地区列表
+     * @param useCache 是否读取和写入回答缓存
+     * @return AI回答，如果失败返回null
+     */
+    String getAnswer(String question, int musicCount, String language, java.util.List<String> genres, java.util.List<String> regions,
+                     boolean useCache);
+    
+    /**
+     * 以流式方式获取AI回答，每生成一行完整歌词即回调一次
+     * @param question 用户问题
+     * @param musicCount 推荐歌曲数量
+     * @param language 语言（zh-CN, en-US等）
+     * @param genres 音乐流派列表
+     * @param regions 国家/地区列表
+     * @param useCache 是否读取和写入回答缓存，命中时直接按行回放缓存的回答
+     * @param lineConsumer 歌词行回调（已去除首尾空白，不含空行）
+     * @return 完整的AI回答，如果失败返回null
+     */
+    String streamAnswer(String question, int musicCount, String language, java.util.List<String> genres, java.util.List<String> regions,
+                        boolean useCache, java.util.function.Consumer<String> lineConsumer);
+    
+    /**
+     * 检查AI服务是否可用（读取后台维护的状态，开销极低）
      * @return 服务状态
      */
     boolean isServiceAvailable();
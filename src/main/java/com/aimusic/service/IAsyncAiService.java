@@ -0,0 +1,24 @@
+package com.aimusic.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步AI服务接口
+ * 基于非阻塞HTTP客户端，等待上游响应期间不占用线程；开启 app.async-upstream 后生效
+ */
+public interface IAsyncAiService {
+    
+    /**
+     * 异步获取AI回答（与 {@link IAiService#getAnswer(String, int, String, List, List, boolean)} 语义一致）
+     * @param question 用户问题
+     * @param musicCount 推荐歌曲数量
+     * @param language 语言（zh-CN, en-US等）
+     * @param genres 音乐流派列表
+     * @param regions 国家/地区列表
+     * @param useCache 是否读取和写入回答缓存
+     * @return AI回答，失败时以null完成
+     */
+    CompletableFuture<String> getAnswerAsync(String question, int musicCount, String language, List<String> genres,
+                                             List<String> regions, boolean useCache);
+}
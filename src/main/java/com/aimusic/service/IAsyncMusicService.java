@@ -0,0 +1,21 @@
+package com.aimusic.service;
+
+import com.aimusic.dto.MusicInfo;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步音乐服务接口
+ * 基于非阻塞HTTP客户端，等待上游响应期间不占用线程；开启 app.async-upstream 后生效
+ */
+public interface IAsyncMusicService {
+    
+    /**
+     * 异步获取多首音乐信息（与 {@link IMusicService#getMusicList(String, int)} 语义一致）
+     * @param aiAnswer AI回答内容
+     * @param count 返回歌曲数量
+     * @return 音乐信息列表，保持AI回答中的顺序，超时未完成的歌曲不包含在内
+     */
+    CompletableFuture<List<MusicInfo>> getMusicListAsync(String aiAnswer, int count);
+}
@@ -0,0 +1,301 @@
+package com.aimusic.service;
+
+/**
+ * AI回答的歌词行扫描器
+ * 回答约定为每行一条 "歌词--歌手《歌名》"，单遍扫描整个回答，逐条给出歌词、歌手、歌名在原文中的位置，
+ * 不切分行、不生成中间字符串；只有调用 {@link #lyric()} 等方法时才截取子串。
+ *
+ * <p>兼容模型输出的常见格式偏差：
+ * <ul>
+ *   <li>分隔符：两个及以上的 - — － – ―（如 "--"、"——"），有多个时取书名号前的最后一个</li>
+ *   <li>书名号：《》 「」 『』 〈〉 &lt;&gt; ＜＞ “” ""，须成对匹配</li>
+ *   <li>行首的编号（1. 1、 (1) ① 一、）和 markdown 列表符号（- * + • &gt;），首尾的 ** 和 `</li>
+ * </ul>
+ *
+ * <p>用法：{@code while (scanner.next()) { scanner.artist(); ... }}。非线程安全
+ */
+final class LyricLineScanner {
+
+    private final CharSequence text;
+    private final int length;
+    private int position;
+
+    private int lyricStart;
+    private int lyricEnd;
+    private int artistStart;
+    private int artistEnd;
+    private int titleStart;
+    private int titleEnd;
+
+    LyricLineScanner(CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+    }
+
+    /**
+     * 前进到下一条格式正确的歌词行，跳过不符合格式的行
+     * @return 找到时返回true，之后可读取各字段；扫描结束返回false
+     */
+    boolean next() {
+        while (position < length) {
+            if (scanLine()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    String lyric() {
+        return text.subSequence(lyricStart, lyricEnd).toString();
+    }
+
+    String artist() {
+        return text.subSequence(artistStart, artistEnd).toString();
+    }
+
+    String title() {
+        return text.subSequence(titleStart, titleEnd).toString();
+    }
+
+    int lyricStart() {
+        return lyricStart;
+    }
+
+    int lyricEnd() {
+        return lyricEnd;
+    }
+
+    int artistStart() {
+        return artistStart;
+    }
+
+    int artistEnd() {
+        return artistEnd;
+    }
+
+    int titleStart() {
+        return titleStart;
+    }
+
+    int titleEnd() {
+        return titleEnd;
+    }
+
+    /**
+     * 扫描从 position 开始的一行，结束时 position 指向下一行行首
+     */
+    private boolean scanLine() {
+        int start = skipPrefix(position);
+        int dashStart = -1;
+        int dashEnd = -1;
+        int i = start;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                position = nextLine(i);
+                return false;
+            }
+            if (isDash(c)) {
+                int runEnd = i + 1;
+                while (runEnd < length && isDash(text.charAt(runEnd))) {
+                    runEnd++;
+                }
+                if (runEnd - i >= 2) {
+                    dashStart = i;
+                    dashEnd = runEnd;
+                }
+                i = runEnd;
+                continue;
+            }
+            char closer = dashEnd >= 0 ? closerOf(c) : 0;
+            if (closer != 0) {
+                int close = indexOfInLine(closer, i + 1);
+                if (close < 0) {
+                    position = skipLine(i + 1);
+                    return false;
+                }
+                position = skipLine(close + 1);
+                return accept(start, dashStart, dashEnd, i, close);
+            }
+            i++;
+        }
+        position = length;
+        return false;
+    }
+
+    /**
+     * 记录各字段位置（去除首尾空白和 markdown 标记），歌手或歌名为空时视为不符合格式
+     */
+    private boolean accept(int start, int dashStart, int dashEnd, int open, int close) {
+        artistStart = trimStart(dashEnd, open);
+        artistEnd = trimEnd(artistStart, open);
+        titleStart = trimStart(open + 1, close);
+        titleEnd = trimEnd(titleStart, close);
+        if (artistStart == artistEnd || titleStart == titleEnd) {
+            return false;
+        }
+        lyricStart = trimStart(start, dashStart);
+        lyricEnd = trimEnd(lyricStart, dashStart);
+        return true;
+    }
+
+    /**
+     * 跳过行首空白、列表符号和编号
+     */
+    private int skipPrefix(int from) {
+        int i = skipBlank(from);
+        for (int round = 0; round < 3 && i < length; round++) {
+            int next = skipListMarker(i);
+            if (next == i) {
+                next = skipNumbering(i);
+            }
+            if (next == i) {
+                break;
+            }
+            i = skipBlank(next);
+        }
+        return i;
+    }
+
+    // markdown列表符号：- * + 后须跟空白，• · > 可直接跟内容
+    private int skipListMarker(int i) {
+        char c = text.charAt(i);
+        if (c == '•' || c == '·' || c == '>') {
+            return i + 1;
+        }
+        if ((c == '-' || c == '*' || c == '+') && i + 1 < length && isBlank(text.charAt(i + 1))) {
+            return i + 1;
+        }
+        return i;
+    }
+
+    // 编号：1. 1、 1) 1） 1: (1) （1） ① 一、
+    private int skipNumbering(int i) {
+        char c = text.charAt(i);
+        if (c >= '①' && c <= '⑳') {
+            return i + 1;
+        }
+        if (c == '(' || c == '（') {
+            int digitsEnd = skipDigits(i + 1);
+            if (digitsEnd > i + 1 && digitsEnd < length
+                && (text.charAt(digitsEnd) == ')' || text.charAt(digitsEnd) == '）')) {
+                return digitsEnd + 1;
+            }
+            return i;
+        }
+        int digitsEnd = skipDigits(i);
+        if (digitsEnd == i) {
+            digitsEnd = skipChineseNumeral(i);
+            if (digitsEnd > i && digitsEnd < length && text.charAt(digitsEnd) == '、') {
+                return digitsEnd + 1;
+            }
+            return i;
+        }
+        if (digitsEnd >= length) {
+            return i;
+        }
+        char mark = text.charAt(digitsEnd);
+        if (mark == '、' || mark == ')' || mark == '）' || mark == '：') {
+            return digitsEnd + 1;
+        }
+        // "1." 和 "1:" 后须为空白，避免把 "2.5" 之类的歌词当成编号
+        if ((mark == '.' || mark == ':') && (digitsEnd + 1 >= length || isBlank(text.charAt(digitsEnd + 1)))) {
+            return digitsEnd + 1;
+        }
+        return i;
+    }
+
+    private int skipDigits(int i) {
+        int end = i;
+        while (end < length && end - i < 3 && text.charAt(end) >= '0' && text.charAt(end) <= '9') {
+            end++;
+        }
+        return end;
+    }
+
+    private int skipChineseNumeral(int i) {
+        int end = i;
+        while (end < length && end - i < 3 && "一二三四五六七八九十".indexOf(text.charAt(end)) >= 0) {
+            end++;
+        }
+        return end;
+    }
+
+    private int skipBlank(int i) {
+        while (i < length && isBlank(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private int trimStart(int from, int to) {
+        while (from < to && isTrimmable(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private int trimEnd(int from, int to) {
+        while (to > from && isTrimmable(text.charAt(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    private int indexOfInLine(char target, int from) {
+        for (int i = from; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == target) {
+                return i;
+            }
+            if (c == '\n' || c == '\r') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private int skipLine(int from) {
+        for (int i = from; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return nextLine(i);
+            }
+        }
+        return length;
+    }
+
+    // 兼容 \n、\r\n 和 \r
+    private int nextLine(int lineBreak) {
+        if (text.charAt(lineBreak) == '\r' && lineBreak + 1 < length && text.charAt(lineBreak + 1) == '\n') {
+            return lineBreak + 2;
+        }
+        return lineBreak + 1;
+    }
+
+    private static boolean isDash(char c) {
+        return c == '-' || c == '—' || c == '－' || c == '–' || c == '―';
+    }
+
+    private static char closerOf(char c) {
+        switch (c) {
+            case '《': return '》';
+            case '「': return '」';
+            case '『': return '』';
+            case '〈': return '〉';
+            case '<': return '>';
+            case '＜': return '＞';
+            case '“': return '”';
+            case '"': return '"';
+            default: return 0;
+        }
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '　' || c == ' ';
+    }
+
+    private static boolean isTrimmable(char c) {
+        return isBlank(c) || c == '*' || c == '`';
+    }
+}
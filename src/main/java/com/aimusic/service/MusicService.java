@@ -1,23 +1,45 @@
 package com.aimusic.service;
 
+import com.aimusic.cache.NegativeLookupCache;
+import com.aimusic.cache.NegativeLookupCache.Lookup;
+import com.aimusic.cache.NegativeLookupCache.Outcome;
+import com.aimusic.cache.PlayUrl;
+import com.aimusic.cache.PlayUrlLifetime;
+import com.aimusic.cache.SongCacheKey;
+import com.aimusic.cache.SongMatch;
+import com.aimusic.config.CacheConfig;
+import com.aimusic.config.MusicConfig;
 import com.aimusic.dto.MusicInfo;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.aimusic.dto.upstream.NeteaseSong;
+import com.aimusic.monitor.AskStage;
+import com.aimusic.monitor.RequestTimeline;
+import com.aimusic.util.SingleFlight;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,7 +52,35 @@ public class MusicService implements IMusicService {
     @Qualifier("musicRestTemplate")
     private RestTemplate restTemplate;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    @Qualifier("musicLookupExecutor")
+    private Executor lookupExecutor;
+    
+    @Autowired
+    @Qualifier("musicRefreshExecutor")
+    private Executor refreshExecutor;
+    
+    @Autowired
+    private MusicConfig musicConfig;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private PlayUrlLifetime playUrlLifetime;
+    
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+    
+    @Autowired
+    private UpstreamPayloads upstreamPayloads;
+    
+    private final SingleFlight<SongCacheKey, List<SongMatcher.Match>> searchFlight = new SingleFlight<>();
+    
+    private final SingleFlight<String, String> urlFlight = new SingleFlight<>();
+    
+    // 正在后台刷新播放链接的歌曲ID，避免同一首歌曲重复提交刷新任务
+    private final Set<String> refreshingUrls = ConcurrentHashMap.newKeySet();
     
     /**
      * 从AI回答中提取歌曲信息
@@ -41,166 +91,252 @@ public class MusicService implements IMusicService {
     }
     
     /**
-     * 从AI回答中提取多首歌曲信息
+     * 从AI回答中提取多首歌曲信息（异步实现共用）
+     * 单遍扫描，格式兼容规则见 {@link LyricLineScanner}
      */
-    private List<SongInfo> extractMultipleSongInfo(String aiAnswer) {
+    static List<SongInfo> extractMultipleSongInfo(String aiAnswer) {
         List<SongInfo> songList = new ArrayList<>();
         
-        if (aiAnswer == null || aiAnswer.trim().isEmpty()) {
+        if (aiAnswer == null || aiAnswer.isEmpty()) {
             return songList;
         }
         
-        // 匹配歌词格式：歌词内容--歌手《歌名》（每行一段歌词）
-        String[] lines = aiAnswer.split("\n");
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            
-            // 匹配格式：歌词内容--歌手《歌名》
-            if (line.contains("--")) {
-                String[] parts = line.split("--", 2);
-                if (parts.length == 2) {
-                    String artistAndSong = parts[1].trim();
-                    
-                    // 解析歌手《歌名》格式
-                    if (artistAndSong.contains("《") && artistAndSong.contains("》")) {
-                        int songStart = artistAndSong.indexOf("《");
-                        int songEnd = artistAndSong.indexOf("》");
-                        
-                        if (songStart > 0 && songEnd > songStart) {
-                            String artist = artistAndSong.substring(0, songStart).trim();
-                            String song = artistAndSong.substring(songStart + 1, songEnd).trim();
-                            
-                            if (!artist.isEmpty() && !song.isEmpty()) {
-                                songList.add(new SongInfo(artist, song));
-                            }
-                        }
-                    }
-                }
-            }
+        LyricLineScanner scanner = new LyricLineScanner(aiAnswer);
+        while (scanner.next()) {
+            songList.add(new SongInfo(scanner.artist(), scanner.title(), scanner.lyric()));
         }
         
         return songList;
     }
     
+    /**
+     * 是否为可解析出歌手和歌名的歌词行（流式问答逐行判断）
+     */
+    public static boolean isLyricLine(String line) {
+        return line != null && new LyricLineScanner(line).next();
+    }
+    
     /**
      * 搜索歌曲
+     * 未找到或上游出错时返回null，不写入 musicCache（由否定缓存短期记录）
      */
     @Override
-    @Cacheable(value = "musicCache", key = "#artist + '_' + #song")
     public String searchSong(String artist, String song) {
-        List<String> songs = searchSongs(artist, song, 1);
-        return songs.isEmpty() ? null : songs.get(0);
+        SongMatch match = cachedBestMatch(artist, song);
+        return match == null ? null : match.songId();
     }
     
     /**
      * 搜索多首歌曲
+     * 结果为空时不写入 musicCache（由否定缓存短期记录）
      */
     @Override
-    @Cacheable(value = "musicCache", key = "#artist + '_' + #song + '_' + #limit")
+    @Cacheable(value = CacheConfig.MUSIC_CACHE, keyGenerator = "songKeyGenerator", unless = "#result.isEmpty()")
     public List<String> searchSongs(String artist, String song, int limit) {
-        List<String> songIds = new ArrayList<>();
+        return SongMatcher.topIds(lookupMatches(SongCacheKey.of(artist, song, limit), artist, song, limit), limit);
+    }
+    
+    /**
+     * 带缓存的最佳匹配搜索（异步实现共用同一缓存键）：musicCache 中以 {@link SongCacheKey#BEST_MATCH} 为键保存
+     * 歌曲ID和匹配置信度。旧版本在该键下保存的歌曲ID字符串视为未命中，重新搜索后覆盖
+     * @return 最佳匹配，未找到或上游出错时返回null
+     */
+    private SongMatch cachedBestMatch(String artist, String song) {
+        Cache musicCache = getCache(CacheConfig.MUSIC_CACHE);
+        SongCacheKey cacheKey = SongCacheKey.of(artist, song, SongCacheKey.BEST_MATCH);
+        if (musicCache != null) {
+            Cache.ValueWrapper cached = musicCache.get(cacheKey);
+            if (cached != null && cached.get() instanceof SongMatch match) {
+                return match;
+            }
+        }
+        List<SongMatcher.Match> matches = lookupMatches(cacheKey, artist, song, 1);
+        if (matches.isEmpty()) {
+            return null;
+        }
+        SongMatch match = new SongMatch(matches.get(0).song().id(), matches.get(0).score());
+        if (musicCache != null) {
+            musicCache.put(cacheKey, match);
+        }
+        return match;
+    }
+    
+    /**
+     * 先查否定缓存再调用上游：没有结果记为"未找到"，上游出错记为"上游错误"，两种情况都返回空列表
+     */
+    private List<SongMatcher.Match> lookupMatches(SongCacheKey key, String artist, String song, int limit) {
+        if (negativeLookupCache != null && negativeLookupCache.get(Lookup.SEARCH, key) != null) {
+            return new ArrayList<>();
+        }
         try {
-            String searchQuery = artist + " " + song;
-            String url = UriComponentsBuilder
-                .fromHttpUrl("https://music.163.com/api/search/get/web")
-                .queryParam("s", searchQuery)
-                .queryParam("type", 1)
-                .queryParam("limit", Math.max(limit, 50)) // 搜索更多结果以提供选择
-                .build()
-                .toUriString();
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Accept", "application/json, text/plain, */*");
-            headers.set("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8");
-            headers.set("Referer", "https://music.163.com/");
-            headers.set("Cache-Control", "no-cache");
-            headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
-            
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-            
-            JsonNode jsonNode = objectMapper.readTree(response.getBody());
-            JsonNode result = jsonNode.get("result");
-            if (result != null) {
-                JsonNode songs = result.get("songs");
-                if (songs != null && songs.isArray()) {
-                    int count = 0;
-                    for (JsonNode songNode : songs) {
-                        if (count >= limit) break;
-                        JsonNode id = songNode.get("id");
-                        if (id != null) {
-                            songIds.add(id.asText());
-                            count++;
-                        }
-                    }
-                }
+            // 相同歌曲（含繁简、大小写不同的写法）的并发搜索共享同一次上游调用
+            List<SongMatcher.Match> matches = searchFlight.execute(key, () -> doSearchSongs(artist, song, limit));
+            if (matches.isEmpty()) {
+                recordMiss(Lookup.SEARCH, key, Outcome.NOT_FOUND);
+            }
+            return matches;
+        } catch (RuntimeException e) {
+            // 单曲期限到达后中断线程引起的失败不是上游错误，不记入否定缓存
+            if (SingleFlight.isCancellation(e)) {
+                logger.debug("搜索歌曲已取消: {} - {}", artist, song);
+                return new ArrayList<>();
             }
-            
-        } catch (Exception e) {
             logger.error("搜索歌曲失败: {} - {}", artist, song, e);
+            recordMiss(Lookup.SEARCH, key, Outcome.UPSTREAM_ERROR);
+            return new ArrayList<>();
+        }
+    }
+    
+    private void recordMiss(Lookup lookup, Object key, Outcome outcome) {
+        if (negativeLookupCache != null) {
+            negativeLookupCache.put(lookup, key, outcome);
+        }
+    }
+    
+    /**
+     * 调用网易云搜索接口并按匹配得分排序，返回前limit个，失败时抛出异常
+     * 先请求 searchPageSize 条，最佳匹配不够好时再扩大到 searchWidePageSize 条（见 {@link SongMatcher}）
+     */
+    private List<SongMatcher.Match> doSearchSongs(String artist, String song, int limit) {
+        int pageSize = Math.max(limit, musicConfig.getSearchPageSize());
+        int widePageSize = Math.max(limit, musicConfig.getSearchWidePageSize());
+        List<SongMatcher.Match> ranked = SongMatcher.rank(artist, song, requestSearch(artist, song, pageSize));
+        if (SongMatcher.shouldWiden(ranked, pageSize, widePageSize, musicConfig.getSearchMatchThreshold())) {
+            ranked = SongMatcher.rank(artist, song, requestSearch(artist, song, widePageSize));
         }
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+    
+    /**
+     * 请求一页搜索结果，按接口返回顺序
+     */
+    private List<NeteaseSong> requestSearch(String artist, String song, int pageSize) {
+        String searchQuery = artist + " " + song;
+        String url = UriComponentsBuilder
+            .fromHttpUrl(musicConfig.getSearchUrl())
+            .queryParam("s", searchQuery)
+            .queryParam("type", 1)
+            .queryParam("limit", pageSize)
+            .build()
+            .toUriString();
         
-        return songIds;
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Accept", "application/json, text/plain, */*");
+        headers.set("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8");
+        headers.set("Referer", "https://music.163.com/");
+        headers.set("Cache-Control", "no-cache");
+        headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
+        
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+        
+        // 直接从响应流中解析，不先读成字符串
+        return RequestTimeline.time(AskStage.SONG_SEARCH, () -> restTemplate.execute(url, HttpMethod.GET,
+            restTemplate.httpEntityCallback(entity), response -> upstreamPayloads.searchResults(response.getBody(), pageSize)));
     }
     
     /**
      * 获取歌曲播放链接
+     * 结果按链接自身的过期时间缓存在 musicUrlCache 中（见 {@link PlayUrlLifetime}），
+     * 没有链接或上游出错时记入否定缓存；命中的链接临近过期时照常返回，同时在后台重新获取
      */
     @Override
     public String getSongUrl(String songId) {
-        try {
-            // 使用注入的RestTemplate
-            
-            String url = UriComponentsBuilder
-                .fromHttpUrl("https://wyy-api-three.vercel.app/song/url")
-                .queryParam("id", songId)
-                .queryParam("quality", "flac")
-                .build()
-                .toUriString();
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Accept", "application/json, text/plain, */*");
-            headers.set("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8");
-            headers.set("Cache-Control", "no-cache");
-            headers.set("Pragma", "no-cache");
-            headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
-            
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-            
-            JsonNode jsonNode = objectMapper.readTree(response.getBody());
-            
-            // 检查多种可能的响应格式
-            JsonNode urlNode = jsonNode.get("url");
-            if (urlNode != null && !urlNode.isNull() && !urlNode.asText().isEmpty()) {
-                return urlNode.asText();
-            }
-            
-            // 有些API可能返回data字段
-            JsonNode data = jsonNode.get("data");
-            if (data != null) {
-                urlNode = data.get("url");
-                if (urlNode != null && !urlNode.isNull() && !urlNode.asText().isEmpty()) {
-                    return urlNode.asText();
+        Cache urlCache = getCache(CacheConfig.MUSIC_URL_CACHE);
+        if (urlCache != null) {
+            PlayUrl cached = urlCache.get(songId, PlayUrl.class);
+            if (cached != null) {
+                if (playUrlLifetime.needsRefresh(cached)) {
+                    refreshSongUrl(songId, urlCache);
                 }
+                return cached.url();
             }
-            
-            // 检查是否有错误信息
-            JsonNode message = jsonNode.get("message");
-            JsonNode error = jsonNode.get("error");
-            if (message != null || error != null) {
-                String errorMsg = message != null ? message.asText() : error.asText();
-                logger.error("API返回错误: {}", errorMsg);
+        }
+        if (negativeLookupCache != null && negativeLookupCache.get(Lookup.URL, songId) != null) {
+            return null;
+        }
+        String playUrl;
+        try {
+            // 相同歌曲的并发链接请求共享同一次上游调用
+            playUrl = urlFlight.execute(songId, () -> doGetSongUrl(songId));
+        } catch (RuntimeException e) {
+            if (SingleFlight.isCancellation(e)) {
+                logger.debug("获取播放链接已取消: {}", songId);
+                return null;
             }
-            
-        } catch (Exception e) {
             logger.error("获取播放链接失败: {}", songId, e);
+            recordMiss(Lookup.URL, songId, Outcome.UPSTREAM_ERROR);
+            return null;
+        }
+        if (playUrl == null) {
+            recordMiss(Lookup.URL, songId, Outcome.NOT_FOUND);
+        }
+        cachePlayUrl(urlCache, songId, playUrl);
+        return playUrl;
+    }
+    
+    /**
+     * 在刷新线程池中重新获取播放链接，线程池已满时放弃本次刷新（旧链接在过期前仍可用）
+     */
+    private void refreshSongUrl(String songId, Cache urlCache) {
+        if (!refreshingUrls.add(songId)) {
+            return;
         }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    cachePlayUrl(urlCache, songId, urlFlight.execute(songId, () -> doGetSongUrl(songId)));
+                } catch (RuntimeException e) {
+                    // 刷新失败时保留旧链接，过期后由下一次请求重新获取
+                    logger.warn("刷新播放链接失败: {}", songId, e);
+                } finally {
+                    refreshingUrls.remove(songId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshingUrls.remove(songId);
+            logger.debug("刷新线程池已满，跳过播放链接刷新: {}", songId);
+        }
+    }
+    
+    private void cachePlayUrl(Cache urlCache, String songId, String playUrl) {
+        if (playUrl == null || urlCache == null) {
+            return;
+        }
+        PlayUrl entry = playUrlLifetime.entry(playUrl);
+        if (entry != null) {
+            urlCache.put(songId, entry);
+        }
+    }
+    
+    private Cache getCache(String name) {
+        return cacheManager != null ? cacheManager.getCache(name) : null;
+    }
+    
+    /**
+     * 调用播放链接解析接口
+     * @return 播放链接，没有链接时返回null；调用失败时抛出异常
+     */
+    private String doGetSongUrl(String songId) {
+        // 使用注入的RestTemplate
         
-        return null;
+        String url = UriComponentsBuilder
+            .fromHttpUrl(musicConfig.getSongUrlApi())
+            .queryParam("id", songId)
+            .queryParam("quality", "flac")
+            .build()
+            .toUriString();
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Accept", "application/json, text/plain, */*");
+        headers.set("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8");
+        headers.set("Cache-Control", "no-cache");
+        headers.set("Pragma", "no-cache");
+        headers.set("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36");
+        
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+        
+        return RequestTimeline.time(AskStage.SONG_URL, () -> restTemplate.execute(url, HttpMethod.GET,
+            restTemplate.httpEntityCallback(entity), response -> upstreamPayloads.playUrl(response.getBody())));
     }
     
     /**
@@ -214,11 +350,12 @@ public class MusicService implements IMusicService {
     
     /**
      * 获取多首音乐信息
+     * 各首歌曲并行解析，返回结果保持AI回答中的顺序
      */
     @Override
     public List<MusicInfo> getMusicList(String aiAnswer, int count) {
         List<MusicInfo> musicList = new ArrayList<>();
-        List<SongInfo> songInfoList = extractMultipleSongInfo(aiAnswer);
+        List<SongInfo> songInfoList = RequestTimeline.time(AskStage.ANSWER_PARSE, () -> extractMultipleSongInfo(aiAnswer));
         
         if (songInfoList.isEmpty()) {
             return musicList;
@@ -227,37 +364,139 @@ public class MusicService implements IMusicService {
         // 限制处理的歌曲数量
         int processCount = Math.min(songInfoList.size(), count);
         
+        // 单首歌曲直接在当前线程解析，省去线程切换
+        if (processCount == 1) {
+            MusicInfo music = resolveSong(songInfoList.get(0));
+            if (music != null) {
+                musicList.add(music);
+            }
+            return musicList;
+        }
+        
+        // 单曲期限从歌曲开始执行时计算，排队时间不占用单曲期限；总期限从提交时计算，限制整个歌单。
+        // 到期未完成的任务被取消，排队中的任务不再执行
+        long songTimeout = musicConfig.getSongTimeout().toNanos();
+        long totalDeadline = System.nanoTime() + musicConfig.getTotalTimeout().toNanos();
+        List<SongTask> tasks = new ArrayList<>(processCount);
         for (int i = 0; i < processCount; i++) {
             SongInfo songInfo = songInfoList.get(i);
+            SongTask task = new SongTask(RequestTimeline.propagate(() -> resolveSong(songInfo))::get);
             try {
-                // 为每首歌曲搜索一个最佳匹配
-                List<String> songIds = searchSongs(songInfo.getArtist(), songInfo.getSong(), 1);
-                if (!songIds.isEmpty()) {
-                    String songId = songIds.get(0);
-                    String playUrl = getSongUrl(songId);
-                    if (playUrl != null) {
-                        musicList.add(new MusicInfo(songInfo.getArtist(), songInfo.getSong(), songId, playUrl));
+                lookupExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // 线程池和队列已满时放弃这首歌曲，不在请求线程上同步解析
+                logger.warn("解析线程池已满，跳过歌曲: {} - {}", songInfo.getArtist(), songInfo.getSong());
+                task.cancel(false);
+            }
+            tasks.add(task);
+        }
+        
+        // 按原始顺序收集已完成的结果
+        int expired = 0;
+        collect:
+        for (SongTask task : tasks) {
+            while (!task.isCancelled()) {
+                long now = System.nanoTime();
+                // 尚未开始的任务最早也要 now + songTimeout 才到单曲期限，等到那时再重新判断
+                long deadline = Math.min(totalDeadline, task.isStarted() ? task.startedAt() + songTimeout : now + songTimeout);
+                if (deadline - now <= 0 && !task.isDone()) {
+                    task.cancel(true);
+                    expired++;
+                    break;
+                }
+                try {
+                    MusicInfo music = task.get(Math.max(0, deadline - now), TimeUnit.NANOSECONDS);
+                    if (music != null) {
+                        musicList.add(music);
                     }
+                    break;
+                } catch (TimeoutException e) {
+                    // 重新计算期限
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.warn("歌单解析被中断");
+                    tasks.forEach(pending -> pending.cancel(true));
+                    break collect;
+                } catch (ExecutionException e) {
+                    // resolveSong 内部已处理异常，这里不会发生
+                    logger.warn("歌单解析失败", e.getCause());
+                    break;
+                } catch (CancellationException e) {
+                    break;
                 }
-            } catch (Exception e) {
-                logger.warn("获取歌曲信息失败: {} - {}", songInfo.getArtist(), songInfo.getSong(), e);
-                // 继续处理下一首歌曲
             }
         }
+        if (expired > 0) {
+            logger.warn("歌单解析超时(单曲{}ms/总计{}ms)，{} 首歌曲未完成，返回已完成的歌曲",
+                musicConfig.getSongTimeout().toMillis(), musicConfig.getTotalTimeout().toMillis(), expired);
+        }
         
         return musicList;
     }
     
-
+    /**
+     * 解析单首歌曲：搜索歌曲ID并获取播放链接
+     * @return 音乐信息，未找到或失败时返回null
+     */
+    private MusicInfo resolveSong(SongInfo songInfo) {
+        try {
+            // 为每首歌曲搜索一个最佳匹配
+            SongMatch match = cachedBestMatch(songInfo.getArtist(), songInfo.getSong());
+            if (match != null) {
+                String playUrl = getSongUrl(match.songId());
+                if (playUrl != null) {
+                    return new MusicInfo(songInfo.getArtist(), songInfo.getSong(), match.songId(), playUrl,
+                        songInfo.getLyric(), match.confidence());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("获取歌曲信息失败: {} - {}", songInfo.getArtist(), songInfo.getSong(), e);
+        }
+        return null;
+    }
+    
+    /**
+     * 记录开始执行时间的歌曲解析任务，单曲期限从开始执行时计算
+     */
+    private static final class SongTask extends FutureTask<MusicInfo> {
+        
+        private volatile boolean started;
+        private volatile long startedAt;
+        
+        SongTask(Callable<MusicInfo> callable) {
+            super(callable);
+        }
+        
+        @Override
+        public void run() {
+            startedAt = System.nanoTime();
+            started = true;
+            super.run();
+        }
+        
+        boolean isStarted() {
+            return started;
+        }
+        
+        long startedAt() {
+            return startedAt;
+        }
+    }
     
     // 内部类用于存储歌曲信息
     public static class SongInfo {
         private final String artist;
         private final String song;
+        private final String lyric;
         
         public SongInfo(String artist, String song) {
+            this(artist, song, "");
+        }
+        
+        public SongInfo(String artist, String song, String lyric) {
             this.artist = artist;
             this.song = song;
+            this.lyric = lyric;
         }
         
         public String getArtist() {
@@ -267,5 +506,12 @@ public class MusicService implements IMusicService {
         public String getSong() {
             return song;
         }
+        
+        /**
+         * AI回答中引用的歌词，可能为空字符串
+         */
+        public String getLyric() {
+            return lyric;
+        }
     }
 }
\ No newline at end of file
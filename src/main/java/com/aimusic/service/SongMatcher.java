@@ -0,0 +1,214 @@
+package com.aimusic.service;
+
+import com.aimusic.cache.SongCacheKey;
+import com.aimusic.dto.upstream.NeteaseSong;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 搜索结果与AI给出的（歌手，歌名）的匹配打分
+ * 歌名和歌手按 {@link SongCacheKey#normalize} 折叠繁简、全半角和大小写后去掉空白与标点，
+ * 再按字符二元组的Dice系数计算相似度，完全相同为1。综合得分 = 0.6 × 歌名 + 0.4 × 歌手，
+ * 歌名取原名、去掉括号后缀的原名和各别名中最相似的一个，歌手同样参考别名；在此基础上：
+ * <ul>
+ *   <li>括号后缀或别名中带有版本标记（Live、伴奏、翻唱、DJ版等）而AI给出的歌名中没有时扣分</li>
+ *   <li>时长不足一分钟（铃声、试听片段）扣分</li>
+ *   <li>按热度小幅加分，主要用于区分同名同歌手的重复收录</li>
+ * </ul>
+ * 得分限制在0到1之间，最佳匹配的得分即为返回给前端的匹配置信度
+ */
+final class SongMatcher {
+
+    private static final double TITLE_WEIGHT = 0.6;
+    private static final double ARTIST_WEIGHT = 0.4;
+    private static final double VERSION_PENALTY = 0.3;
+    private static final double SHORT_PENALTY = 0.2;
+    private static final double POPULARITY_WEIGHT = 0.05;
+    private static final long SHORT_DURATION_MS = 60_000;
+
+    // 规范化后的版本标记，英文标记按整词匹配（见 containsMarker）
+    private static final String[] VERSION_MARKERS = {
+        "live", "现场", "演唱会", "伴奏", "karaoke", "ktv", "instrumental", "纯音乐", "翻唱", "翻自", "cover",
+        "钢琴版", "吉他版", "piano", "dj", "remix", "混音", "铃声", "片段", "试听", "demo", "加速", "降调"
+    };
+
+    private SongMatcher() {
+    }
+
+    /**
+     * 带得分的搜索结果
+     */
+    record Match(NeteaseSong song, double score) {
+    }
+
+    /**
+     * 按得分从高到低排序，得分相同时热度高的在前，再相同时保持接口返回的顺序
+     */
+    static List<Match> rank(String artist, String song, List<NeteaseSong> candidates) {
+        String queryArtist = compact(artist);
+        String queryTitle = compact(song);
+        String queryText = SongCacheKey.normalize(song);
+        List<Match> matches = new ArrayList<>(candidates.size());
+        for (NeteaseSong candidate : candidates) {
+            matches.add(new Match(candidate, score(queryArtist, queryTitle, queryText, candidate)));
+        }
+        matches.sort(Comparator.comparingDouble(Match::score)
+            .thenComparingDouble(match -> match.song().popularity()).reversed());
+        return matches;
+    }
+
+    /**
+     * 第一页中最佳匹配的得分低于阈值、且上游可能还有更多结果（返回数等于请求数）时需要扩大搜索
+     */
+    static boolean shouldWiden(List<Match> ranked, int requested, int widePageSize, double threshold) {
+        return widePageSize > requested && !ranked.isEmpty() && ranked.size() >= requested
+            && ranked.get(0).score() < threshold;
+    }
+
+    /**
+     * 取排序后的前limit个歌曲ID
+     */
+    static List<String> topIds(List<Match> ranked, int limit) {
+        List<String> songIds = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && songIds.size() < limit; i++) {
+            songIds.add(ranked.get(i).song().id());
+        }
+        return songIds;
+    }
+
+    private static double score(String queryArtist, String queryTitle, String queryText, NeteaseSong candidate) {
+        String name = candidate.name();
+        int suffixStart = suffixStart(name);
+        double title = similarity(queryTitle, compact(name));
+        if (suffixStart > 0) {
+            title = Math.max(title, similarity(queryTitle, compact(name.substring(0, suffixStart))));
+        }
+        boolean versioned = isVersion(queryText, SongCacheKey.normalize(name.substring(suffixStart)));
+        for (String alias : candidate.aliases()) {
+            title = Math.max(title, similarity(queryTitle, compact(alias)));
+            versioned = versioned || isVersion(queryText, SongCacheKey.normalize(alias));
+        }
+
+        double artist = 0;
+        StringBuilder allArtists = new StringBuilder();
+        for (String artistName : candidate.artists()) {
+            String compacted = compact(artistName);
+            artist = Math.max(artist, similarity(queryArtist, compacted));
+            allArtists.append(compacted);
+        }
+        // 合唱歌曲：AI可能写成 "周杰伦/费玉清"
+        if (candidate.artists().size() > 1) {
+            artist = Math.max(artist, similarity(queryArtist, allArtists.toString()));
+        }
+        for (String alias : candidate.artistAliases()) {
+            artist = Math.max(artist, similarity(queryArtist, compact(alias)));
+        }
+
+        double score = TITLE_WEIGHT * title + ARTIST_WEIGHT * artist;
+        if (versioned) {
+            score -= VERSION_PENALTY;
+        }
+        if (candidate.durationMs() > 0 && candidate.durationMs() < SHORT_DURATION_MS) {
+            score -= SHORT_PENALTY;
+        }
+        score += POPULARITY_WEIGHT * Math.min(Math.max(candidate.popularity(), 0), 100) / 100;
+        return Math.min(Math.max(score, 0), 1);
+    }
+
+    /**
+     * 歌名中版本说明的起始位置："后来 (Live)"、"后来【伴奏】"、"后来 - DJ版"，没有时返回名称长度
+     */
+    static int suffixStart(String name) {
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '(' || c == '（' || c == '[' || c == '【') {
+                return i;
+            }
+            if (c == '-' && name.charAt(i - 1) == ' ' && i + 1 < name.length() && name.charAt(i + 1) == ' ') {
+                return i;
+            }
+        }
+        return name.length();
+    }
+
+    // 规范化后的文本中带有版本标记、而AI给出的歌名中没有
+    private static boolean isVersion(String queryText, String text) {
+        for (String marker : VERSION_MARKERS) {
+            if (containsMarker(text, marker) && !containsMarker(queryText, marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 英文标记要求前后不是英文字母或数字："Live"、"DJ版" 匹配，"Still Alive"、"Discover"、"Demons" 不匹配；
+     * 中文标记按子串匹配
+     */
+    static boolean containsMarker(String text, String marker) {
+        if (marker.charAt(0) >= 0x80) {
+            return text.contains(marker);
+        }
+        for (int start = text.indexOf(marker); start >= 0; start = text.indexOf(marker, start + 1)) {
+            int end = start + marker.length();
+            if ((start == 0 || !isAsciiLetterOrDigit(text.charAt(start - 1)))
+                && (end == text.length() || !isAsciiLetterOrDigit(text.charAt(end)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * 规范化后只保留字母和数字
+     */
+    static String compact(String text) {
+        String normalized = SongCacheKey.normalize(text);
+        StringBuilder sb = null;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                if (sb == null) {
+                    sb = new StringBuilder(normalized.length()).append(normalized, 0, i);
+                }
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? normalized : sb.toString();
+    }
+
+    /**
+     * 字符二元组的Dice系数，单个字符的字符串只在完全相同时为1
+     */
+    static double similarity(String a, String b) {
+        if (a.equals(b)) {
+            return a.isEmpty() ? 0 : 1;
+        }
+        if (a.length() < 2 || b.length() < 2) {
+            return 0;
+        }
+        int pairsA = a.length() - 1;
+        int pairsB = b.length() - 1;
+        boolean[] used = new boolean[pairsB];
+        int common = 0;
+        for (int i = 0; i < pairsA; i++) {
+            char first = a.charAt(i);
+            char second = a.charAt(i + 1);
+            for (int j = 0; j < pairsB; j++) {
+                if (!used[j] && b.charAt(j) == first && b.charAt(j + 1) == second) {
+                    used[j] = true;
+                    common++;
+                    break;
+                }
+            }
+        }
+        return 2.0 * common / (pairsA + pairsB);
+    }
+}
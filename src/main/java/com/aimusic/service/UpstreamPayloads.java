@@ -0,0 +1,381 @@
+package com.aimusic.service;
+
+import com.aimusic.dto.upstream.ChatCompletionChunk;
+import com.aimusic.dto.upstream.ChatCompletionRequest;
+import com.aimusic.dto.upstream.ChatMessage;
+import com.aimusic.dto.upstream.NeteaseSong;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上游接口的请求体构建与响应解析
+ * 同步（RestTemplate）与异步（HttpClient）两种实现共用，保证两条路径的报文完全一致。
+ * 使用Spring管理的ObjectMapper（Spring Boot自动配置，与接口响应共用），请求体和流式事件按类型预先绑定读写器
+ *
+ * <p>响应按token流式解析，只取需要的字段，不构建 JsonNode 树；搜索结果取够所需的歌曲后即停止解析。
+ * 解析不关闭传入的输入流，由调用方（RestTemplate 的响应、HttpClient 的 body）负责读完和释放连接
+ */
+@Component
+final class UpstreamPayloads {
+
+    private final JsonFactory jsonFactory;
+    private final ObjectWriter chatRequestWriter;
+    private final ObjectReader chatChunkReader;
+
+    UpstreamPayloads(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory().rebuild()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+        this.chatRequestWriter = objectMapper.writerFor(ChatCompletionRequest.class);
+        this.chatChunkReader = objectMapper.readerFor(ChatCompletionChunk.class);
+    }
+
+    /**
+     * 构建chat completions请求体
+     */
+    static ChatCompletionRequest chatRequest(String model, String systemPrompt, String question, boolean stream) {
+        return new ChatCompletionRequest(model,
+            List.of(ChatMessage.system(systemPrompt), ChatMessage.user(question)),
+            500, 0.7, stream ? Boolean.TRUE : null);
+    }
+
+    /**
+     * 序列化请求体
+     */
+    byte[] toJson(ChatCompletionRequest request) throws IOException {
+        return chatRequestWriter.writeValueAsBytes(request);
+    }
+
+    /**
+     * 从流式响应的一个SSE事件中取出 choices[0].delta.content
+     * @return 本次增量内容，事件中没有内容（如首个只带role的事件）时返回null
+     */
+    String chatDelta(String data) throws IOException {
+        ChatCompletionChunk chunk = chatChunkReader.readValue(data);
+        if (chunk.choices() == null || chunk.choices().isEmpty()) {
+            return null;
+        }
+        ChatCompletionChunk.Choice choice = chunk.choices().get(0);
+        return choice != null && choice.delta() != null ? choice.delta().content() : null;
+    }
+
+    /**
+     * 从chat completions响应体中取出 choices[0].message.content
+     * @return 回答内容，响应中没有该字段时返回null
+     */
+    String chatContent(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return chatContent(parser);
+        }
+    }
+
+    String chatContent(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return chatContent(parser);
+        }
+    }
+
+    /**
+     * 从网易云搜索响应体中按顺序取出前limit首歌曲，取够后不再解析剩余的歌曲
+     * @return 歌曲（ID、歌名、歌手），没有匹配的歌曲时为空列表
+     * @throws IllegalStateException 接口返回错误码或没有result字段（如被限流）
+     */
+    List<NeteaseSong> searchResults(InputStream body, int limit) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return searchResults(parser, limit);
+        }
+    }
+
+    List<NeteaseSong> searchResults(byte[] body, int limit) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return searchResults(parser, limit);
+        }
+    }
+
+    /**
+     * 从播放链接接口响应体中取出链接，兼容顶层url和data.url两种格式
+     * @return 播放链接，没有链接（无版权、已下架）时返回null
+     * @throws IllegalStateException 接口返回错误码或错误信息
+     */
+    String playUrl(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return playUrl(parser);
+        }
+    }
+
+    String playUrl(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return playUrl(parser);
+        }
+    }
+
+    private static String chatContent(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                // 只看第一个choice
+                return parser.nextToken() == JsonToken.START_OBJECT ? messageContent(parser) : null;
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    // 当前位于choice对象开头
+    private static String messageContent(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("message".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String messageField = parser.currentName();
+                    parser.nextToken();
+                    if ("content".equals(messageField)) {
+                        return scalarText(parser);
+                    }
+                    parser.skipChildren();
+                }
+                return null;
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    private static List<NeteaseSong> searchResults(JsonParser parser, int limit) throws IOException {
+        List<NeteaseSong> songs = new ArrayList<>();
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalStateException("搜索接口响应缺少result");
+        }
+        boolean hasResult = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("code".equals(field)) {
+                checkCode(parser);
+            } else if ("result".equals(field)) {
+                hasResult = true;
+                if (value != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                } else if (collectSongs(parser, songs, limit)) {
+                    return songs;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (!hasResult) {
+            throw new IllegalStateException("搜索接口响应缺少result");
+        }
+        return songs;
+    }
+
+    /**
+     * 在result对象中收集歌曲
+     * @return 已取够limit首时返回true，此时停止解析
+     */
+    private static boolean collectSongs(JsonParser parser, List<NeteaseSong> songs, int limit) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!"songs".equals(field) || value != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (songs.size() >= limit) {
+                    return true;
+                }
+                if (element == JsonToken.START_OBJECT) {
+                    NeteaseSong song = song(parser);
+                    if (song != null) {
+                        songs.add(song);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return songs.size() >= limit;
+    }
+
+    /**
+     * 当前位于歌曲对象开头，读取id、name、歌手、别名、时长和热度，跳过专辑等其余字段
+     * @return 歌曲，没有id时返回null
+     */
+    private static NeteaseSong song(JsonParser parser) throws IOException {
+        String id = null;
+        String name = "";
+        List<String> artists = List.of();
+        List<String> aliases = new ArrayList<>(2);
+        List<String> artistAliases = new ArrayList<>(2);
+        long durationMs = 0;
+        double popularity = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = scalarText(parser);
+                case "name" -> name = scalarOrEmpty(parser);
+                case "artists" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        artists = artists(parser, artistAliases);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "alias", "transNames" -> addTexts(parser, aliases);
+                case "duration" -> durationMs = value.isNumeric() ? parser.getValueAsLong() : 0;
+                case "pop", "popularity" -> popularity = value.isNumeric() ? parser.getValueAsDouble() : 0;
+                default -> parser.skipChildren();
+            }
+        }
+        return id != null ? new NeteaseSong(id, name, artists, aliases, artistAliases, durationMs, popularity) : null;
+    }
+
+    // 当前位于artists数组开头，歌手的alias和trans收集到aliases中
+    private static List<String> artists(JsonParser parser, List<String> aliases) throws IOException {
+        List<String> names = new ArrayList<>(2);
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (element != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name" -> addTexts(parser, names);
+                    case "alias", "trans" -> addTexts(parser, aliases);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return names;
+    }
+
+    // 当前位于字符串或字符串数组上，非空的字符串加入texts
+    private static void addTexts(JsonParser parser, List<String> texts) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            String text = scalarOrEmpty(parser);
+            if (!text.isEmpty()) {
+                texts.add(text);
+            }
+            return;
+        }
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (element == JsonToken.VALUE_STRING && parser.getTextLength() > 0) {
+                texts.add(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static String playUrl(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        String url = null;
+        String dataUrl = null;
+        String message = null;
+        String error = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "code" -> checkCode(parser);
+                case "url" -> url = scalarText(parser);
+                case "message" -> message = errorText(parser);
+                case "error" -> error = errorText(parser);
+                case "data" -> {
+                    // 有些API可能返回data字段
+                    if (value == JsonToken.START_OBJECT) {
+                        dataUrl = dataUrl(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (url != null && !url.isEmpty()) {
+            return url;
+        }
+        if (dataUrl != null && !dataUrl.isEmpty()) {
+            return dataUrl;
+        }
+
+        // 检查是否有错误信息
+        if (message != null || error != null) {
+            throw new IllegalStateException("API返回错误: " + (message != null ? message : error));
+        }
+        return null;
+    }
+
+    // 当前位于data对象开头
+    private static String dataUrl(JsonParser parser) throws IOException {
+        String url = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("url".equals(field)) {
+                url = scalarText(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return url;
+    }
+
+    /**
+     * 当前值的文本，null返回null，对象和数组跳过并返回空字符串（与 JsonNode.asText 一致）
+     */
+    private static String scalarText(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getValueAsString();
+    }
+
+    private static String scalarOrEmpty(JsonParser parser) throws IOException {
+        String text = scalarText(parser);
+        return text != null ? text : "";
+    }
+
+    // 出现message/error字段即视为错误，值为null时按"null"记录
+    private static String errorText(JsonParser parser) throws IOException {
+        String text = scalarText(parser);
+        return text != null ? text : "null";
+    }
+
+    /**
+     * 响应中的code不是200时视为调用失败，当前位于code的值上
+     */
+    private static void checkCode(JsonParser parser) throws IOException {
+        if (parser.currentToken().isNumeric() && parser.getValueAsInt() != 200) {
+            throw new IllegalStateException("上游返回错误码 " + parser.getValueAsInt());
+        }
+        parser.skipChildren();
+    }
+}
@@ -0,0 +1,60 @@
+package com.aimusic.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 每个任务一个虚拟线程的执行器，语义与固定大小、有界队列、AbortPolicy 的线程池一致：
+ * 同时运行的任务不超过 concurrencyLimit，超出的任务在各自的虚拟线程里排队等待许可，
+ * 排队数也达到上限时直接拒绝，提交线程从不阻塞
+ */
+public final class BoundedVirtualThreadExecutor implements Executor {
+
+    private final ThreadFactory threadFactory;
+    // 已接收（运行中 + 排队中）的任务数
+    private final Semaphore slots;
+    // 运行中的任务数
+    private final Semaphore permits;
+
+    /**
+     * @param namePrefix 线程名前缀
+     * @param concurrencyLimit 同时运行的任务上限
+     * @param queueCapacity 等待运行的任务上限，0表示不排队
+     */
+    public BoundedVirtualThreadExecutor(String namePrefix, int concurrencyLimit, int queueCapacity) {
+        this.threadFactory = Thread.ofVirtual().name(namePrefix, 0).factory();
+        this.slots = new Semaphore(concurrencyLimit + queueCapacity);
+        this.permits = new Semaphore(concurrencyLimit);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!slots.tryAcquire()) {
+            throw new RejectedExecutionException("并发任务数已达上限");
+        }
+        try {
+            threadFactory.newThread(() -> run(task)).start();
+        } catch (RuntimeException | Error e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            // 排队期间被中断（如关闭），放弃该任务
+            slots.release();
+            return;
+        }
+        try {
+            task.run();
+        } finally {
+            permits.release();
+            slots.release();
+        }
+    }
+}
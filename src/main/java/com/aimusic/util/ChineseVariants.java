@@ -0,0 +1,70 @@
+package com.aimusic.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 繁简字形转换
+ * 映射表 text/t2s.txt 在类加载时读入一个按码位索引的数组，查表不分配对象。
+ * 只覆盖歌手名、歌名中常见的一对一字形，用于缓存键归一，不用于展示文本的转换
+ */
+public final class ChineseVariants {
+
+    private static final String TABLE_RESOURCE = "/text/t2s.txt";
+
+    private static final int CJK_START = 0x4E00;
+    private static final int CJK_END = 0x9FFF;
+
+    /**
+     * 繁体字码位 - CJK_START → 简体字，0表示无需转换
+     */
+    private static final char[] SIMPLIFIED = loadTable();
+
+    private ChineseVariants() {
+    }
+
+    /**
+     * 繁体字转为对应的简体字，其他字符原样返回
+     */
+    public static int toSimplified(int codePoint) {
+        if (codePoint < CJK_START || codePoint > CJK_END) {
+            return codePoint;
+        }
+        char simplified = SIMPLIFIED[codePoint - CJK_START];
+        return simplified != 0 ? simplified : codePoint;
+    }
+
+    /**
+     * 是否为映射表中的繁体字
+     */
+    public static boolean isTraditional(int codePoint) {
+        return codePoint >= CJK_START && codePoint <= CJK_END && SIMPLIFIED[codePoint - CJK_START] != 0;
+    }
+
+    private static char[] loadTable() {
+        char[] table = new char[CJK_END - CJK_START + 1];
+        try (InputStream in = ChineseVariants.class.getResourceAsStream(TABLE_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("缺少繁简映射表: " + TABLE_RESOURCE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() != 2 || line.startsWith("#")) {
+                    continue;
+                }
+                char traditional = line.charAt(0);
+                if (traditional >= CJK_START && traditional <= CJK_END) {
+                    table[traditional - CJK_START] = line.charAt(1);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取繁简映射表失败", e);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,110 @@
+package com.aimusic.util;
+
+import java.util.List;
+
+/**
+ * 请求指纹
+ * 直接在请求字段的字符上流式计算64位非加密哈希（FNV-1a + 末尾混淆），
+ * 不拼接中间字符串，不依赖MessageDigest。用于去重判定和缓存键的哈希值，不可用于安全场景。
+ *
+ * <p>用法：从 {@link #SEED} 开始依次调用各 mix 方法，最后调用 {@link #finish(long)}。
+ */
+public final class RequestFingerprint {
+
+    public static final long SEED = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+
+    private static final List<String> DEFAULT_GENRES = List.of("pop");
+
+    private static final List<String> DEFAULT_REGIONS = List.of("china");
+
+    private RequestFingerprint() {
+    }
+
+    /**
+     * 计算 /api/ask 请求的指纹
+     * @param clientIp 客户端IP
+     * @param question 用户问题（忽略首尾空白）
+     * @param musicCount 歌曲数量
+     * @param genres 流派列表，为null时按"pop"处理
+     * @param regions 地区列表，为null时按"china"处理
+     */
+    public static long ofQuestion(String clientIp, String question, int musicCount,
+                                  List<String> genres, List<String> regions) {
+        long h = SEED;
+        h = mix(h, clientIp);
+        h = mixTrimmed(h, question);
+        h = mix(h, musicCount);
+        h = mix(h, genres != null ? genres : DEFAULT_GENRES);
+        h = mix(h, regions != null ? regions : DEFAULT_REGIONS);
+        return finish(h);
+    }
+
+    /**
+     * 混入一个字符串字段（包含长度，保证字段边界不会混淆）
+     */
+    public static long mix(long h, CharSequence value) {
+        if (value == null) {
+            return mix(h, -1);
+        }
+        return mixChars(h, value, 0, value.length());
+    }
+
+    /**
+     * 混入一个字符串字段，忽略首尾空白（等价于先trim再混入）
+     */
+    public static long mixTrimmed(long h, CharSequence value) {
+        if (value == null) {
+            return mix(h, -1);
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return mixChars(h, value, start, end);
+    }
+
+    /**
+     * 混入字符串列表（包含元素个数）
+     */
+    public static long mix(long h, List<? extends CharSequence> values) {
+        h = mix(h, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            h = mix(h, values.get(i));
+        }
+        return h;
+    }
+
+    /**
+     * 混入一个整数字段
+     */
+    public static long mix(long h, int value) {
+        h = (h ^ (value & 0xffff)) * PRIME;
+        h = (h ^ (value >>> 16)) * PRIME;
+        return h;
+    }
+
+    /**
+     * 结束计算，对累积状态做雪崩混淆（MurmurHash3 fmix64）
+     */
+    public static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long mixChars(long h, CharSequence value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            h = (h ^ value.charAt(i)) * PRIME;
+        }
+        return mix(h, end - start);
+    }
+}
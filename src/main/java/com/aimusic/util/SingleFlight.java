@@ -0,0 +1,164 @@
+package com.aimusic.util;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并（single-flight）
+ * 同一个key同时只执行一次加载，期间到达的相同请求等待并共享这次加载的结果。
+ * 同步加载因执行线程被中断（调用方取消）而失败时，这个失败不共享给等待者，等待者重新发起加载
+ *
+ * @param <K> 请求键类型，需正确实现equals/hashCode
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    // 加载方被取消时通知等待者重试，不携带堆栈
+    private static final RuntimeException LEADER_CANCELLED = new CancellationException("合并的加载已取消") {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+
+    /**
+     * 执行加载，若已有相同key的加载在进行中则等待其结果
+     * @param key 请求键
+     * @param loader 实际加载逻辑，在调用线程上执行
+     * @return 加载结果（可能来自其他线程的加载）
+     * @throws CancellationException 等待期间调用线程被中断（中断标记保留）
+     */
+    public V execute(K key, Supplier<V> loader) {
+        while (true) {
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                return load(key, flight, loader);
+            }
+            coalesced.increment();
+            try {
+                return await(existing);
+            } catch (CancellationException e) {
+                if (e != LEADER_CANCELLED) {
+                    throw e;
+                }
+                // 加载方被取消，由本线程重新加载
+            }
+        }
+    }
+
+    private V load(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+        executions.increment();
+        try {
+            V value = loader.get();
+            inFlight.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            // 先移除再通知，重试的等待者不会再取到这次加载
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(isCancellation(e) ? LEADER_CANCELLED : e);
+            throw e;
+        }
+    }
+
+    /**
+     * 异步版本：若已有相同key的加载在进行中则直接返回其结果的Future，不阻塞调用线程
+     * @param key 请求键
+     * @param loader 发起加载并返回Future，在调用线程上调用
+     * @return 加载结果的Future（调用方对它的complete/cancel不影响其他等待者）
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+
+        executions.increment();
+        CompletableFuture<V> loading;
+        try {
+            loading = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        loading.whenComplete((value, error) -> {
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight.copy();
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("等待合并的加载时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 失败是否由调用线程被取消（中断）引起，而不是加载本身出错：
+     * 线程带有中断标记，或异常链中有中断类异常（读超时 SocketTimeoutException 除外）
+     */
+    public static boolean isCancellation(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof CancellationException
+                || (cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 当前正在进行的加载数
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 实际执行的加载次数
+     */
+    public long executionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * 被合并（共享其他加载结果）的请求次数
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+}
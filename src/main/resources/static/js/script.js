@@ -194,36 +194,50 @@ function escapeHtml(text) {
     return div.innerHTML;
 }
 
+/**
+ * 在问答接口已解析好的歌曲中查找对应的歌曲（服务端已按匹配置信度选出最佳结果）
+ */
+function findResolvedSong(musicList, song) {
+    if (!musicList) {
+        return null;
+    }
+    return musicList.find(music => music && music.songId &&
+        music.artist === song.artist && music.song === song.songName) || null;
+}
+
 /**
  * 自动添加解析出的歌曲到播放列表
+ * 问答接口已返回的歌曲直接使用，只为没有返回的歌曲调用搜索接口
  */
-async function autoAddParsedSongsToPlaylist() {
+async function autoAddParsedSongsToPlaylist(musicList = null) {
     showToast(`正在搜索并添加 ${parsedSongs.length} 首歌曲到播放列表...`);
     
     for (const song of parsedSongs) {
         try {
-            const response = await fetch('/api/music/search', {
-                method: 'POST',
-                headers: {
-                    'Content-Type': 'application/json'
-                },
-                body: JSON.stringify({
-                    artist: song.artist,
-                    songName: song.songName
-                })
-            });
-            
-            if (response.ok) {
-                const result = await response.json();
-                const musicInfo = result.data;
-                if (musicInfo && musicInfo.songId) {
-                    // 检查歌曲是否已在播放列表中
-                    const existingIndex = currentPlaylist.findIndex(s => s.songId === musicInfo.songId);
-                    if (existingIndex === -1) {
-                        // 添加歌词信息到音乐信息中
-                        musicInfo.lyricText = song.lyricText;
-                        currentPlaylist.push(musicInfo);
-                    }
+            let musicInfo = findResolvedSong(musicList, song);
+            if (!musicInfo) {
+                const response = await fetch('/api/music/search', {
+                    method: 'POST',
+                    headers: {
+                        'Content-Type': 'application/json'
+                    },
+                    body: JSON.stringify({
+                        artist: song.artist,
+                        songName: song.songName
+                    })
+                });
+                if (response.ok) {
+                    const result = await response.json();
+                    musicInfo = result.data;
+                }
+            }
+            if (musicInfo && musicInfo.songId) {
+                // 检查歌曲是否已在播放列表中
+                const existingIndex = currentPlaylist.findIndex(s => s.songId === musicInfo.songId);
+                if (existingIndex === -1) {
+                    // 添加歌词信息到音乐信息中
+                    musicInfo.lyricText = song.lyricText;
+                    currentPlaylist.push(musicInfo);
                 }
             }
         } catch (error) {
@@ -379,7 +393,7 @@ function showAnswer(answer, musicList = null) {
 
     // 自动搜索并添加解析出的歌曲到播放列表
     if (parsedSongs && parsedSongs.length > 0) {
-        autoAddParsedSongsToPlaylist().then(() => {
+        autoAddParsedSongsToPlaylist(musicList).then(() => {
             // 添加完成后显示AI歌词解答
             displayCurrentSongLyrics();
         });
@@ -0,0 +1,77 @@
+package com.aimusic.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AnswerCacheKey 单元测试
+ */
+class AnswerCacheKeyTest {
+
+    @Test
+    void testPunctuationAndWhitespaceFolded() {
+        AnswerCacheKey key1 = AnswerCacheKey.of("失恋了怎么办", 5, "zh-CN", List.of("pop"), List.of("china"));
+        AnswerCacheKey key2 = AnswerCacheKey.of(" 失恋了，怎么办？ ", 5, "zh-CN", List.of("pop"), List.of("china"));
+
+        assertEquals(key1, key2);
+    }
+
+    @Test
+    void testQuotesAndBracketsFolded() {
+        AnswerCacheKey key1 = AnswerCacheKey.of("推荐《晴天》这样的歌", 5, "zh-CN", List.of("pop"), List.of("china"));
+        AnswerCacheKey key2 = AnswerCacheKey.of("推荐“晴天”这样的歌。", 5, "zh-CN", List.of("pop"), List.of("china"));
+        AnswerCacheKey key3 = AnswerCacheKey.of("推荐(晴天)这样的歌", 5, "zh-CN", List.of("pop"), List.of("china"));
+
+        assertEquals(key1, key2);
+        assertEquals(key1, key3);
+    }
+
+    @Test
+    void testSymbolsKept() {
+        assertNotEquals(question("1+1"), question("11"));
+        assertNotEquals(question("C#"), question("C"));
+        assertNotEquals(question("a<b"), question("ab"));
+        assertNotEquals(question("100%"), question("100"));
+        assertEquals("c#", AnswerCacheKey.normalizeQuestion("C#？"));
+    }
+
+    @Test
+    void testWidthAndCaseFolded() {
+        AnswerCacheKey key1 = AnswerCacheKey.of("Ｉ ｍｉｓｓ ＹＯＵ!", 5, "en-US", List.of("pop"), List.of("usa"));
+        AnswerCacheKey key2 = AnswerCacheKey.of("i miss you", 5, "en", List.of("pop"), List.of("usa"));
+
+        assertEquals(key1, key2);
+        assertEquals("imissyou", key1.question());
+    }
+
+    @Test
+    void testPreferencesTreatedAsSets() {
+        AnswerCacheKey key1 = AnswerCacheKey.of("下雨天", 5, "zh-CN", List.of("rock", "pop"), List.of("japan", "china"));
+        AnswerCacheKey key2 = AnswerCacheKey.of("下雨天", 5, "zh-CN", List.of("pop", "rock", "pop"), List.of("china", "japan"));
+
+        assertEquals(key1, key2);
+    }
+
+    @Test
+    void testDefaultPreferences() {
+        AnswerCacheKey key1 = AnswerCacheKey.of("下雨天", 5, "zh-CN", List.of(), null);
+        AnswerCacheKey key2 = AnswerCacheKey.of("下雨天", 5, "zh-CN", List.of("pop"), List.of("china"));
+
+        assertEquals(key1, key2);
+    }
+
+    @Test
+    void testDifferentCountOrLanguageNotShared() {
+        AnswerCacheKey base = AnswerCacheKey.of("下雨天", 5, "zh-CN", List.of("pop"), List.of("china"));
+
+        assertNotEquals(base, AnswerCacheKey.of("下雨天", 3, "zh-CN", List.of("pop"), List.of("china")));
+        assertNotEquals(base, AnswerCacheKey.of("下雨天", 5, "en-US", List.of("pop"), List.of("china")));
+    }
+
+    private static AnswerCacheKey question(String question) {
+        return AnswerCacheKey.of(question, 5, "zh-CN", List.of("pop"), List.of("china"));
+    }
+}
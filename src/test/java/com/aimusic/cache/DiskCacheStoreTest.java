@@ -0,0 +1,194 @@
+package com.aimusic.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.support.NullValue;
+
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DiskCacheStore 单元测试
+ */
+class DiskCacheStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEntriesSurviveReopen() throws Exception {
+        try (DiskCacheStore store = open(1000, Duration.ofDays(1))) {
+            for (int i = 0; i < 5000; i++) {
+                store.put("周杰伦_晴天_" + i, bytes("id" + i));
+            }
+            store.put("周杰伦_晴天_1", bytes("updated"));
+            assertTrue(store.remove("周杰伦_晴天_2"));
+        }
+
+        try (DiskCacheStore store = open(1000, Duration.ofDays(1))) {
+            assertEquals(4999, store.size());
+            assertEquals("id0", string(store.get("周杰伦_晴天_0")));
+            assertEquals("updated", string(store.get("周杰伦_晴天_1")));
+            assertNull(store.get("周杰伦_晴天_2"));
+            assertEquals("id4999", string(store.get("周杰伦_晴天_4999")));
+        }
+    }
+
+    @Test
+    void testIndexRebuiltAfterUncleanShutdown() throws Exception {
+        DiskCacheStore crashed = open(1000, Duration.ofDays(1));
+        crashed.put("a", bytes("1"));
+        crashed.put("b", bytes("2"));
+        crashed.remove("a");
+        // 模拟写到一半时退出：未调用close，数据文件末尾有残缺记录
+        Files.write(directory.resolve("songs.log"), new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        try (DiskCacheStore store = open(1000, Duration.ofDays(1))) {
+            assertNull(store.get("a"));
+            assertEquals("2", string(store.get("b")));
+            assertEquals(1, store.size());
+            store.put("c", bytes("3"));
+            store.flush();
+            assertEquals("3", string(store.get("c")));
+        }
+    }
+
+    @Test
+    void testCompactionDropsGarbageExpiredAndOldest() throws Exception {
+        MutableClock clock = new MutableClock();
+        try (DiskCacheStore store = new DiskCacheStore(directory, "songs", 3, Duration.ofHours(1), clock)) {
+            store.put("expired", bytes("x"));
+            clock.advance(Duration.ofHours(2));
+            for (int i = 0; i < 5; i++) {
+                store.put("k" + i, bytes("v" + i));
+            }
+            store.put("k4", bytes("v4-new"));
+            store.flush();
+            long before = store.logBytes();
+
+            assertTrue(store.needsCompaction());
+            assertTrue(store.compact());
+
+            assertEquals(3, store.size());
+            assertTrue(store.logBytes() < before);
+            assertEquals(store.liveBytes(), store.logBytes());
+            assertNull(store.get("expired"));
+            assertNull(store.get("k0"));
+            assertNull(store.get("k1"));
+            assertEquals("v2", string(store.get("k2")));
+            assertEquals("v4-new", string(store.get("k4")));
+        }
+
+        try (DiskCacheStore store = new DiskCacheStore(directory, "songs", 3, Duration.ofHours(1), clock)) {
+            assertEquals(3, store.size());
+            assertEquals("v3", string(store.get("k3")));
+        }
+    }
+
+    @Test
+    void testExpiredEntryNotReturned() throws Exception {
+        MutableClock clock = new MutableClock();
+        try (DiskCacheStore store = new DiskCacheStore(directory, "songs", 10, Duration.ofMinutes(5), clock)) {
+            store.put("key", bytes("value"));
+            store.flush();
+            assertEquals("value", string(store.get("key")));
+            clock.advance(Duration.ofMinutes(6));
+            assertNull(store.get("key"));
+        }
+    }
+
+    @Test
+    void testClear() throws Exception {
+        try (DiskCacheStore store = open(10, Duration.ofDays(1))) {
+            store.put("key", bytes("value"));
+            store.clear();
+            assertEquals(0, store.size());
+            assertEquals(0, store.logBytes());
+            assertNull(store.get("key"));
+        }
+    }
+
+    @Test
+    void testInterruptDoesNotCloseStore() throws Exception {
+        try (DiskCacheStore store = open(10, Duration.ofDays(1))) {
+            store.put("a", bytes("1"));
+            store.put("b", bytes("2"));
+            store.flush();
+
+            Thread.currentThread().interrupt();
+            // 读取或等待尚未完成时放弃（按未命中处理），已完成时照常返回，中断标记都会保留
+            store.get("a");
+            try {
+                store.remove("b");
+            } catch (InterruptedIOException e) {
+                // 放弃等待的删除仍由写线程执行完成
+            }
+            assertTrue(Thread.interrupted());
+
+            store.flush();
+            assertNull(store.get("b"));
+            assertEquals("1", string(store.get("a")));
+            store.put("c", bytes("3"));
+            store.flush();
+            assertEquals("3", string(store.get("c")));
+        }
+    }
+
+    @Test
+    void testCacheValueCodec() {
+        List<String> songIds = List.of("186016", "5257138");
+        assertEquals(songIds, TieredCaffeineCache.decode(TieredCaffeineCache.encode(songIds)));
+        assertEquals("186016", TieredCaffeineCache.decode(TieredCaffeineCache.encode("186016")));
+        assertSame(NullValue.INSTANCE, TieredCaffeineCache.decode(TieredCaffeineCache.encode(NullValue.INSTANCE)));
+        SongMatch match = new SongMatch("186016", 0.92);
+        assertEquals(match, TieredCaffeineCache.decode(TieredCaffeineCache.encode(match)));
+        assertNull(TieredCaffeineCache.encode(42));
+        assertNull(TieredCaffeineCache.encode(List.of(1, 2)));
+    }
+
+    private DiskCacheStore open(long maxEntries, Duration ttl) throws Exception {
+        return new DiskCacheStore(directory, "songs", maxEntries, ttl);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
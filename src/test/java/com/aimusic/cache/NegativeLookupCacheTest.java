@@ -0,0 +1,64 @@
+package com.aimusic.cache;
+
+import com.aimusic.cache.NegativeLookupCache.Lookup;
+import com.aimusic.cache.NegativeLookupCache.Outcome;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NegativeLookupCache 单元测试
+ */
+class NegativeLookupCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final NegativeLookupCache cache = new NegativeLookupCache(new CaffeineCache("musicMissCache",
+        Caffeine.newBuilder()
+            .ticker(nanos::get)
+            .expireAfter(NegativeLookupCache.expiry(Duration.ofMinutes(30), Duration.ofSeconds(30)))
+            .build()));
+
+    @Test
+    void testOutcomesExpireSeparately() {
+        SongCacheKey missing = SongCacheKey.of("不存在的歌手", "不存在的歌", 1);
+        SongCacheKey failed = SongCacheKey.of("周杰伦", "青花瓷", 1);
+        cache.put(Lookup.SEARCH, missing, Outcome.NOT_FOUND);
+        cache.put(Lookup.SEARCH, failed, Outcome.UPSTREAM_ERROR);
+
+        assertEquals(Outcome.NOT_FOUND, cache.get(Lookup.SEARCH, missing));
+        assertEquals(Outcome.UPSTREAM_ERROR, cache.get(Lookup.SEARCH, failed));
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertEquals(Outcome.NOT_FOUND, cache.get(Lookup.SEARCH, missing));
+        assertNull(cache.get(Lookup.SEARCH, failed), "上游错误只短暂缓存");
+    }
+
+    @Test
+    void testLookupsDoNotShareEntries() {
+        cache.put(Lookup.URL, "12345", Outcome.NOT_FOUND);
+
+        assertNull(cache.get(Lookup.SEARCH, "12345"));
+        assertEquals(Outcome.NOT_FOUND, cache.get(Lookup.URL, "12345"));
+    }
+
+    @Test
+    void testCountersTrackedPerLookupAndOutcome() {
+        cache.put(Lookup.URL, "1", Outcome.NOT_FOUND);
+        cache.put(Lookup.URL, "2", Outcome.UPSTREAM_ERROR);
+        cache.get(Lookup.URL, "1");
+        cache.get(Lookup.URL, "1");
+        cache.get(Lookup.URL, "3");
+
+        assertEquals(2, cache.getHitCount(Lookup.URL, Outcome.NOT_FOUND));
+        assertEquals(0, cache.getHitCount(Lookup.URL, Outcome.UPSTREAM_ERROR));
+        assertEquals(1, cache.getStoreCount(Lookup.URL, Outcome.UPSTREAM_ERROR));
+        assertEquals(0, cache.getStoreCount(Lookup.SEARCH, Outcome.NOT_FOUND));
+    }
+}
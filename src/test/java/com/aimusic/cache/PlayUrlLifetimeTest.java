@@ -0,0 +1,66 @@
+package com.aimusic.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PlayUrlLifetime 单元测试
+ */
+class PlayUrlLifetimeTest {
+
+    // 2024-01-01 12:00:00 北京时间
+    private static final Instant NOW = Instant.parse("2024-01-01T04:00:00Z");
+
+    private final PlayUrlLifetime lifetime = new PlayUrlLifetime(Duration.ofMinutes(15), Duration.ofHours(6),
+        Duration.ofMinutes(1), Duration.ofMinutes(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void testNeteasePathExpiry() {
+        PlayUrl entry = lifetime.entry("https://m701.music.126.net/20240101122000/0f3e9c2a/jdymusic/obj/1.flac");
+
+        assertNotNull(entry);
+        assertEquals(NOW.plus(Duration.ofMinutes(19)).toEpochMilli(), entry.expireAt());
+        assertEquals(NOW.plus(Duration.ofMinutes(14)).toEpochMilli(), entry.refreshAt());
+    }
+
+    @Test
+    void testQueryExpiry() {
+        long expires = NOW.plus(Duration.ofMinutes(30)).getEpochSecond();
+
+        PlayUrl entry = lifetime.entry("https://cdn.example.com/a.mp3?sign=abc&Expires=" + expires);
+
+        assertEquals(NOW.plus(Duration.ofMinutes(29)).toEpochMilli(), entry.expireAt());
+        assertEquals(NOW.plus(Duration.ofMinutes(10)).toEpochMilli(),
+            PlayUrlLifetime.signedExpiry("https://s3.example.com/a.mp3?X-Amz-Date=20240101T040000Z&X-Amz-Expires=600"));
+    }
+
+    @Test
+    void testDefaultAndMaxTtl() {
+        PlayUrl unsigned = lifetime.entry("http://music.url/song.mp3");
+        PlayUrl longLived = lifetime.entry("https://cdn.example.com/a.mp3?expires="
+            + NOW.plus(Duration.ofDays(7)).toEpochMilli());
+
+        assertEquals(NOW.plus(Duration.ofMinutes(15)).toEpochMilli(), unsigned.expireAt());
+        assertEquals(NOW.plus(Duration.ofHours(6)).toEpochMilli(), longLived.expireAt());
+    }
+
+    @Test
+    void testExpiredLinkNotCached() {
+        assertNull(lifetime.entry("https://m701.music.126.net/20240101120030/0f3e9c2a/jdymusic/obj/1.flac"));
+    }
+
+    @Test
+    void testRefreshWindow() {
+        PlayUrl fresh = new PlayUrl("u", NOW.plusSeconds(1).toEpochMilli(), NOW.plusSeconds(600).toEpochMilli());
+        PlayUrl stale = new PlayUrl("u", NOW.toEpochMilli(), NOW.plusSeconds(600).toEpochMilli());
+
+        assertFalse(lifetime.needsRefresh(fresh));
+        assertTrue(lifetime.needsRefresh(stale));
+    }
+}
@@ -0,0 +1,53 @@
+package com.aimusic.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SongCacheKey 单元测试
+ */
+class SongCacheKeyTest {
+
+    @Test
+    void testTraditionalAndSimplifiedShared() {
+        SongCacheKey key1 = SongCacheKey.of("周杰伦", "青花瓷", 1);
+        SongCacheKey key2 = SongCacheKey.of("周杰倫", "青花瓷", 1);
+
+        assertEquals(key1, key2);
+        assertEquals(key1.persistentKey(), key2.persistentKey());
+        assertEquals("陈奕迅", SongCacheKey.of("陳奕迅", "十年", 1).artist());
+    }
+
+    @Test
+    void testWidthCaseAndWhitespaceFolded() {
+        SongCacheKey key1 = SongCacheKey.of("  Ｔａｙｌｏｒ　 Swift ", "LOVE\tSTORY", 1);
+        SongCacheKey key2 = SongCacheKey.of("taylor swift", "love story", 1);
+
+        assertEquals(key1, key2);
+        assertEquals("taylor swift", key1.artist());
+    }
+
+    @Test
+    void testUnderscoreNoLongerCollides() {
+        // 旧的 artist + '_' + song 拼接中两者都是 "a_b_c"
+        assertNotEquals(SongCacheKey.of("a_b", "c", 1), SongCacheKey.of("a", "b_c", 1));
+        assertNotEquals(SongCacheKey.of("a_b", "c", 1).persistentKey(), SongCacheKey.of("a", "b_c", 1).persistentKey());
+    }
+
+    @Test
+    void testLimitDistinguishesEntries() {
+        assertNotEquals(SongCacheKey.of("五月天", "倔强", 1), SongCacheKey.of("五月天", "倔强", SongCacheKey.BEST_MATCH));
+    }
+
+    @Test
+    void testNormalizedInputReused() {
+        String artist = "adele";
+        String song = "青花瓷";
+
+        SongCacheKey key = SongCacheKey.of(artist, song, 1);
+
+        assertSame(artist, key.artist());
+        assertSame(song, key.song());
+    }
+}
@@ -0,0 +1,156 @@
+package com.aimusic.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TieredCaffeineCache 单元测试
+ */
+class TieredCaffeineCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private DiskCacheStore diskStore;
+
+    private TieredCaffeineCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        diskStore = new DiskCacheStore(directory, "music", 1000, Duration.ofDays(1));
+        cache = newCache();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        diskStore.close();
+    }
+
+    @Test
+    void testPutWritesBothTiers() throws Exception {
+        SongCacheKey key = SongCacheKey.of("周杰伦", "晴天", 5);
+        cache.put(key, List.of("186016", "186017"));
+        diskStore.flush();
+
+        assertEquals(List.of("186016", "186017"), cache.getNativeCache().getIfPresent(key));
+        assertEquals(List.of("186016", "186017"), TieredCaffeineCache.decode(diskStore.get(key.persistentKey())));
+    }
+
+    @Test
+    void testL1MissFallsBackToL2AndRefillsL1() throws Exception {
+        SongCacheKey key = SongCacheKey.of("周杰伦", "晴天", SongCacheKey.BEST_MATCH);
+        cache.put(key, new SongMatch("186016", 0.95));
+        diskStore.flush();
+        // 模拟重启：新的L1为空，L2保留
+        TieredCaffeineCache restarted = newCache();
+
+        Object value = restarted.get(key).get();
+
+        assertEquals(new SongMatch("186016", 0.95), value);
+        assertEquals(1, restarted.getDiskHitCount());
+        assertNotNull(restarted.getNativeCache().getIfPresent(key));
+        // 回填后直接命中L1，不再查L2
+        restarted.get(key);
+        assertEquals(1, restarted.getDiskHitCount());
+    }
+
+    @Test
+    void testMissInBothTiers() {
+        assertNull(cache.get("不存在"));
+        assertEquals(0, cache.getDiskHitCount());
+        assertEquals(1, cache.getDiskMissCount());
+    }
+
+    @Test
+    void testValueLoaderUsesL2BeforeLoading() throws Exception {
+        cache.put("key", "stored");
+        diskStore.flush();
+        TieredCaffeineCache restarted = newCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        String value = restarted.get("key", () -> {
+            loads.incrementAndGet();
+            return "loaded";
+        });
+
+        assertEquals("stored", value);
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testValueLoaderResultWrittenToL2() throws Exception {
+        assertEquals("loaded", cache.get("key", () -> "loaded"));
+        diskStore.flush();
+
+        assertEquals("loaded", newCache().get("key", String.class));
+    }
+
+    @Test
+    void testEvictRemovesFromBothTiers() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        cache.evict("a");
+
+        assertNull(cache.getNativeCache().getIfPresent("a"));
+        assertNull(diskStore.get("a"));
+        assertNull(newCache().get("a"));
+        assertEquals("2", newCache().get("b", String.class));
+        assertTrue(cache.evictIfPresent("b"));
+        assertFalse(cache.evictIfPresent("b"));
+    }
+
+    @Test
+    void testClearEmptiesBothTiers() {
+        cache.put("a", "1");
+        cache.put(SongCacheKey.of("周杰伦", "晴天", 5), List.of("186016"));
+
+        cache.clear();
+
+        assertEquals(0, cache.getNativeCache().estimatedSize());
+        assertEquals(0, diskStore.size());
+        assertNull(newCache().get("a"));
+    }
+
+    @Test
+    void testPutFromInterruptedThreadStillReachesL2() throws Exception {
+        Thread.currentThread().interrupt();
+        try {
+            cache.put("a", "1");
+            // 中断的线程读取L2按未命中处理，不影响后续读写
+            assertNull(newCache().get("b"));
+        } finally {
+            Thread.interrupted();
+        }
+        cache.put("b", "2");
+        diskStore.flush();
+
+        assertEquals("1", newCache().get("a", String.class));
+        assertEquals("2", newCache().get("b", String.class));
+    }
+
+    @Test
+    void testUnsupportedValuesStayInL1() {
+        Object key = new Object();
+        cache.put(key, "l1 only");
+        cache.put("number", 42);
+
+        assertEquals("l1 only", cache.get(key, String.class));
+        assertEquals(42, cache.get("number", Integer.class));
+        assertEquals(0, diskStore.size());
+    }
+
+    private TieredCaffeineCache newCache() {
+        return new TieredCaffeineCache("music", Caffeine.newBuilder().maximumSize(100).build(), diskStore, true);
+    }
+}
@@ -1,26 +1,48 @@
 package com.aimusic.controller;
 
+import com.aimusic.config.AiConfig;
 import com.aimusic.config.AppConfig;
+import com.aimusic.config.MusicConfig;
+import com.aimusic.config.SecurityConfig;
 import com.aimusic.config.TestConfig;
 import com.aimusic.dto.MusicInfo;
 import com.aimusic.dto.QuestionRequest;
 import com.aimusic.exception.BusinessException;
+import com.aimusic.ratelimit.RequestRateLimiter;
 import com.aimusic.service.IAiService;
 import com.aimusic.service.IMusicService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,7 +51,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * MainController 单元测试
  */
 @WebMvcTest(MainController.class)
-@Import(TestConfig.class)
+@Import({TestConfig.class, SecurityConfig.class, SimpleMeterRegistry.class, AiConfig.class, MusicConfig.class, MainControllerTest.TestExecutors.class})
 @ActiveProfiles("test")
 class MainControllerTest {
 
@@ -48,9 +70,30 @@ class MainControllerTest {
     @MockBean
     private AppConfig appConfig;
 
+    @MockBean
+    private RequestRateLimiter rateLimiter;
+
+    /**
+     * 控制器使用的线程池，测试中在提交线程上直接执行
+     */
+    @TestConfiguration
+    static class TestExecutors {
+
+        @Bean("askStreamExecutor")
+        Executor askStreamExecutor() {
+            return Runnable::run;
+        }
+
+        @Bean("musicLookupExecutor")
+        Executor musicLookupExecutor() {
+            return Runnable::run;
+        }
+    }
+
     @BeforeEach
     void setUp() {
         when(appConfig.getMaxQuestionLength()).thenReturn(500);
+        when(rateLimiter.tryAcquire(anyString(), anyLong())).thenReturn(RequestRateLimiter.Decision.ALLOWED);
     }
 
     @Test
@@ -72,19 +115,23 @@ class MainControllerTest {
 
         // 配置Mock行为
         when(aiService.isServiceAvailable()).thenReturn(true);
-        when(aiService.getAnswer(anyString())).thenReturn(aiResponse);
-        when(musicService.getMusicInfo(anyString())).thenReturn(musicInfo);
+        when(aiService.getAnswer(anyString(), anyInt(), anyString(), anyList(), anyList(), anyBoolean())).thenReturn(aiResponse);
+        when(musicService.getMusicList(anyString(), anyInt())).thenReturn(List.of(musicInfo));
 
-        // 执行测试
-        mockMvc.perform(post("/api/ask")
+        // 执行测试：/api/ask 以 DeferredResult 返回，响应在异步分派中写出
+        MvcResult mvcResult = mockMvc.perform(post("/api/ask")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.success").value(true))
             .andExpect(jsonPath("$.data.question").value("推荐一首好听的歌"))
             .andExpect(jsonPath("$.data.answer").value(aiResponse))
-            .andExpect(jsonPath("$.data.musicInfo.artist").value("王菲"))
-            .andExpect(jsonPath("$.data.musicInfo.song").value("岁月如歌"));
+            .andExpect(jsonPath("$.data.music.artist").value("王菲"))
+            .andExpect(jsonPath("$.data.music.song").value("岁月如歌"));
     }
 
     @Test
@@ -141,7 +188,7 @@ class MainControllerTest {
 
         // AI服务可用但返回null
         when(aiService.isServiceAvailable()).thenReturn(true);
-        when(aiService.getAnswer(anyString())).thenReturn(null);
+        when(aiService.getAnswer(anyString(), anyInt(), anyString(), anyList(), anyList(), anyBoolean())).thenReturn(null);
 
         mockMvc.perform(post("/api/ask")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -158,17 +205,80 @@ class MainControllerTest {
 
         // AI服务正常，音乐服务异常
         when(aiService.isServiceAvailable()).thenReturn(true);
-        when(aiService.getAnswer(anyString())).thenReturn(aiResponse);
-        when(musicService.getMusicInfo(anyString())).thenThrow(new RuntimeException("音乐服务异常"));
+        when(aiService.getAnswer(anyString(), anyInt(), anyString(), anyList(), anyList(), anyBoolean())).thenReturn(aiResponse);
+        when(musicService.getMusicList(anyString(), anyInt())).thenThrow(new RuntimeException("音乐服务异常"));
 
         // 应该返回成功，但音乐信息为null
-        mockMvc.perform(post("/api/ask")
+        MvcResult mvcResult = mockMvc.perform(post("/api/ask")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.success").value(true))
             .andExpect(jsonPath("$.data.answer").value(aiResponse))
-            .andExpect(jsonPath("$.data.musicInfo").isEmpty());
+            .andExpect(jsonPath("$.data.music").isEmpty());
+    }
+
+    @Test
+    void testAskStream_OnlyLyricLinesCounted() throws Exception {
+        QuestionRequest request = new QuestionRequest();
+        request.setQuestion("推荐两首好听的歌");
+        request.setMusicCount(2);
+
+        when(aiService.isServiceAvailable()).thenReturn(true);
+        when(aiService.streamAnswer(anyString(), anyInt(), anyString(), anyList(), anyList(), anyBoolean(), any()))
+            .thenAnswer(invocation -> {
+                Consumer<String> lines = invocation.getArgument(6);
+                lines.accept("好的，以下是为你挑选的歌词：");
+                lines.accept("天青色等烟雨--周杰伦《青花瓷》");
+                lines.accept("这两首都很经典。");
+                lines.accept("我曾经跨过山和大海--朴树《平凡之路》");
+                return "完整回答";
+            });
+        when(musicService.getMusicList(anyString(), anyInt())).thenAnswer(invocation -> {
+            String line = invocation.getArgument(0);
+            return List.of(new MusicInfo(line.contains("周杰伦") ? "周杰伦" : "朴树", "歌名", "1", "http://music.url"));
+        });
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/ask/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String events = mvcResult.getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        // 开场白和说明不推送、不计数：两首歌曲都在 musicCount 内得到解析
+        assertEquals(2, count(events, "event:lyric"));
+        assertEquals(2, count(events, "event:music"));
+        assertEquals(1, count(events, "event:done"));
+        assertFalse(events.contains("以下是为你挑选的歌词"));
+        assertFalse(events.contains("\"index\":2"));
+        verify(musicService).getMusicList("天青色等烟雨--周杰伦《青花瓷》", 1);
+        verify(musicService).getMusicList("我曾经跨过山和大海--朴树《平凡之路》", 1);
+        verify(musicService, never()).getMusicList("好的，以下是为你挑选的歌词：", 1);
+        verify(musicService, never()).getMusicList("这两首都很经典。", 1);
+    }
+
+    @Test
+    void testAskStream_AiServiceUnavailable() throws Exception {
+        QuestionRequest request = new QuestionRequest();
+        request.setQuestion("推荐一首好听的歌");
+
+        when(aiService.isServiceAvailable()).thenReturn(false);
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/ask/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String events = mvcResult.getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(1, count(events, "event:error"));
+        assertEquals(0, count(events, "event:lyric"));
+        verify(aiService, never()).streamAnswer(anyString(), anyInt(), anyString(), anyList(), anyList(), anyBoolean(), any());
     }
 
     @Test
@@ -177,4 +287,12 @@ class MainControllerTest {
             .andExpect(status().isOk())
             .andExpect(content().string("OK"));
     }
-}
\ No newline at end of file
+
+    private static int count(String text, String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + token.length())) {
+            count++;
+        }
+        return count;
+    }
+}
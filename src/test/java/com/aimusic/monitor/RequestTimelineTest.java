@@ -0,0 +1,76 @@
+package com.aimusic.monitor;
+
+import com.aimusic.dto.StageTiming;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RequestTimeline 单元测试
+ */
+class RequestTimelineTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimeline.unbind();
+    }
+
+    @Test
+    void testTimeWithoutTimelineOnlyRunsAction() {
+        assertNull(RequestTimeline.current());
+        assertEquals("ok", RequestTimeline.time(AskStage.LLM_CALL, () -> "ok"));
+    }
+
+    @Test
+    void testStagesAggregatedAcrossThreads() throws Exception {
+        RequestTimeline timeline = new RequestTimeline(null);
+        timeline.bind();
+        RequestTimeline.time(AskStage.DEDUP_CHECK, () -> true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<?> first = CompletableFuture.supplyAsync(
+                RequestTimeline.propagate(() -> RequestTimeline.time(AskStage.SONG_SEARCH, () -> 1)), executor);
+            CompletableFuture<?> second = CompletableFuture.supplyAsync(
+                RequestTimeline.propagate(() -> RequestTimeline.time(AskStage.SONG_SEARCH, () -> 2)), executor);
+            CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        timeline.record(AskStage.SONG_URL, 3_000_000);
+        timeline.markHandled();
+
+        Map<String, StageTiming> timings = timeline.toStageTimings();
+        assertEquals(3, timings.size());
+        assertEquals(1, timings.get("dedup").count());
+        assertEquals(2, timings.get("song-search").count());
+        assertEquals(3.0, timings.get("song-url").maxMs());
+
+        String header = timeline.toServerTiming();
+        assertTrue(header.startsWith("dedup;dur="), header);
+        assertTrue(header.contains("song-search;desc=\"2 calls, total "), header);
+        assertTrue(header.contains("song-url;dur=3.0"), header);
+        assertTrue(header.contains(", total;dur="), header);
+    }
+
+    @Test
+    void testTimeAsyncRecordsOnCompletion() {
+        RequestTimeline timeline = new RequestTimeline(null);
+        timeline.bind();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> timed = RequestTimeline.timeAsync(AskStage.LLM_CALL, () -> upstream);
+        assertTrue(timeline.toStageTimings().isEmpty());
+
+        upstream.complete("answer");
+        assertEquals("answer", timed.join());
+        assertEquals(1, timeline.toStageTimings().get("llm").count());
+    }
+}
@@ -0,0 +1,84 @@
+package com.aimusic.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * UpstreamMetrics 单元测试
+ */
+class UpstreamMetricsTest {
+
+    private MeterRegistry registry;
+    private UpstreamMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new UpstreamMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", registry);
+    }
+
+    @Test
+    void testInterceptorRecordsByUpstreamAndStatus() throws Exception {
+        ClientHttpRequestInterceptor interceptor = metrics.interceptor(
+            uri -> uri.getPath().endsWith("/models") ? UpstreamMetrics.AI_MODELS : UpstreamMetrics.AI_CHAT);
+
+        interceptor.intercept(new MockClientHttpRequest(HttpMethod.POST, URI.create("http://ai/v1/chat/completions")),
+            new byte[0], (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+        interceptor.intercept(new MockClientHttpRequest(HttpMethod.GET, URI.create("http://ai/v1/models")),
+            new byte[0], (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertEquals(1, registry.get("upstream.requests").tags("upstream", "ai-chat", "outcome", "SUCCESS").timer().count());
+        assertEquals(1, registry.get("upstream.requests").tags("upstream", "ai-models", "outcome", "SERVER_ERROR").timer().count());
+        assertEquals(1.0, registry.get("upstream.responses").tags("upstream", "ai-models", "status", "503").counter().count());
+    }
+
+    @Test
+    void testInterceptorRecordsExceptionAndRethrows() {
+        ClientHttpRequestInterceptor interceptor = metrics.interceptor(uri -> UpstreamMetrics.NETEASE_SEARCH);
+
+        assertThrows(SocketTimeoutException.class, () -> interceptor.intercept(
+            new MockClientHttpRequest(HttpMethod.GET, URI.create("http://music/api/search/get/web")), new byte[0],
+            (request, body) -> {
+                throw new SocketTimeoutException("Read timed out");
+            }));
+
+        assertEquals(1.0, registry.get("upstream.errors")
+            .tags("upstream", "netease-search", "exception", "SocketTimeoutException").counter().count());
+        assertEquals(1, registry.get("upstream.requests").tags("upstream", "netease-search", "outcome", "ERROR").timer().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testObserveAsyncCall() {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+
+        metrics.observe(UpstreamMetrics.SONG_URL, () -> CompletableFuture.completedFuture(response)).join();
+        CompletableFuture<HttpResponse<String>> failed = metrics.observe(UpstreamMetrics.SONG_URL,
+            () -> CompletableFuture.failedFuture(new HttpTimeoutException("request timed out")));
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(1.0, registry.get("upstream.responses").tags("upstream", "song-url", "status", "200").counter().count());
+        assertEquals(1.0, registry.get("upstream.errors")
+            .tags("upstream", "song-url", "exception", "HttpTimeoutException").counter().count());
+    }
+}
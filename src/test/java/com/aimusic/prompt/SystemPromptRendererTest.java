@@ -0,0 +1,77 @@
+package com.aimusic.prompt;
+
+import com.aimusic.config.AiConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SystemPromptRenderer 单元测试
+ */
+class SystemPromptRendererTest {
+
+    private SystemPromptRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new SystemPromptRenderer();
+        ReflectionTestUtils.setField(renderer, "aiConfig", new AiConfig());
+        ReflectionTestUtils.setField(renderer, "resourceLoader", new DefaultResourceLoader());
+        renderer.init();
+    }
+
+    @Test
+    void testChinesePrompt() {
+        String prompt = renderer.render(3, "zh-CN", List.of("pop", "rock"), List.of("china", "japan"));
+
+        assertTrue(prompt.startsWith("你是一个精准的中华小曲库应答器。当用户提出问题或表达情感时，你需要用3段最贴切的歌词来回应。\n"));
+        assertTrue(prompt.contains("3. **音乐偏好：** 优先选择以下音乐流派的歌词：流行、摇滚\n"));
+        assertTrue(prompt.contains("4. **地区偏好：** 优先选择来自以下国家/地区的歌手歌曲：中国、日本\n"));
+        assertTrue(prompt.endsWith("选择恰好3段最贴切的歌词，严格按照格式输出。"));
+        assertFalse(prompt.contains("{{"));
+    }
+
+    @Test
+    void testEnglishPromptAndDefaults() {
+        String prompt = renderer.render(5, "en", List.of(), null);
+
+        assertTrue(prompt.startsWith("You are a precise music lyric responder."));
+        assertTrue(prompt.contains("3. **Music Preferences:** Prefer pop music lyrics\n"));
+        assertTrue(prompt.contains("4. **Regional Preferences:** Prefer songs from Chinese artists\n"));
+        assertEquals(prompt, renderer.render(5, "en-US", null, List.of()));
+    }
+
+    @Test
+    void testUnknownValuesKeptVerbatim() {
+        String prompt = renderer.render(5, "zh-CN", List.of("kpop"), List.of("brazil"));
+
+        assertTrue(prompt.contains("优先选择以下音乐流派的歌词：kpop\n"));
+        assertTrue(prompt.contains("优先选择来自以下国家/地区的歌手歌曲：brazil\n"));
+    }
+
+    @Test
+    void testRenderedPromptIsMemoized() {
+        List<String> genres = new ArrayList<>(List.of("folk"));
+        String first = renderer.render(5, "zh-CN", genres, List.of("china"));
+        // 调用方修改列表不影响已缓存的结果
+        genres.add("jazz");
+
+        assertSame(first, renderer.render(5, "zh-CN", List.of("folk"), List.of("china")));
+        assertNotSame(first, renderer.render(5, "zh-CN", genres, List.of("china")));
+    }
+
+    @Test
+    void testTemplateParse() {
+        PromptTemplate template = PromptTemplate.parse("a{{x}}b{{ y }}c{{x}}");
+
+        assertEquals(List.of("x", "y"), List.copyOf(template.placeholders()));
+        assertEquals("a1b2c1", template.render(java.util.Map.of("x", "1", "y", "2")));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.parse("a{{x"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.aimusic.ratelimit;
+
+import com.aimusic.config.RateLimitConfig;
+import com.aimusic.ratelimit.RequestRateLimiter.Decision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RequestRateLimiter 单元测试
+ */
+class RequestRateLimiterTest {
+
+    private RateLimitConfig config;
+
+    private RequestRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        config = new RateLimitConfig();
+        config.setBurst(2);
+        config.setRequestsPerMinute(1);
+        limiter = newLimiter();
+    }
+
+    @Test
+    void testDuplicateSuppressedWithoutConsumingToken() {
+        assertEquals(Decision.ALLOWED, limiter.tryAcquire("1.1.1.1", 1L));
+        assertEquals(Decision.DUPLICATE, limiter.tryAcquire("1.1.1.1", 1L));
+        // 重复请求没有消耗令牌，第二个不同请求仍可放行
+        assertEquals(Decision.ALLOWED, limiter.tryAcquire("1.1.1.1", 2L));
+
+        assertEquals(2, limiter.getAllowedCount());
+        assertEquals(1, limiter.getDuplicateCount());
+    }
+
+    @Test
+    void testRateLimitedRequestReleasesDedupSlot() {
+        assertEquals(Decision.ALLOWED, limiter.tryAcquire("1.1.1.1", 1L));
+        assertEquals(Decision.ALLOWED, limiter.tryAcquire("1.1.1.1", 2L));
+
+        assertEquals(Decision.RATE_LIMITED, limiter.tryAcquire("1.1.1.1", 3L));
+        // 被限流的请求重试时不算重复
+        assertEquals(Decision.RATE_LIMITED, limiter.tryAcquire("1.1.1.1", 3L));
+        assertEquals(0, limiter.getDuplicateCount());
+        assertEquals(2, limiter.getRateLimitedCount());
+
+        // 其他IP的令牌桶独立
+        assertEquals(Decision.ALLOWED, limiter.tryAcquire("2.2.2.2", 3L));
+    }
+
+    @Test
+    void testDedupStillAppliesWhenRateLimitDisabled() {
+        config.setEnabled(false);
+        limiter = newLimiter();
+
+        for (long key = 1; key <= 5; key++) {
+            assertEquals(Decision.ALLOWED, limiter.tryAcquire("1.1.1.1", key));
+        }
+        assertEquals(Decision.DUPLICATE, limiter.tryAcquire("1.1.1.1", 1L));
+        assertEquals(0, limiter.getRateLimitedCount());
+    }
+
+    @Test
+    void testDedupDisabled() {
+        config.setDedupEnabled(false);
+        limiter = newLimiter();
+
+        assertEquals(Decision.ALLOWED, limiter.tryAcquire("1.1.1.1", 1L));
+        assertEquals(Decision.ALLOWED, limiter.tryAcquire("1.1.1.1", 1L));
+        assertEquals(Decision.RATE_LIMITED, limiter.tryAcquire("1.1.1.1", 1L));
+        assertEquals(0, limiter.getDuplicateCount());
+    }
+
+    private RequestRateLimiter newLimiter() {
+        RequestRateLimiter rateLimiter = new RequestRateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "rateLimitConfig", config);
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", new SimpleMeterRegistry());
+        rateLimiter.init();
+        return rateLimiter;
+    }
+}
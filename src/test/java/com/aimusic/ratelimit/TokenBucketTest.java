@@ -0,0 +1,45 @@
+package com.aimusic.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TokenBucket 单元测试
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testBurstThenReject() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(3, 60, now);
+
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now), "突发额度用完后应拒绝");
+    }
+
+    @Test
+    void testRefillOverTime() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(1, 60, now);
+
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now + SECOND / 2), "每分钟60次即每秒补充1个令牌");
+        assertTrue(bucket.tryAcquire(now + SECOND));
+    }
+
+    @Test
+    void testIdleDoesNotAccumulateBeyondBurst() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(2, 60, now);
+        long later = now + 3600 * SECOND;
+
+        assertTrue(bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later));
+        assertFalse(bucket.tryAcquire(later), "闲置后最多恢复到突发容量");
+    }
+}
@@ -0,0 +1,95 @@
+package com.aimusic.service;
+
+import com.aimusic.config.AiConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AiAvailabilityTracker 单元测试
+ */
+class AiAvailabilityTrackerTest {
+
+    private final AiAvailabilityTracker tracker = new AiAvailabilityTracker();
+
+    @BeforeEach
+    void setUp() {
+        AiConfig aiConfig = new AiConfig();
+        aiConfig.setAvailabilityFailureThreshold(3);
+        ReflectionTestUtils.setField(tracker, "aiConfig", aiConfig);
+    }
+
+    @Test
+    void testAvailableBeforeFirstProbe() {
+        assertTrue(tracker.isAvailable());
+        assertEquals(0, tracker.getConsecutiveFailures());
+    }
+
+    @Test
+    void testSingleProbeFailureKeepsAvailable() {
+        tracker.recordProbe(false, "timeout");
+
+        assertTrue(tracker.isAvailable());
+        assertEquals(1, tracker.getConsecutiveFailures());
+        assertEquals("timeout", tracker.getLastError());
+        assertTrue(tracker.getLastCheckTime() > 0);
+    }
+
+    @Test
+    void testProbeFailuresReachingThresholdMarkDown() {
+        tracker.recordProbe(false, "timeout");
+        tracker.recordProbe(false, "timeout");
+        assertTrue(tracker.isAvailable());
+
+        tracker.recordProbe(false, "connection refused");
+        assertFalse(tracker.isAvailable());
+        assertEquals("connection refused", tracker.getLastError());
+    }
+
+    @Test
+    void testProbeAndCallFailuresShareCounter() {
+        tracker.recordFailure("500");
+        tracker.recordProbe(false, "timeout");
+        assertTrue(tracker.isAvailable());
+
+        tracker.recordFailure("500");
+        assertFalse(tracker.isAvailable());
+    }
+
+    @Test
+    void testProbeSuccessRecovers() {
+        for (int i = 0; i < 3; i++) {
+            tracker.recordProbe(false, "timeout");
+        }
+        assertFalse(tracker.isAvailable());
+
+        tracker.recordProbe(true, null);
+        assertTrue(tracker.isAvailable());
+        assertEquals(0, tracker.getConsecutiveFailures());
+        assertNull(tracker.getLastError());
+    }
+
+    @Test
+    void testCallSuccessResetsFailures() {
+        tracker.recordFailure("500");
+        tracker.recordFailure("500");
+        tracker.recordSuccess();
+        tracker.recordFailure("500");
+
+        assertTrue(tracker.isAvailable());
+        assertEquals(1, tracker.getConsecutiveFailures());
+    }
+
+    @Test
+    void testCallSuccessRecoversAfterMarkedDown() {
+        for (int i = 0; i < 3; i++) {
+            tracker.recordFailure("500");
+        }
+        assertFalse(tracker.isAvailable());
+
+        tracker.recordSuccess();
+        assertTrue(tracker.isAvailable());
+    }
+}
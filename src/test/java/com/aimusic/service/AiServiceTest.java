@@ -2,19 +2,30 @@ package com.aimusic.service;
 
 import com.aimusic.config.AiConfig;
 import com.aimusic.config.TestConfig;
+import com.aimusic.prompt.SystemPromptRenderer;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -33,15 +44,24 @@ class AiServiceTest {
     @Mock
     private AiConfig aiConfig;
 
+    @Mock
+    private AiAvailabilityTracker availabilityTracker;
+
+    @Mock
+    private SystemPromptRenderer promptRenderer;
+
+    @Spy
+    private UpstreamPayloads upstreamPayloads = new UpstreamPayloads(new ObjectMapper());
+
     @InjectMocks
     private AiService aiService;
 
     @BeforeEach
     void setUp() {
-        when(aiConfig.getBaseUrl()).thenReturn("http://localhost:8080");
-        when(aiConfig.getApiKey()).thenReturn("test-api-key");
-        when(aiConfig.getModelName()).thenReturn("gpt-4o");
-        when(aiConfig.getTimeout()).thenReturn(30);
+        lenient().when(aiConfig.getBaseUrl()).thenReturn("http://localhost:8080");
+        lenient().when(aiConfig.getApiKey()).thenReturn("test-api-key");
+        lenient().when(aiConfig.getModelName()).thenReturn("gpt-4o");
+        lenient().when(promptRenderer.render(anyInt(), anyString(), anyList(), anyList())).thenReturn("系统提示");
     }
 
     @Test
@@ -50,9 +70,7 @@ class AiServiceTest {
         String question = "推荐一首好听的歌";
         String expectedResponse = "{\"choices\":[{\"message\":{\"content\":\"岁月如歌情如梦--王菲《岁月如歌》\\n时光荏苒心依旧--王菲《岁月如歌》\"}}]}";
         
-        ResponseEntity<String> responseEntity = new ResponseEntity<>(expectedResponse, HttpStatus.OK);
-        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
-            .thenReturn(responseEntity);
+        stubChatResponse(expectedResponse);
 
         // 执行测试
         String result = aiService.getAnswer(question);
@@ -62,7 +80,8 @@ class AiServiceTest {
         assertEquals("岁月如歌情如梦--王菲《岁月如歌》\n时光荏苒心依旧--王菲《岁月如歌》", result);
         
         // 验证调用
-        verify(restTemplate, times(1)).postForEntity(anyString(), any(), eq(String.class));
+        verify(restTemplate, times(1)).execute(eq("http://localhost:8080/chat/completions"), eq(HttpMethod.POST), any(), any());
+        verify(availabilityTracker).recordSuccess();
     }
 
     @Test
@@ -76,7 +95,7 @@ class AiServiceTest {
         assertNull(result);
         
         // 验证没有调用API
-        verify(restTemplate, never()).postForEntity(anyString(), any(), eq(String.class));
+        verifyNoInteractions(restTemplate);
     }
 
     @Test
@@ -84,7 +103,7 @@ class AiServiceTest {
         // 准备测试数据
         String question = "推荐一首好听的歌";
         
-        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(), any()))
             .thenThrow(new RestClientException("API调用失败"));
 
         // 执行测试
@@ -94,7 +113,8 @@ class AiServiceTest {
         assertNull(result);
         
         // 验证调用
-        verify(restTemplate, times(1)).postForEntity(anyString(), any(), eq(String.class));
+        verify(restTemplate, times(1)).execute(anyString(), eq(HttpMethod.POST), any(), any());
+        verify(availabilityTracker).recordFailure("API调用失败");
     }
 
     @Test
@@ -103,9 +123,7 @@ class AiServiceTest {
         String question = "推荐一首好听的歌";
         String invalidResponse = "{\"error\":\"invalid request\"}";
         
-        ResponseEntity<String> responseEntity = new ResponseEntity<>(invalidResponse, HttpStatus.OK);
-        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
-            .thenReturn(responseEntity);
+        stubChatResponse(invalidResponse);
 
         // 执行测试
         String result = aiService.getAnswer(question);
@@ -119,9 +137,7 @@ class AiServiceTest {
         // 准备测试数据
         String question = "推荐一首好听的歌";
         
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("", HttpStatus.OK);
-        when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
-            .thenReturn(responseEntity);
+        stubChatResponse("");
 
         // 执行测试
         String result = aiService.getAnswer(question);
@@ -131,62 +147,104 @@ class AiServiceTest {
     }
 
     @Test
-    void testIsServiceAvailable_Success() {
+    void testStreamAnswer_EmptyStreamNotRecordedAsSuccess() {
+        stubChatResponse("data: [DONE]\n\n");
+        List<String> lines = new ArrayList<>();
+
+        // 执行测试
+        String result = aiService.streamAnswer("推荐一首好听的歌", 5, "zh-CN", null, null, false, lines::add);
+
+        // 验证结果
+        assertNull(result);
+        assertTrue(lines.isEmpty());
+        verify(availabilityTracker, never()).recordSuccess();
+    }
+
+    @Test
+    void testRefreshAvailability_Success() {
         // 准备测试数据
         String modelsResponse = "{\"data\":[{\"id\":\"gpt-4o\"}]}";
         
-        ResponseEntity<String> responseEntity = new ResponseEntity<>(modelsResponse, HttpStatus.OK);
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
-            .thenReturn(responseEntity);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(String.class)))
+            .thenReturn(new ResponseEntity<>(modelsResponse, HttpStatus.OK));
 
         // 执行测试
-        boolean result = aiService.isServiceAvailable();
+        aiService.refreshAvailability();
 
         // 验证结果
-        assertTrue(result);
-        
-        // 验证调用
-        verify(restTemplate, times(1)).getForEntity(anyString(), eq(String.class));
+        verify(availabilityTracker).recordProbe(eq(true), any());
+        verify(restTemplate, times(1)).exchange(eq("http://localhost:8080/models"), eq(HttpMethod.GET), any(), eq(String.class));
     }
 
     @Test
-    void testIsServiceAvailable_ApiError() {
+    void testRefreshAvailability_ApiError() {
         // 模拟API调用失败
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(String.class)))
             .thenThrow(new RestClientException("连接失败"));
 
         // 执行测试
-        boolean result = aiService.isServiceAvailable();
+        aiService.refreshAvailability();
 
         // 验证结果
-        assertFalse(result);
+        verify(availabilityTracker).recordProbe(false, "连接失败");
     }
 
     @Test
-    void testIsServiceAvailable_HttpError() {
+    void testRefreshAvailability_HttpError() {
         // 模拟HTTP错误响应
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("", HttpStatus.INTERNAL_SERVER_ERROR);
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
-            .thenReturn(responseEntity);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(String.class)))
+            .thenReturn(new ResponseEntity<>("", HttpStatus.INTERNAL_SERVER_ERROR));
+
+        // 执行测试
+        aiService.refreshAvailability();
+
+        // 验证结果
+        verify(availabilityTracker).recordProbe(eq(false), anyString());
+    }
+
+    @Test
+    void testRefreshAvailability_ModelsNotFound() {
+        // 默认模型列表接口返回404视为探测失败
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(String.class)))
+            .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
 
         // 执行测试
-        boolean result = aiService.isServiceAvailable();
+        aiService.refreshAvailability();
 
         // 验证结果
-        assertFalse(result);
+        verify(availabilityTracker).recordProbe(eq(false), any());
     }
 
     @Test
-    void testIsServiceAvailable_InvalidResponse() {
-        // 模拟无效响应
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("{\"error\":\"unauthorized\"}", HttpStatus.OK);
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
-            .thenReturn(responseEntity);
+    void testRefreshAvailability_ModelsEndpointOptional() {
+        // 配置为不提供模型列表接口时视为可达
+        when(aiConfig.isModelsEndpointOptional()).thenReturn(true);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(String.class)))
+            .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
 
         // 执行测试
-        boolean result = aiService.isServiceAvailable();
+        aiService.refreshAvailability();
 
         // 验证结果
-        assertFalse(result);
+        verify(availabilityTracker).recordProbe(eq(true), any());
+    }
+
+    @Test
+    void testIsServiceAvailable_UsesTrackerState() {
+        when(availabilityTracker.isAvailable()).thenReturn(false);
+
+        assertFalse(aiService.isServiceAvailable());
+        verifyNoInteractions(restTemplate);
+    }
+
+    /**
+     * 模拟chat completions接口，把响应体交给调用方的解析器
+     */
+    private void stubChatResponse(String body) {
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(), any()))
+            .thenAnswer(invocation -> {
+                ResponseExtractor<?> extractor = invocation.getArgument(3);
+                return extractor.extractData(new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+            });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,151 @@
+package com.aimusic.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LyricLineScanner 单元测试
+ */
+class LyricLineScannerTest {
+
+    private static final String[] DASHES = {"--", "——", "－－", "---", " -- ", "—— "};
+
+    private static final String[][] BRACKETS = {{"《", "》"}, {"「", "」"}, {"『", "』"}, {"<", ">"}, {"“", "”"}, {"\"", "\""}};
+
+    private static final String[] PREFIXES = {"", "1. ", "12、", "(3) ", "（4）", "⑦ ", "三、", "- ", "* ", "• ", "> ", "- 2. "};
+
+    private static final String[] LINE_BREAKS = {"\n", "\r\n", "\r", "\n\n"};
+
+    private static final String NOISE = "--——《》「」<>“”\"-*•>1.、()（）①一 　\t\n\r歌词abc";
+
+    @Test
+    void testCorpus() throws IOException {
+        int cases = 0;
+        for (String line : readCorpus()) {
+            if (line.startsWith("#") || line.isEmpty()) {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            String input = line.substring(0, tab);
+            String expected = line.substring(tab + 1);
+
+            List<String> actual = scanAll(input);
+
+            if (expected.isEmpty()) {
+                assertTrue(actual.isEmpty(), "应跳过: " + input);
+            } else {
+                assertEquals(List.of(expected), actual, input);
+            }
+            cases++;
+        }
+        assertTrue(cases > 20);
+    }
+
+    @Test
+    void testMultipleLinesAndLineBreaks() {
+        String answer = "好的，以下是为你挑选的歌词：\r\n\r\n"
+            + "1. 天青色等烟雨--周杰伦《青花瓷》\r\n"
+            + "2. 我曾经跨过山和大海——朴树「平凡之路」\r"
+            + "不是歌词的一行\n"
+            + "3. Hello from the other side--Adele<Hello>";
+
+        assertEquals(List.of("天青色等烟雨|周杰伦|青花瓷", "我曾经跨过山和大海|朴树|平凡之路",
+            "Hello from the other side|Adele|Hello"), scanAll(answer));
+    }
+
+    @Test
+    void testExtractMultipleSongInfoKeepsLyric() {
+        List<MusicService.SongInfo> songs = MusicService.extractMultipleSongInfo("- 岁月如歌情如梦——王菲《岁月如歌》");
+
+        assertEquals(1, songs.size());
+        assertEquals("王菲", songs.get(0).getArtist());
+        assertEquals("岁月如歌", songs.get(0).getSong());
+        assertEquals("岁月如歌情如梦", songs.get(0).getLyric());
+    }
+
+    /**
+     * 随机组合编号、分隔符、书名号和换行生成回答，每一行都应原样解析出来
+     */
+    @Test
+    void testFuzzWellFormed() {
+        Random random = new Random(20240521L);
+        for (int round = 0; round < 2000; round++) {
+            StringBuilder answer = new StringBuilder();
+            List<String> expected = new ArrayList<>();
+            int lines = 1 + random.nextInt(10);
+            for (int i = 0; i < lines; i++) {
+                String lyric = word(random, "歌词", i);
+                String artist = word(random, "歌手", i);
+                String title = word(random, "歌名", i);
+                String[] bracket = pick(random, BRACKETS);
+                answer.append(pick(random, PREFIXES)).append(lyric).append(pick(random, DASHES))
+                    .append(artist).append(bracket[0]).append(title).append(bracket[1])
+                    .append(pick(random, LINE_BREAKS));
+                expected.add(lyric + "|" + artist + "|" + title);
+            }
+
+            assertEquals(expected, scanAll(answer), answer::toString);
+        }
+    }
+
+    /**
+     * 由格式符号拼成的随机文本：不抛异常、位置不越界且有序、歌手和歌名非空
+     */
+    @Test
+    void testFuzzNoise() {
+        Random random = new Random(7L);
+        for (int round = 0; round < 5000; round++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(80);
+            for (int i = 0; i < length; i++) {
+                text.append(NOISE.charAt(random.nextInt(NOISE.length())));
+            }
+
+            LyricLineScanner scanner = new LyricLineScanner(text);
+            int found = 0;
+            while (scanner.next()) {
+                assertTrue(0 <= scanner.lyricStart() && scanner.lyricStart() <= scanner.lyricEnd(), text::toString);
+                assertTrue(scanner.lyricEnd() < scanner.artistStart(), text::toString);
+                assertTrue(scanner.artistStart() < scanner.artistEnd(), text::toString);
+                assertTrue(scanner.artistEnd() < scanner.titleStart(), text::toString);
+                assertTrue(scanner.titleStart() < scanner.titleEnd() && scanner.titleEnd() < text.length(), text::toString);
+                assertEquals(-1, scanner.title().indexOf('\n'), text::toString);
+                found++;
+            }
+            assertTrue(found <= length, text::toString);
+        }
+    }
+
+    private static List<String> scanAll(CharSequence text) {
+        List<String> result = new ArrayList<>();
+        LyricLineScanner scanner = new LyricLineScanner(text);
+        while (scanner.next()) {
+            result.add(scanner.lyric() + "|" + scanner.artist() + "|" + scanner.title());
+        }
+        return result;
+    }
+
+    private static String word(Random random, String base, int index) {
+        String[] words = {base, "Hello World", "2.5次元", "a-b", "周杰倫", "IU"};
+        return words[random.nextInt(words.length)] + index;
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<String> readCorpus() throws IOException {
+        try (InputStream in = LyricLineScannerTest.class.getResourceAsStream("/corpus/lyric-lines.txt")) {
+            assertNotNull(in);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.aimusic.service;
+
+import com.aimusic.cache.NegativeLookupCache;
+import com.aimusic.cache.NegativeLookupCache.Lookup;
+import com.aimusic.cache.NegativeLookupCache.Outcome;
+import com.aimusic.cache.PlayUrl;
+import com.aimusic.cache.PlayUrlLifetime;
+import com.aimusic.config.CacheConfig;
+import com.aimusic.config.MusicConfig;
+import com.aimusic.dto.MusicInfo;
+import com.aimusic.dto.upstream.NeteaseSong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MusicService 歌单并行解析和播放链接后台刷新单元测试
+ * 上游接口由 {@link StubRestTemplate} 模拟，按歌名设置搜索耗时
+ */
+class MusicServiceLookupTest {
+
+    private final MusicConfig musicConfig = new MusicConfig();
+
+    private final StubRestTemplate restTemplate = new StubRestTemplate();
+
+    private final MusicService musicService = new MusicService();
+
+    private final NegativeLookupCache negativeLookupCache = new NegativeLookupCache(new ConcurrentMapCache("negative"));
+
+    private ThreadPoolExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        musicConfig.setSearchUrl("http://search.test/api");
+        musicConfig.setSongUrlApi("http://url.test/song");
+        ReflectionTestUtils.setField(musicService, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(musicService, "musicConfig", musicConfig);
+        ReflectionTestUtils.setField(musicService, "negativeLookupCache", negativeLookupCache);
+        useExecutor(new ThreadPoolExecutor(4, 4, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testMusicListKeepsAnswerOrder() {
+        restTemplate.delays.put("first", 150L);
+        restTemplate.delays.put("third", 50L);
+
+        List<MusicInfo> musicList = musicService.getMusicList(answer("first", "second", "third"), 10);
+
+        assertEquals(List.of("first", "second", "third"), musicList.stream().map(MusicInfo::getSongId).toList());
+        assertEquals("http://play.test/second", musicList.get(1).getPlayUrl());
+        assertEquals(1.0, musicList.get(1).getConfidence(), 1e-9);
+    }
+
+    @Test
+    void testSongTimeoutCancelsSlowSong() throws InterruptedException {
+        musicConfig.setSongTimeout(Duration.ofMillis(200));
+        restTemplate.delays.put("slow", 5_000L);
+
+        long start = System.nanoTime();
+        List<MusicInfo> musicList = musicService.getMusicList(answer("fast", "slow", "other"), 10);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(List.of("fast", "other"), musicList.stream().map(MusicInfo::getSongId).toList());
+        assertTrue(elapsedMs < 2_000, "超时的歌曲不应拖住整个歌单: " + elapsedMs + "ms");
+        // 超时的任务被取消，正在执行的上游调用被中断
+        for (int i = 0; i < 50 && !restTemplate.interrupted.contains("slow"); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(restTemplate.interrupted.contains("slow"));
+        // 自身超时引起的失败不是上游错误，不写入否定缓存
+        Thread.sleep(100);
+        assertEquals(0, negativeLookupCache.getStoreCount(Lookup.SEARCH, Outcome.UPSTREAM_ERROR));
+    }
+
+    @Test
+    void testUpstreamErrorNegativelyCached() {
+        restTemplate.failures.add("broken");
+
+        List<MusicInfo> musicList = musicService.getMusicList(answer("fine", "broken"), 10);
+
+        assertEquals(List.of("fine"), musicList.stream().map(MusicInfo::getSongId).toList());
+        assertEquals(1, negativeLookupCache.getStoreCount(Lookup.SEARCH, Outcome.UPSTREAM_ERROR));
+    }
+
+    @Test
+    void testTotalTimeoutReturnsCompletedSongs() {
+        musicConfig.setTotalTimeout(Duration.ofMillis(200));
+        restTemplate.delays.put("slow1", 5_000L);
+        restTemplate.delays.put("slow2", 5_000L);
+
+        long start = System.nanoTime();
+        List<MusicInfo> musicList = musicService.getMusicList(answer("slow1", "fast", "slow2"), 10);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(List.of("fast"), musicList.stream().map(MusicInfo::getSongId).toList());
+        assertTrue(elapsedMs < 2_000, "总期限到达后应立即返回: " + elapsedMs + "ms");
+    }
+
+    @Test
+    void testQueuedSongGetsFullSongTimeout() {
+        // 单线程依次解析：第二首排队350ms后才开始，仍应有完整的单曲期限
+        useExecutor(new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()));
+        musicConfig.setSongTimeout(Duration.ofMillis(500));
+        restTemplate.delays.put("first", 350L);
+        restTemplate.delays.put("second", 350L);
+
+        List<MusicInfo> musicList = musicService.getMusicList(answer("first", "second"), 10);
+
+        assertEquals(List.of("first", "second"), musicList.stream().map(MusicInfo::getSongId).toList());
+    }
+
+    @Test
+    void testTotalTimeoutCapsQueuedSongs() {
+        useExecutor(new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()));
+        musicConfig.setSongTimeout(Duration.ofMillis(500));
+        musicConfig.setTotalTimeout(Duration.ofMillis(800));
+        restTemplate.delays.put("first", 300L);
+        restTemplate.delays.put("second", 300L);
+        restTemplate.delays.put("third", 300L);
+
+        long start = System.nanoTime();
+        List<MusicInfo> musicList = musicService.getMusicList(answer("first", "second", "third"), 10);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(List.of("first", "second"), musicList.stream().map(MusicInfo::getSongId).toList());
+        assertTrue(elapsedMs < 1_500, "总期限到达后应立即返回: " + elapsedMs + "ms");
+    }
+
+    @Test
+    void testRejectedSongNotResolvedOnCallerThread() {
+        // 只有一个线程、不排队：第二首歌曲被拒绝
+        useExecutor(new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>()));
+        restTemplate.delays.put("first", 100L);
+
+        List<MusicInfo> musicList = musicService.getMusicList(answer("first", "second"), 10);
+
+        assertEquals(List.of("first"), musicList.stream().map(MusicInfo::getSongId).toList());
+        assertFalse(restTemplate.callerThreads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    void testStaleUrlReturnedAndRefreshedInBackground() throws InterruptedException {
+        Cache urlCache = useUrlCache();
+        ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        ReflectionTestUtils.setField(musicService, "refreshExecutor", refreshExecutor);
+        try {
+            urlCache.put("song", staleEntry("http://play.test/old"));
+
+            assertEquals("http://play.test/old", musicService.getSongUrl("song"));
+
+            for (int i = 0; i < 50 && !"http://play.test/song".equals(cachedUrl(urlCache, "song")); i++) {
+                Thread.sleep(20);
+            }
+            assertEquals("http://play.test/song", cachedUrl(urlCache, "song"));
+            assertFalse(restTemplate.urlThreads.contains(Thread.currentThread().getName()));
+        } finally {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRefreshSkippedWhenRefreshExecutorFull() {
+        Cache urlCache = useUrlCache();
+        ReflectionTestUtils.setField(musicService, "refreshExecutor", (Executor) task -> {
+            throw new RejectedExecutionException("full");
+        });
+        urlCache.put("song", staleEntry("http://play.test/old"));
+
+        assertEquals("http://play.test/old", musicService.getSongUrl("song"));
+        assertEquals("http://play.test/old", musicService.getSongUrl("song"));
+
+        // 不在请求线程上刷新，旧链接保留
+        assertTrue(restTemplate.urlThreads.isEmpty());
+        assertEquals("http://play.test/old", cachedUrl(urlCache, "song"));
+    }
+
+    private Cache useUrlCache() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.MUSIC_URL_CACHE);
+        ReflectionTestUtils.setField(musicService, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(musicService, "playUrlLifetime", new PlayUrlLifetime(Duration.ofMinutes(15),
+            Duration.ofHours(6), Duration.ofMinutes(1), Duration.ofMinutes(5)));
+        return cacheManager.getCache(CacheConfig.MUSIC_URL_CACHE);
+    }
+
+    /**
+     * 已到刷新时间、尚未移出缓存的条目
+     */
+    private static PlayUrl staleEntry(String url) {
+        long now = System.currentTimeMillis();
+        return new PlayUrl(url, now - 1, now + Duration.ofMinutes(3).toMillis());
+    }
+
+    private static String cachedUrl(Cache urlCache, String songId) {
+        PlayUrl entry = urlCache.get(songId, PlayUrl.class);
+        return entry == null ? null : entry.url();
+    }
+
+    private void useExecutor(ThreadPoolExecutor newExecutor) {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        executor = newExecutor;
+        ReflectionTestUtils.setField(musicService, "lookupExecutor", executor);
+    }
+
+    private static String answer(String... titles) {
+        StringBuilder answer = new StringBuilder();
+        for (String title : titles) {
+            answer.append("歌词--歌手《").append(title).append("》\n");
+        }
+        return answer.toString();
+    }
+
+    /**
+     * 模拟搜索和播放链接接口：搜索结果的歌曲ID即为歌名
+     */
+    static class StubRestTemplate extends RestTemplate {
+
+        final Map<String, Long> delays = new ConcurrentHashMap<>();
+        final Set<String> interrupted = ConcurrentHashMap.newKeySet();
+        final Set<String> callerThreads = ConcurrentHashMap.newKeySet();
+        final Set<String> urlThreads = ConcurrentHashMap.newKeySet();
+        final Set<String> failures = ConcurrentHashMap.newKeySet();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(String url, HttpMethod method, RequestCallback requestCallback,
+                             ResponseExtractor<T> responseExtractor, Object... uriVariables) {
+            Map<String, List<String>> params = UriComponentsBuilder.fromHttpUrl(url).build().getQueryParams();
+            if (url.startsWith("http://url.test")) {
+                urlThreads.add(Thread.currentThread().getName());
+                return (T) ("http://play.test/" + params.get("id").get(0));
+            }
+            callerThreads.add(Thread.currentThread().getName());
+            String title = params.get("s").get(0).substring("歌手 ".length());
+            if (failures.contains(title)) {
+                throw new ResourceAccessException("connection refused");
+            }
+            try {
+                Thread.sleep(delays.getOrDefault(title, 0L));
+            } catch (InterruptedException e) {
+                // 与连接池等待连接时被中断的表现一致
+                interrupted.add(title);
+                throw new ResourceAccessException("interrupted", new InterruptedIOException());
+            }
+            return (T) List.of(new NeteaseSong(title, title, List.of("歌手")));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.aimusic.service;
+
+import com.aimusic.dto.upstream.NeteaseSong;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SongMatcher 单元测试
+ */
+class SongMatcherTest {
+
+    @Test
+    void testExactMatchRankedFirst() {
+        List<NeteaseSong> page = List.of(
+            new NeteaseSong("1", "后来 (Live)", List.of("五月天")),
+            new NeteaseSong("2", "後來", List.of("劉若英")),
+            new NeteaseSong("3", "后来的我们", List.of("五月天")));
+
+        List<SongMatcher.Match> ranked = SongMatcher.rank("刘若英", "后来", page);
+
+        assertEquals("2", ranked.get(0).song().id());
+        assertEquals(1.0, ranked.get(0).score(), 1e-9);
+        assertEquals(List.of("2"), SongMatcher.topIds(ranked, 1));
+    }
+
+    @Test
+    void testDuetArtistsJoined() {
+        List<NeteaseSong> page = List.of(
+            new NeteaseSong("1", "千里之外", List.of("费玉清")),
+            new NeteaseSong("2", "千里之外", List.of("周杰伦", "费玉清")));
+
+        List<SongMatcher.Match> ranked = SongMatcher.rank("周杰伦/费玉清", "千里之外", page);
+
+        assertEquals("2", ranked.get(0).song().id());
+        assertEquals(1.0, ranked.get(0).score(), 1e-9);
+    }
+
+    @Test
+    void testShouldWiden() {
+        List<SongMatcher.Match> weak = SongMatcher.rank("Adele", "Hello",
+            List.of(new NeteaseSong("1", "Hello (Cover)", List.of("Someone")), new NeteaseSong("2", "Hi", List.of("Other"))));
+        List<SongMatcher.Match> good = SongMatcher.rank("Adele", "Hello",
+            List.of(new NeteaseSong("1", "Hello", List.of("ADELE")), new NeteaseSong("2", "Hi", List.of("Other"))));
+
+        assertTrue(SongMatcher.shouldWiden(weak, 2, 30, 0.8));
+        // 上游返回不足一页，扩大搜索也不会有更多结果
+        assertFalse(SongMatcher.shouldWiden(weak, 5, 30, 0.8));
+        assertFalse(SongMatcher.shouldWiden(good, 2, 30, 0.8));
+        assertFalse(SongMatcher.shouldWiden(List.of(), 2, 30, 0.8));
+    }
+
+    @Test
+    void testVersionsRankedBelowOriginal() {
+        List<NeteaseSong> page = List.of(
+            new NeteaseSong("1", "后来 (钢琴版)", List.of("刘若英")),
+            new NeteaseSong("2", "后来 (Live)", List.of("刘若英")),
+            new NeteaseSong("3", "后来", List.of("刘若英"), List.of("Cover：刘若英"), List.of(), 300_000, 90),
+            new NeteaseSong("4", "后来", List.of("刘若英"), List.of(), List.of(), 30_000, 0),
+            new NeteaseSong("5", "后来", List.of("刘若英"), List.of(), List.of(), 341_000, 0),
+            new NeteaseSong("6", "后来", List.of("刘若英"), List.of(), List.of(), 341_000, 100));
+
+        List<SongMatcher.Match> ranked = SongMatcher.rank("刘若英", "后来", page);
+
+        // 同分时热度高的在前；别名标明翻唱、时长不足一分钟的都排在原版之后
+        assertEquals(List.of("6", "5", "4", "3", "1", "2"), SongMatcher.topIds(ranked, 6));
+        assertEquals(1.0, ranked.get(0).score(), 1e-9);
+        assertEquals(0.8, ranked.get(2).score(), 1e-9);
+        assertEquals(0.7, ranked.get(5).score(), 1e-9);
+        // 歌名本身带有版本标记时不扣分
+        assertEquals(1.0, SongMatcher.rank("刘若英", "后来 (Live)", page.subList(1, 2)).get(0).score(), 1e-9);
+    }
+
+    @Test
+    void testAliasesMatched() {
+        List<NeteaseSong> page = List.of(
+            new NeteaseSong("1", "Later", List.of("Someone")),
+            new NeteaseSong("2", "後來", List.of("René Liu"), List.of(), List.of("刘若英"), 0, 0),
+            new NeteaseSong("3", "Houlai", List.of("劉若英"), List.of("后来"), List.of(), 0, 0));
+
+        List<SongMatcher.Match> ranked = SongMatcher.rank("刘若英", "后来", page);
+
+        assertEquals(1.0, ranked.get(0).score(), 1e-9);
+        assertEquals(1.0, ranked.get(1).score(), 1e-9);
+        assertEquals("1", ranked.get(2).song().id());
+    }
+
+    @Test
+    void testVersionMarkersMatchWholeWords() {
+        // 歌名或别名中只是包含标记字母的英文单词，不算版本
+        List<NeteaseSong> page = List.of(
+            new NeteaseSong("1", "Still Alive", List.of("Jonathan Coulton")),
+            new NeteaseSong("2", "发现", List.of("Jonathan Coulton"), List.of("Discover"), List.of(), 0, 0),
+            new NeteaseSong("3", "恶魔", List.of("Jonathan Coulton"), List.of("Demons"), List.of(), 0, 0),
+            new NeteaseSong("4", "Still Alive (Live)", List.of("Jonathan Coulton")),
+            new NeteaseSong("5", "Still Alive", List.of("Jonathan Coulton"), List.of("Demo Version"), List.of(), 0, 0));
+
+        assertEquals(1.0, SongMatcher.rank("Jonathan Coulton", "Still Alive", page.subList(0, 1)).get(0).score(), 1e-9);
+        assertEquals(1.0, SongMatcher.rank("Jonathan Coulton", "Discover", page.subList(1, 2)).get(0).score(), 1e-9);
+        assertEquals(1.0, SongMatcher.rank("Jonathan Coulton", "Demons", page.subList(2, 3)).get(0).score(), 1e-9);
+        assertEquals(0.7, SongMatcher.rank("Jonathan Coulton", "Still Alive", page.subList(3, 4)).get(0).score(), 1e-9);
+        assertEquals(0.7, SongMatcher.rank("Jonathan Coulton", "Still Alive", page.subList(4, 5)).get(0).score(), 1e-9);
+    }
+
+    @Test
+    void testContainsMarker() {
+        assertTrue(SongMatcher.containsMarker("后来 (live)", "live"));
+        assertTrue(SongMatcher.containsMarker("后来 - dj版", "dj"));
+        assertTrue(SongMatcher.containsMarker("cover:刘若英", "cover"));
+        assertTrue(SongMatcher.containsMarker("后来(伴奏)", "伴奏"));
+        assertFalse(SongMatcher.containsMarker("still alive", "live"));
+        assertFalse(SongMatcher.containsMarker("discover", "cover"));
+        assertFalse(SongMatcher.containsMarker("demons", "demo"));
+        assertFalse(SongMatcher.containsMarker("djent", "dj"));
+    }
+
+    @Test
+    void testSuffixStart() {
+        assertEquals(3, SongMatcher.suffixStart("后来 (Live)"));
+        assertEquals(2, SongMatcher.suffixStart("后来【伴奏】"));
+        assertEquals(3, SongMatcher.suffixStart("后来 - DJ版"));
+        assertEquals(7, SongMatcher.suffixStart("a-ha-ha"));
+        assertEquals(8, SongMatcher.suffixStart("(G)I-DLE"));
+    }
+}
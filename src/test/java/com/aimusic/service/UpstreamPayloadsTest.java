@@ -0,0 +1,103 @@
+package com.aimusic.service;
+
+import com.aimusic.dto.upstream.NeteaseSong;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UpstreamPayloads 单元测试
+ */
+class UpstreamPayloadsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final UpstreamPayloads payloads = new UpstreamPayloads(objectMapper);
+
+    @Test
+    void testChatRequest() throws IOException {
+        JsonNode request = objectMapper.readTree(payloads.toJson(UpstreamPayloads.chatRequest("gpt-4o-mini", "系统提示", "问题", false)));
+
+        assertEquals("gpt-4o-mini", request.get("model").asText());
+        assertEquals("system", request.get("messages").get(0).get("role").asText());
+        assertEquals("问题", request.get("messages").get(1).get("content").asText());
+        assertEquals(500, request.get("max_tokens").asInt());
+        assertFalse(request.has("stream"));
+        assertTrue(objectMapper.readTree(payloads.toJson(UpstreamPayloads.chatRequest("m", "s", "q", true))).get("stream").asBoolean());
+    }
+
+    @Test
+    void testChatDelta() throws IOException {
+        assertEquals("天青色", payloads.chatDelta("{\"id\":\"c\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"天青色\"}}]}"));
+        assertNull(payloads.chatDelta("{\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}"));
+        assertNull(payloads.chatDelta("{\"choices\":[]}"));
+    }
+
+    @Test
+    void testChatContent() throws IOException {
+        String body = "{\"id\":\"x\",\"choices\":[{\"index\":0,\"logprobs\":{\"a\":[1,2]},"
+            + "\"message\":{\"role\":\"assistant\",\"content\":\"天青色等烟雨--周杰伦《青花瓷》\"}}],\"usage\":{}}";
+
+        assertEquals("天青色等烟雨--周杰伦《青花瓷》", payloads.chatContent(stream(body)));
+        assertNull(payloads.chatContent(bytes("{\"choices\":[]}")));
+        assertNull(payloads.chatContent(bytes("{\"choices\":[{\"message\":{\"content\":null}}]}")));
+        assertNull(payloads.chatContent(bytes("{\"error\":{\"message\":\"rate limited\"}}")));
+    }
+
+    @Test
+    void testSearchResultsStopsAfterLimit() throws IOException {
+        // 取够后不再解析，后面的非法内容不影响结果
+        String body = "{\"result\":{\"songs\":[{\"name\":\"后来\",\"artists\":[{\"id\":1,\"name\":\"刘若英\"}],"
+            + "\"album\":{\"name\":\"我等你\",\"artist\":{\"name\":\"\"}},\"id\":254000},"
+            + "{\"id\":\"255373\"},{\"id\":3}, ...";
+
+        assertEquals(List.of(new NeteaseSong("254000", "后来", List.of("刘若英")), new NeteaseSong("255373", "", List.of())),
+            payloads.searchResults(stream(body), 2));
+    }
+
+    @Test
+    void testSearchResultsAliasesDurationAndPopularity() throws IOException {
+        String body = "{\"result\":{\"songs\":[{\"id\":263611,\"name\":\"后来\",\"artists\":[{\"name\":\"刘若英\","
+            + "\"alias\":[\"René Liu\"],\"trans\":null}],\"alias\":[\"Later\"],\"transNames\":[\"後來\"],"
+            + "\"duration\":334000,\"pop\":95.0,\"mark\":8192}]},\"code\":200}";
+
+        assertEquals(List.of(new NeteaseSong("263611", "后来", List.of("刘若英"), List.of("Later", "後來"),
+            List.of("René Liu"), 334000, 95)), payloads.searchResults(bytes(body), 5));
+    }
+
+    @Test
+    void testSearchResultsCodeAndResult() throws IOException {
+        assertEquals(1,
+            payloads.searchResults(bytes("{\"result\":{\"songs\":[{\"id\":1}],\"songCount\":1},\"code\":200}"), 5).size());
+        assertEquals(List.of(), payloads.searchResults(bytes("{\"result\":{\"songCount\":0},\"code\":200}"), 1));
+        assertThrows(IllegalStateException.class,
+            () -> payloads.searchResults(bytes("{\"code\":405,\"result\":{\"songs\":[{\"id\":1}]}}"), 1));
+        assertThrows(IllegalStateException.class, () -> payloads.searchResults(bytes("{\"code\":200}"), 1));
+    }
+
+    @Test
+    void testPlayUrl() throws IOException {
+        assertEquals("http://a/1.mp3", payloads.playUrl(stream("{\"url\":\"http://a/1.mp3\",\"code\":200}")));
+        assertEquals("http://a/2.flac",
+            payloads.playUrl(bytes("{\"code\":200,\"data\":{\"id\":2,\"url\":\"http://a/2.flac\",\"message\":null}}")));
+        assertNull(payloads.playUrl(bytes("{\"code\":200,\"data\":{\"id\":2,\"url\":null}}")));
+        assertThrows(IllegalStateException.class, () -> payloads.playUrl(bytes("{\"url\":\"\",\"message\":\"无版权\"}")));
+        assertThrows(IllegalStateException.class, () -> payloads.playUrl(bytes("{\"url\":\"http://a\",\"code\":404}")));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(bytes(body));
+    }
+
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,42 @@
+package com.aimusic.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ChineseVariants 单元测试
+ */
+class ChineseVariantsTest {
+
+    @Test
+    void testTraditionalMappedToSimplified() {
+        assertEquals('晴', ChineseVariants.toSimplified('晴'));
+        assertEquals('爱', ChineseVariants.toSimplified('愛'));
+        assertEquals('后', ChineseVariants.toSimplified('後'));
+        assertTrue(ChineseVariants.isTraditional('愛'));
+        assertFalse(ChineseVariants.isTraditional('爱'));
+    }
+
+    @Test
+    void testCharactersUsedInSimplifiedNotMapped() {
+        // 乾坤、宫商角徵羽等用法在简体中保留原字，不能归一
+        for (char c : new char[] {'乾', '餘', '於', '徵', '著', '瞭'}) {
+            assertEquals(c, ChineseVariants.toSimplified(c), String.valueOf(c));
+            assertFalse(ChineseVariants.isTraditional(c), String.valueOf(c));
+        }
+    }
+
+    @Test
+    void testContextDependentCharactersNotMapped() {
+        // 鍊在項鍊中简化为链，在鍛鍊中简化为炼，无法按单字归一
+        assertEquals('鍊', ChineseVariants.toSimplified('鍊'));
+        assertFalse(ChineseVariants.isTraditional('鍊'));
+    }
+
+    @Test
+    void testNonChineseUnchanged() {
+        assertEquals('a', ChineseVariants.toSimplified('a'));
+        assertEquals(0x1F3B5, ChineseVariants.toSimplified(0x1F3B5));
+    }
+}
@@ -0,0 +1,51 @@
+package com.aimusic.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RequestFingerprint 单元测试
+ */
+class RequestFingerprintTest {
+
+    @Test
+    void testSameRequestSameFingerprint() {
+        long a = RequestFingerprint.ofQuestion("1.2.3.4", "失恋了怎么办", 5, List.of("pop"), List.of("china"));
+        long b = RequestFingerprint.ofQuestion("1.2.3.4", "  失恋了怎么办\n", 5, List.of("pop"), List.of("china"));
+
+        assertEquals(a, b, "首尾空白不影响指纹");
+    }
+
+    @Test
+    void testNullPreferencesUseDefaults() {
+        long a = RequestFingerprint.ofQuestion("1.2.3.4", "下雨天", 5, null, null);
+        long b = RequestFingerprint.ofQuestion("1.2.3.4", "下雨天", 5, List.of("pop"), List.of("china"));
+
+        assertEquals(a, b, "未指定偏好等同于默认的流行/中国");
+    }
+
+    @Test
+    void testFieldBoundariesMatter() {
+        long a = RequestFingerprint.ofQuestion("1.2.3.4", "ab", 5, List.of("c"), List.of("china"));
+        long b = RequestFingerprint.ofQuestion("1.2.3.4", "a", 5, List.of("bc"), List.of("china"));
+        long c = RequestFingerprint.ofQuestion("1.2.3.4", "ab", 5, List.of("c", "d"), List.of("china"));
+        long d = RequestFingerprint.ofQuestion("1.2.3.4", "ab", 5, List.of("cd"), List.of("china"));
+
+        assertNotEquals(a, b);
+        assertNotEquals(c, d);
+    }
+
+    @Test
+    void testEachFieldAffectsFingerprint() {
+        long base = RequestFingerprint.ofQuestion("1.2.3.4", "下雨天", 5, List.of("pop"), List.of("china"));
+
+        assertNotEquals(base, RequestFingerprint.ofQuestion("1.2.3.5", "下雨天", 5, List.of("pop"), List.of("china")));
+        assertNotEquals(base, RequestFingerprint.ofQuestion("1.2.3.4", "下雪天", 5, List.of("pop"), List.of("china")));
+        assertNotEquals(base, RequestFingerprint.ofQuestion("1.2.3.4", "下雨天", 6, List.of("pop"), List.of("china")));
+        assertNotEquals(base, RequestFingerprint.ofQuestion("1.2.3.4", "下雨天", 5, List.of("rock"), List.of("china")));
+        assertNotEquals(base, RequestFingerprint.ofQuestion("1.2.3.4", "下雨天", 5, List.of("pop"), List.of("japan")));
+    }
+}
@@ -0,0 +1,253 @@
+package com.aimusic.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SingleFlight 单元测试
+ */
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallsShareOneLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> flight.execute("key", () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                awaitQuietly(release);
+                return "value";
+            })));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> flight.execute("key", () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            // 等待跟随者进入等待状态
+            while (flight.coalescedCount() < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, flight.executionCount());
+            assertEquals(0, flight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSequentialCallsLoadAgain() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, flight.execute("key", loads::incrementAndGet));
+        assertEquals(2, flight.execute("key", loads::incrementAndGet));
+        assertEquals(0, flight.coalescedCount());
+    }
+
+    @Test
+    void testExceptionPropagatesAndClearsKey() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        assertThrows(IllegalStateException.class, () -> flight.execute("key", () -> {
+            throw new IllegalStateException("upstream down");
+        }));
+        assertEquals(0, flight.inFlightCount());
+        assertEquals("ok", flight.execute("key", () -> "ok"));
+    }
+
+    @Test
+    void testAsyncCallsShareOneLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.executeAsync("key", () -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = flight.executeAsync("key", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        // 取消其中一个等待者不影响其他等待者
+        second.cancel(false);
+        CompletableFuture<String> third = flight.executeAsync("key", () -> CompletableFuture.completedFuture("other"));
+
+        assertFalse(first.isDone());
+        upstream.complete("value");
+
+        assertEquals("value", first.get(5, TimeUnit.SECONDS));
+        assertEquals("value", third.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(2, flight.coalescedCount());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void testAsyncFailureClearsKey() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        CompletableFuture<String> failed = flight.executeAsync("key",
+            () -> CompletableFuture.failedFuture(new IllegalStateException("upstream down")));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(0, flight.inFlightCount());
+        assertEquals("ok", flight.executeAsync("key", () -> CompletableFuture.completedFuture("ok")).join());
+    }
+
+    @Test
+    void testInterruptedFollowerStopsWaiting() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+                loaderStarted.countDown();
+                awaitQuietly(release);
+                return "value";
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> followerInterrupted = new CompletableFuture<>();
+            Future<?> follower = executor.submit(() -> {
+                try {
+                    flight.execute("key", () -> "other");
+                } catch (CancellationException e) {
+                    followerInterrupted.complete(Thread.currentThread().isInterrupted());
+                }
+            });
+            while (flight.coalescedCount() < 1) {
+                Thread.sleep(5);
+            }
+
+            // 跟随者被取消后立即返回，不等加载方完成
+            follower.cancel(true);
+            assertTrue(followerInterrupted.get(5, TimeUnit.SECONDS));
+            assertFalse(leader.isDone());
+
+            release.countDown();
+            assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFollowersRetryWhenLeaderCancelled() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    // 与HTTP客户端在等待连接时被中断的表现一致
+                    throw new IllegalStateException("aborted", new InterruptedIOException());
+                }
+                return "leader";
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> flight.execute("key", () -> {
+                    loads.incrementAndGet();
+                    return "retried";
+                })));
+            }
+            while (flight.coalescedCount() < 3) {
+                Thread.sleep(5);
+            }
+
+            leader.cancel(true);
+
+            // 加载方被取消的失败不共享给等待者，等待者重新加载（彼此之间仍然合并）
+            for (Future<String> follower : followers) {
+                assertEquals("retried", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertTrue(loads.get() >= 2 && loads.get() <= 4);
+            assertEquals(0, flight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUpstreamFailureSharedWithFollowers() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+                loaderStarted.countDown();
+                awaitQuietly(release);
+                throw new IllegalStateException("upstream down");
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            Future<String> follower = executor.submit(() -> flight.execute("key", () -> "retried"));
+            while (flight.coalescedCount() < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testIsCancellation() {
+        assertTrue(SingleFlight.isCancellation(new IllegalStateException("aborted", new InterruptedIOException())));
+        assertTrue(SingleFlight.isCancellation(new CancellationException()));
+        assertFalse(SingleFlight.isCancellation(new IllegalStateException("timeout", new SocketTimeoutException())));
+        assertFalse(SingleFlight.isCancellation(new IllegalStateException("connection refused")));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}